@@ -0,0 +1,85 @@
+package com.ccl.excel.benchmark;
+
+import com.ccl.excel.constant.ExcelWriterType;
+import com.ccl.excel.utils.ExcelSheetWriter;
+import com.ccl.excel.utils.ExcelUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 导出写入器基准：对比 SXSSF 与直接输出 SpreadsheetML 的写入器。
+ * 每次操作写入一个完整的工作簿(表头 + rows 行)，输出丢弃，只衡量生成和压缩的开销。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExcelWriterBenchmark {
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    @Param({"SXSSF", "STREAMING"})
+    private ExcelWriterType writerType;
+
+    private List<String> headers;
+    private List<List<String>> data;
+
+    @Setup
+    public void setUp() {
+        headers = Arrays.asList("ID", "姓名", "年龄", "邮箱", "地址", "备注");
+        data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            data.add(Arrays.asList("u" + i, "用户" + i, Integer.toString(20 + i % 50),
+                    "user" + i + "@example.com", "上海市浦东新区" + (i % 1000) + "号", i % 7 == 0 ? "VIP & <重要>" : ""));
+        }
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        try (ExcelSheetWriter writer = ExcelUtil.createSheetWriter(writerType, out, "Sheet1")) {
+            writer.writeHeaders(headers);
+            for (List<String> row : data) {
+                writer.writeRow(row);
+            }
+            writer.finish();
+        }
+        return out.count;
+    }
+
+    /**
+     * 只统计字节数的输出流。
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.ccl.excel.benchmark;
+
+import com.ccl.excel.utils.ExcelReportGenerator;
+import com.ccl.excel.utils.ExcelUtil;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 导出相关热点基准：逐行写入 SXSSFSheet，以及生成错误报告。
+ * xlsx单个工作表最多1,048,576行，因此这里不使用5M行的规模。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ExportHotPathBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int rows;
+
+    private List<String> rowData;
+    private List<String> errorHeaders;
+    private List<Map<String, String>> failedRecords;
+
+    @Setup
+    public void setUp() {
+        rowData = Arrays.asList("u1", "用户1", "25", "user1@example.com");
+        errorHeaders = Arrays.asList("ID", "姓名", "年龄", "邮箱", "失败原因");
+        Map<String, String> record = new LinkedHashMap<>();
+        record.put("姓名", "用户1");
+        record.put("年龄", "-1");
+        record.put("邮箱", "user1@example.com");
+        record.put("失败原因", "年龄必须为正数");
+        // 所有失败记录共用同一个Map，避免输入数据本身占用大量内存
+        failedRecords = Collections.nCopies(rows, record);
+    }
+
+    @Benchmark
+    public int writeRowSxssf() throws Exception {
+        SXSSFWorkbook workbook = ExcelUtil.createWorkbook();
+        try {
+            SXSSFSheet sheet = workbook.createSheet("Sheet1");
+            for (int i = 1; i <= rows; i++) {
+                ExcelUtil.writeRow(sheet, i, rowData);
+            }
+            return sheet.getLastRowNum();
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    @Benchmark
+    public long generateErrorExcel() throws Exception {
+        File file = File.createTempFile("excel-bench-error-", ".xlsx");
+        try {
+            ExcelReportGenerator.generateErrorExcel(failedRecords, file.getPath(), errorHeaders);
+            return file.length();
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.ccl.excel.benchmark;
+
+import com.ccl.excel.strategy.ProductImportStrategy;
+import com.ccl.excel.strategy.UserImportStrategy;
+import com.ccl.excel.pojo.Product;
+import com.ccl.excel.pojo.User;
+import com.ccl.excel.utils.ColumnBinding;
+import com.ccl.excel.utils.ExcelReadListener;
+import com.ccl.excel.utils.ExcelRow;
+import com.ccl.excel.utils.ExcelRowMapper;
+import com.ccl.excel.utils.ExcelRowPool;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 导入策略行转换基准：每次操作转换一行。
+ * 行数据取自解析10k行合成文件得到的行对象，转换开销与文件大小无关。
+ * 列绑定和行映射器与导入时一样，在准备阶段生成一次。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImportStrategyBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private UserImportStrategy userStrategy;
+    private ProductImportStrategy productStrategy;
+    private List<ExcelRow> userRows;
+    private List<ExcelRow> productRows;
+    private ColumnBinding userColumns;
+    private ColumnBinding productColumns;
+
+    @Setup
+    public void setUp() throws Exception {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding("UTF-8");
+
+        userStrategy = new UserImportStrategy();
+        ReflectionTestUtils.setField(userStrategy, "mapper",
+                ExcelRowMapper.create(User.class, messageSource, BeanUtils::instantiateClass));
+        productStrategy = new ProductImportStrategy();
+        ReflectionTestUtils.setField(productStrategy, "mapper",
+                ExcelRowMapper.create(Product.class, messageSource, BeanUtils::instantiateClass));
+
+        userRows = readRows(SyntheticWorkbooks.users(ROWS));
+        productRows = readRows(SyntheticWorkbooks.products(ROWS));
+        userColumns = ColumnBinding.bind(userRows.get(0).getHeader(), ColumnBinding.resolveNames(messageSource,
+                userStrategy.getColumnKeys(), Locale.SIMPLIFIED_CHINESE));
+        productColumns = ColumnBinding.bind(productRows.get(0).getHeader(), ColumnBinding.resolveNames(messageSource,
+                productStrategy.getColumnKeys(), Locale.SIMPLIFIED_CHINESE));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void convertUserRow(Blackhole blackhole) {
+        for (ExcelRow row : userRows) {
+            blackhole.consume(userStrategy.convertRow(row, userColumns));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void convertProductRow(Blackhole blackhole) {
+        for (ExcelRow row : productRows) {
+            blackhole.consume(productStrategy.convertRow(row, productColumns));
+        }
+    }
+
+    /**
+     * 解析文件并保留全部行对象(不归还到池中)。
+     */
+    private static List<ExcelRow> readRows(File file) throws Exception {
+        List<ExcelRow> rows = new ArrayList<>(ROWS);
+        OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ);
+        try {
+            ExcelReadListener listener = new ExcelReadListener(1000, new ExcelRowPool(1, 16), rows::addAll);
+            listener.process(new XSSFReader(pkg), new ReadOnlySharedStringsTable(pkg));
+        } finally {
+            pkg.revert();
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,80 @@
+package com.ccl.excel.benchmark;
+
+import com.ccl.excel.utils.ExcelSheetWriter;
+import com.ccl.excel.utils.StreamingExcelSheetWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * 基准测试使用的合成导入文件。
+ * 表头与 messages.properties 中的默认文案一致，生成的文件缓存在临时目录，多次运行之间复用。
+ * 注意：文件由导出使用的写入器生成，超过单个工作表行数上限(1,048,575个数据行)时滚动到新的工作表，
+ * 每个工作表都带表头，解析基准需要依次解析所有工作表才能得到全部行。
+ * 缓存文件名带有格式版本号，生成方式变化时应递增，避免复用旧格式的文件。
+ */
+public final class SyntheticWorkbooks {
+
+    private static final String FORMAT_VERSION = "v2"; // 缓存文件的格式版本，v2起按工作表行数上限滚动
+
+    private SyntheticWorkbooks() {
+    }
+
+    /**
+     * @param rows 数据行数
+     * @return 用户导入文件：姓名、年龄、邮箱
+     */
+    public static File users(int rows) throws IOException {
+        File file = new File(System.getProperty("java.io.tmpdir"), "excel-bench-user-" + FORMAT_VERSION + "-" + rows + ".xlsx");
+        if (!file.exists()) {
+            write(file, rows, new String[]{"姓名", "年龄", "邮箱"}, (i, row) -> {
+                row[0] = "用户" + i;
+                row[1] = Integer.toString(18 + i % 60);
+                row[2] = "user" + i + "@example.com";
+            });
+        }
+        return file;
+    }
+
+    /**
+     * @param rows 数据行数
+     * @return 产品导入文件：产品id、产品名称、产品价格、产品库存
+     */
+    public static File products(int rows) throws IOException {
+        File file = new File(System.getProperty("java.io.tmpdir"), "excel-bench-product-" + FORMAT_VERSION + "-" + rows + ".xlsx");
+        if (!file.exists()) {
+            write(file, rows, new String[]{"产品id", "产品名称", "产品价格", "产品库存"}, (i, row) -> {
+                row[0] = "P" + i;
+                row[1] = "产品" + i;
+                row[2] = (i % 1000) + "." + (i % 100);
+                row[3] = Integer.toString(i % 5000);
+            });
+        }
+        return file;
+    }
+
+    private static void write(File file, int rows, String[] headers, RowFiller filler) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        String[] row = new String[headers.length];
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp));
+             ExcelSheetWriter writer = new StreamingExcelSheetWriter(out, "Sheet1")) {
+            writer.writeHeaders(Arrays.asList(headers));
+            for (int i = 0; i < rows; i++) {
+                filler.fill(i, row);
+                writer.writeRow(Arrays.asList(row));
+            }
+            writer.finish();
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("无法生成基准文件: " + file);
+        }
+    }
+
+    private interface RowFiller {
+        void fill(int index, String[] row);
+    }
+}
@@ -0,0 +1,94 @@
+package com.ccl.excel.utils;
+
+import com.ccl.excel.benchmark.SyntheticWorkbooks;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 导入解析基准：SAX解析整个文件的所有工作表，以及单元格引用到列下标的转换。
+ * 放在utils包下以便访问包内可见的 getColumnIndex。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ExcelReadListenerBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String[] CELL_REFERENCES = {"A1", "C17", "Z999", "AB12345", "XFD1048576", "AA2", "H100000", "BC7"};
+
+    /**
+     * 解析基准的输入文件，按行数参数化。
+     */
+    @State(Scope.Benchmark)
+    public static class Input {
+
+        @Param({"10000", "1000000", "5000000"})
+        private int rows;
+
+        private File file;
+
+        @Setup
+        public void setUp() throws Exception {
+            file = SyntheticWorkbooks.users(rows);
+        }
+    }
+
+    /**
+     * 依次解析文件中的所有工作表，批次处理完立即归还行对象，与导入流水线的行为一致。
+     * 超过单个工作表行数上限的合成文件分布在多个工作表中，只解析第一个工作表会少算行数。
+     * @return 解析得到的数据行数
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long parse(Input input) throws Exception {
+        OPCPackage pkg = OPCPackage.open(input.file, PackageAccess.READ);
+        try {
+            ExcelRowPool rowPool = new ExcelRowPool(BATCH_SIZE * 2, 16);
+            long[] parsed = new long[1];
+            ExcelReadListener listener = new ExcelReadListener(BATCH_SIZE, rowPool, batch -> {
+                parsed[0] += batch.size();
+                rowPool.releaseAll(batch);
+            });
+            ReadOnlySharedStringsTable sst = new ReadOnlySharedStringsTable(pkg, false);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    listener.process(sheet, sheets.getSheetName(), sst);
+                }
+            }
+            return parsed[0];
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(8)
+    public int getColumnIndex() {
+        int sum = 0;
+        for (String reference : CELL_REFERENCES) {
+            sum += ExcelReadListener.getColumnIndex(reference);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,43 @@
+package com.ccl.excel.annotion;
+
+import com.ccl.excel.utils.ExcelCellConverter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 自定义注解，用于标记POJO中与Excel列对应的字段。
+ * 同一份声明同时用于导入行转换、导出行渲染和错误报告，由{@link com.ccl.excel.config.ExcelRowMapperFactory}
+ * 在启动时生成对应的行映射器。字段需要有公共的getter和setter。
+ */
+@Retention(RetentionPolicy.RUNTIME) // 运行时保留注解，以便通过反射读取
+@Target(ElementType.FIELD)      // 只能应用于字段上
+public @interface ExcelColumn {
+
+    /**
+     * @return 列头的多语言key，找不到对应消息时key本身即列头。
+     */
+    String header();
+
+    /**
+     * @return 列的顺序，导出和错误报告按此顺序排列列，导入按此顺序绑定列。默认-1，按字段声明顺序排在已指定顺序的列之后。
+     */
+    int index() default -1;
+
+    /**
+     * @return 单元格与字段值之间的转换器。默认按字段类型选择内置转换器；自定义转换器优先使用Spring容器中的Bean，没有时通过无参构造函数创建。
+     */
+    Class<? extends ExcelCellConverter> converter() default ExcelCellConverter.class;
+
+    /**
+     * @return 导入时单元格是否不能为空。默认false。
+     */
+    boolean required() default false;
+
+    /**
+     * @return 是否从导入文件中读取该列。为false时该列只用于导出和错误报告，导入时不要求文件中存在。默认true。
+     */
+    boolean importable() default true;
+}
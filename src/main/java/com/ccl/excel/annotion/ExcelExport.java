@@ -1,5 +1,9 @@
 package com.ccl.excel.annotion;
 
+import com.ccl.excel.constant.ExcelWriterType;
+import com.ccl.excel.constant.ExportFetchMode;
+import com.ccl.excel.constant.ExportOutput;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -37,4 +41,45 @@ public @interface ExcelExport {
      * @return sheet 的名称，用于 Excel 文件中。
      */
     String sheetName() default "Sheet1";
+
+    /**
+     * @return 获取数据的方式。默认OFFSET按偏移量分页；KEYSET要求策略实现 KeysetExportStrategy；
+     * CURSOR要求策略实现 CursorExportStrategy，在只读事务内通过游标逐行写入。
+     */
+    ExportFetchMode fetchMode() default ExportFetchMode.OFFSET;
+
+    /**
+     * @return KEYSET模式下把键值预先切分成的并行区间数。默认1，即不切分。
+     */
+    int parallelRanges() default 1;
+
+    /**
+     * @return KEYSET模式下每个区间最多预取的页数。默认2。
+     */
+    int prefetchPages() default 2;
+
+    /**
+     * @return 导出结果的输出方式。默认FILE写入服务器临时文件；RESPONSE同步写入当前HTTP响应，适合百万行以内的交互式导出。
+     */
+    ExportOutput output() default ExportOutput.FILE;
+
+    /**
+     * @return 是否异步导出，只对FILE输出生效。为true时请求线程创建导出任务日志后立即返回任务ID，
+     * 统计总数、查询和写入文件都在后台线程池执行，进度通过导出任务状态接口查询。
+     * 方法返回ResponseEntity时以202 Accepted返回任务状态。RESPONSE输出必须在请求线程上写入响应，忽略此配置。默认false。
+     */
+    boolean async() default false;
+
+    /**
+     * @return 生成xlsx的写入器类型。默认SXSSF；纯文本表格导出可选STREAMING，更快且不产生临时文件。
+     * RESPONSE输出时始终使用STREAMING。
+     */
+    ExcelWriterType writerType() default ExcelWriterType.SXSSF;
+
+    /**
+     * @return 每个工作表最多的数据行数(不含表头)，超出后自动换到"sheetName_2"、"sheetName_3"...并重复表头。
+     * 默认1048575，即xlsx单个工作表的上限。
+     * OFFSET模式、STREAMING写入器、FILE输出且总数超过该值时，各工作表由独立的线程并行查询和生成。
+     */
+    int maxRowsPerSheet() default 1_048_575;
 }
@@ -1,5 +1,6 @@
 package com.ccl.excel.annotion;
 
+import com.ccl.excel.constant.SharedStringsMode;
 import com.ccl.excel.strategy.BatchImportStrategy;
 
 import java.lang.annotation.ElementType;
@@ -22,13 +23,82 @@ public @interface ExcelImport {
 
     /**
      * @return 主线程等待所有子线程完成的最长秒数。如果超时，主线程将返回，但子线程会继续执行。默认30秒。
+     * 只在同步模式下使用。
      */
     long timeoutSeconds() default 30;
 
+    /**
+     * @return 是否异步导入。为true时请求线程保存上传文件和导入记录后立即返回任务ID，
+     * 解析和入库在后台线程池执行，进度通过任务状态接口查询。方法返回ResponseEntity时以202 Accepted返回任务状态。默认false。
+     */
+    boolean async() default false;
+
+    /**
+     * @return 解析线程与导入工作线程之间的队列最多容纳的批次数，队列满时解析线程阻塞。默认8。
+     */
+    int maxInFlightBatches() default 8;
+
+    /**
+     * @return 单个导入任务最多同时使用的导入工作线程数。默认4。
+     */
+    int workerCount() default 4;
+
+    /**
+     * @return 批次导入因数据错误(例如违反约束)抛出异常时对半拆分重试的最大深度，0表示不重试、整个批次记为失败。
+     * 连接失败、超时等与数据无关的异常不拆分，批次不记入检查点。默认10，1000行的批次可以拆分到单行。
+     */
+    int retryDepth() default 10;
+
+    /**
+     * @return 拆分重试时不大于该行数的子批次不再拆分，其中的行全部记为失败。默认1。
+     */
+    int retryMinChunkSize() default 1;
+
+    /**
+     * @return 是否按策略的{@link BatchImportStrategy#getNaturalKey}在任务内跨批次去重。
+     * 开启后业务主键重复的行在入库前直接记为失败，不会因为违反唯一约束而让整个批次回滚。默认false。
+     */
+    boolean deduplicate() default false;
+
     /**
      * @return 指定用于处理导入逻辑的BatchImportStrategy实现类。
      */
     Class<? extends BatchImportStrategy<?>> strategy();
 
+    /**
+     * @return 错误报告最多包含的失败记录数，超出部分只计数不写入。默认0，表示不限制。
+     */
+    long errorReportLimit() default 0;
+
+    /**
+     * @return 错误报告的抽样比例，每N条失败记录写入1条。默认1，表示全部写入。
+     */
+    int errorSampleRate() default 1;
+
+    /**
+     * @return 共享字符串表的加载方式。默认AUTO，根据SST大小自动选择。
+     */
+    SharedStringsMode sharedStringsMode() default SharedStringsMode.AUTO;
+
+    /**
+     * @return AUTO模式下，SST部件解压后超过该字节数时改用内存映射方式加载。默认64MB。
+     */
+    long sharedStringsMappedThreshold() default 64L * 1024 * 1024;
+
+    /**
+     * @return 是否导入所有工作表。为true时忽略sheetNames和sheetIndexes。默认false。
+     */
+    boolean allSheets() default false;
+
+    /**
+     * @return 按名称选择要导入的工作表，可与sheetIndexes同时使用。
+     * 未选择任何工作表时只导入第一个工作表。
+     */
+    String[] sheetNames() default {};
+
+    /**
+     * @return 按索引(0-based，工作簿中的顺序)选择要导入的工作表，可与sheetNames同时使用。
+     */
+    int[] sheetIndexes() default {};
 
 }
\ No newline at end of file
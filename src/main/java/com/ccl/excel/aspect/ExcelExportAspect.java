@@ -1,15 +1,31 @@
 package com.ccl.excel.aspect;
 
 import com.ccl.excel.annotion.ExcelExport;
+import com.ccl.excel.config.ExcelMetrics;
+import com.ccl.excel.config.ExportJobRegistry;
+import com.ccl.excel.constant.ExcelWriterType;
+import com.ccl.excel.constant.ExportFetchMode;
+import com.ccl.excel.constant.ExportOutput;
 import com.ccl.excel.constant.ExportStatus;
 import com.ccl.excel.execption.ExcelExportException;
+import com.ccl.excel.pojo.ExportJobStatus;
 import com.ccl.excel.pojo.ExportTaskLog;
 import com.ccl.excel.service.ExportTaskLogService;
 import com.ccl.excel.strategy.BatchExportStrategy;
+import com.ccl.excel.strategy.CursorExportStrategy;
+import com.ccl.excel.strategy.KeyRange;
+import com.ccl.excel.strategy.KeysetExportStrategy;
+import com.ccl.excel.task.ExportBatchSource;
+import com.ccl.excel.task.ExportJobContext;
+import com.ccl.excel.task.ExportRowRenderer;
+import com.ccl.excel.task.KeysetExportBatchSource;
+import com.ccl.excel.task.OffsetExportBatchSource;
+import com.ccl.excel.task.RenderedBatch;
+import com.ccl.excel.utils.ExcelSheetWriter;
 import com.ccl.excel.utils.ExcelUtil;
+import com.ccl.excel.utils.ParallelExcelWorkbookWriter;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.xssf.streaming.SXSSFSheet;
-import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.ibatis.cursor.Cursor;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -17,21 +33,37 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import javax.annotation.Resource;
+import javax.servlet.http.HttpServletResponse;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Method;
+import java.net.URLEncoder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 优化版 Excel 导出切面：
  * - 采用生产者-消费者模型控制子线程查询和主线程写入节奏
+ * - 子线程查询后直接把实体渲染成单元格数组，主线程只负责序列化写入
  * - 避免子线程直接持有 SXSSFWorkbook，同步写入集中在单线程
  */
 @Slf4j
@@ -42,25 +74,44 @@ public class ExcelExportAspect {
     @Autowired
     private Executor excelExportTaskExecutor;
 
+    @Autowired
+    private Executor excelSheetWriteTaskExecutor;
+
+    @Autowired
+    private Executor excelExportJobExecutor;
+
     @Resource
     private ApplicationContext applicationContext;
 
     @Resource
     private ExportTaskLogService exportTaskLogService;
 
+    @Resource
+    private PlatformTransactionManager transactionManager;
+
+    @Resource
+    private ExcelMetrics excelMetrics;
+
+    @Resource
+    private ExportJobRegistry exportJobRegistry;
+
     @Pointcut("@annotation(com.ccl.excel.annotion.ExcelExport)")
     public void excelExportPointcut() {}
 
+    /**
+     * 环绕通知，实现Excel导出的核心逻辑。
+     * FILE输出且配置了异步时，创建导出任务日志后提交到异步导出线程池，请求线程立即返回任务ID；否则在请求线程上导出。
+     * FILE输出且方法返回ResponseEntity时返回任务状态：异步为202 Accepted，同步为200。
+     * @param joinPoint 切点连接点
+     * @return 业务方法的返回值
+     * @throws Throwable 如果发生异常
+     */
     @Around("excelExportPointcut()")
     public Object aroundExcelExport(ProceedingJoinPoint joinPoint) throws Throwable {
         MethodSignature sig = (MethodSignature) joinPoint.getSignature();
         Method method = sig.getMethod();
         ExcelExport ann = method.getAnnotation(ExcelExport.class);
-        int batchSize = ann.batchSize();
-        long timeout = ann.timeoutSeconds();
-        String name = ann.exportName();
         String beanName = ann.strategyBeanName();
-        String sheetName = ann.sheetName();
 
         Object[] args = joinPoint.getArgs();
 //        @SuppressWarnings("unchecked")
@@ -68,68 +119,382 @@ public class ExcelExportAspect {
                 applicationContext.getBean(beanName);
 
         ExportTaskLog taskLog = new ExportTaskLog();
-        taskLog.setExportName(name);
+        taskLog.setExportName(ann.exportName());
         exportTaskLogService.createExportLog(taskLog);
         String taskId = taskLog.getId();
 
-        long total = strategy.getTotalCount(args);
-        taskLog.setTotalRecords(total);
-        exportTaskLogService.updateExportLogStatus(taskId, ExportStatus.IN_PROGRESS.getValue(), null);
+        // 登记到内存中的任务登记表，供状态接口查询进度
+        ExportJobContext jobContext = new ExportJobContext(taskId, ann.exportName(), taskLog.getStartTime());
+        exportJobRegistry.register(jobContext);
+
+        boolean async = ann.async() && ann.output() == ExportOutput.FILE;
+        if (ann.async() && !async) {
+            log.warn("任务 {} 输出到HTTP响应，必须在请求线程上写入，忽略异步配置", taskId);
+        }
+        String message;
+        if (async) {
+            try {
+                excelExportJobExecutor.execute(() -> {
+                    try {
+                        export(ann, strategy, taskLog, jobContext, args);
+                    } catch (Exception e) {
+                        log.error("任务 {} 后台导出失败: {}", taskId, e.getMessage());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                try {
+                    exportTaskLogService.finalizeExportLog(taskId, ExportStatus.FAILED.getValue(), null, 0L,
+                            "导出任务过多，请稍后重试");
+                } finally {
+                    finishJob(jobContext, ExportStatus.FAILED, null, "导出任务过多，请稍后重试");
+                }
+                throw new ExcelExportException("导出任务过多，请稍后重试", e);
+            }
+            log.info("任务 {} 已提交到后台导出", taskId);
+            message = "导出任务已提交，正在后台处理中，任务ID=" + taskId;
+        } else {
+            message = export(ann, strategy, taskLog, jobContext, args);
+        }
+        if (ann.output() == ExportOutput.FILE && ResponseEntity.class.isAssignableFrom(method.getReturnType())) {
+            ExportJobStatus status = status(taskId);
+            return async ? ResponseEntity.accepted().body(status) : ResponseEntity.ok(status);
+        }
+        return message;
+    }
 
-        if (total == 0) {
-            exportTaskLogService.finalizeExportLog(taskId, ExportStatus.COMPLETED.getValue(), null, 0L, null);
-            return "任务 " + taskId + " 无数据";
+    /**
+     * 查询导出任务的进度。
+     * 本节点执行中或刚结束的任务从内存登记表读取已写行数，不访问数据库；其他任务回退到导出任务日志。
+     * @param taskId 导出任务ID
+     * @return 任务状态，任务不存在时为null
+     */
+    public ExportJobStatus status(String taskId) {
+        ExportJobStatus status = exportJobRegistry.get(taskId);
+        if (status != null) {
+            return status;
         }
+        ExportTaskLog taskLog = exportTaskLogService.getById(taskId);
+        return taskLog == null ? null : ExportJobStatus.of(taskLog);
+    }
 
-        int pages = (int) Math.ceil((double) total / batchSize);
-        SXSSFWorkbook workbook = ExcelUtil.createWorkbook();
-        SXSSFSheet sheet = workbook.createSheet(sheetName);
-        ExcelUtil.writeHeaders(sheet, strategy.getHeaders());
+    /**
+     * 在当前线程上执行一次导出：统计总数，按配置的方式查询并写入文件或HTTP响应，结束时更新导出任务日志和任务上下文。
+     * @return 导出结果信息，输出到响应时为null
+     */
+    private String export(ExcelExport ann, BatchExportStrategy<Object> strategy, ExportTaskLog taskLog,
+                          ExportJobContext jobContext, Object[] args) throws Exception {
+        int batchSize = ann.batchSize();
+        long timeout = ann.timeoutSeconds();
+        String name = ann.exportName();
+        String sheetName = ann.sheetName();
+        String taskId = taskLog.getId();
 
-        BlockingQueue<List<Object>> queue = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
-        AtomicLong rowsWritten = new AtomicLong();
+        long startNanos = System.nanoTime();
+        AtomicLong rowsWritten = jobContext.rowsWrittenCounter();
+        long total = 0;
+        ExcelMetrics.ExportJobMetrics jobMetrics = null;
+        String path = null;
+        OutputStream out = null;
+        ExcelSheetWriter writer = null;
+        try {
+            if (ann.fetchMode() == ExportFetchMode.CURSOR) {
+                // 游标模式直接流式读取，不预先统计总数
+                exportTaskLogService.updateExportLogStatus(taskId, ExportStatus.IN_PROGRESS.getValue(), null);
+                jobContext.start(null);
+            } else {
+                total = strategy.getTotalCount(args);
+                taskLog.setTotalRecords(total);
+                exportTaskLogService.updateExportLogStatus(taskId, ExportStatus.IN_PROGRESS.getValue(), null);
+                jobContext.start(total);
 
-        for (int i = 0; i < pages; i++) {
-            final long offset = (long) i * batchSize;
-            excelExportTaskExecutor.execute(() -> {
-                try {
-                    List<Object> data = strategy.fetchDataSegment(offset, batchSize, args);
-                    //  BlockingQueue 添加任务到队列有三种方式：
-                    // 1. put(e)：如果队列已满，则阻塞当前线程，直到队列有空间。
-                    // 2. offer(e)：如果队列已满，则返回false，不阻塞当前线程。
-                    // 3. offer(e,timeout)：如果队列已满，则阻塞当前线程，直到队列有空间或者超时。
-                    // 4. add(e)：如果队列已满，则抛出异常。
-                    // 这里一定要选择 put
-                    queue.put(data);
-                } catch (Exception e) {
-                    log.error("任务 {} 生产者异常", taskId, e);
-                    throw new ExcelExportException(e.getMessage(), e);
+                // 输出到响应时仍然返回只有表头的文件
+                if (total == 0 && ann.output() == ExportOutput.FILE) {
+                    exportTaskLogService.finalizeExportLog(taskId, ExportStatus.COMPLETED.getValue(), null, 0L, null);
+                    finishJob(jobContext, ExportStatus.COMPLETED, null, null);
+                    return "任务 " + taskId + " 无数据";
+                }
+            }
+
+            jobMetrics = excelMetrics.exportJob(name, ClassUtils.getUserClass(strategy).getSimpleName());
+            List<String> headers = strategy.getHeaders();
+            // 渲染器池的容量与同时在途的批次数相当
+            ExportRowRenderer<Object> renderer = new ExportRowRenderer<>(strategy, headers.size(),
+                    Runtime.getRuntime().availableProcessors() * 2 + ann.parallelRanges() * ann.prefetchPages());
+            int maxRowsPerSheet = Math.max(1, Math.min(ann.maxRowsPerSheet(), ExcelUtil.MAX_ROWS_PER_SHEET));
+            // 总数已知且需要多个工作表时，各工作表可以独立查询和生成；写入响应时要边生成边发送，仍然顺序写入
+            boolean parallelSheets = ann.fetchMode() == ExportFetchMode.OFFSET && ann.output() == ExportOutput.FILE
+                    && ann.writerType() == ExcelWriterType.STREAMING && total > maxRowsPerSheet;
+            if (ann.output() == ExportOutput.RESPONSE) {
+                // SXSSF只能在全部行写完后整体输出，这里直接生成SpreadsheetML边写边发送
+                out = openResponse(name, taskId).getOutputStream();
+                writer = ExcelUtil.createSheetWriter(ExcelWriterType.STREAMING, out, sheetName, maxRowsPerSheet);
+            } else {
+                path = "/tmp/export_" + taskId + ".xlsx";
+                out = new FileOutputStream(path);
+                if (parallelSheets) {
+                    writeSheetsInParallel(taskId, strategy, renderer, headers, total, maxRowsPerSheet, ann, out,
+                            rowsWritten, jobMetrics, args);
+                } else {
+                    writer = ExcelUtil.createSheetWriter(ann.writerType(), out, sheetName, maxRowsPerSheet);
                 }
-            });
+            }
+
+            if (writer != null) {
+                writer.writeHeaders(headers);
+
+                switch (ann.fetchMode()) {
+                    case KEYSET:
+                        writeByKeyset(taskId, strategy, renderer, ann, writer, rowsWritten, jobMetrics, args);
+                        break;
+                    case CURSOR:
+                        writeByCursor(strategy, renderer, ann, writer, rowsWritten, jobMetrics, args);
+                        break;
+                    default:
+                        writeByOffset(taskId, strategy, renderer, total, batchSize, timeout, writer, rowsWritten,
+                                jobMetrics, args);
+                }
+
+                writer.finish();
+            }
+        } catch (Exception e) {
+            log.error("任务 {} 导出失败，已写 {} 行", taskId, rowsWritten.get(), e);
+            if (jobMetrics != null) {
+                jobMetrics.finish(false);
+            }
+            try {
+                exportTaskLogService.finalizeExportLog(taskId, ExportStatus.FAILED.getValue(), null, rowsWritten.get(),
+                        elapsedMillis(startNanos), e.getMessage());
+            } finally {
+                finishJob(jobContext, ExportStatus.FAILED, null, e.getMessage());
+            }
+            throw e;
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+            if (out != null) {
+                out.close();
+            }
         }
 
-        for (int i = 0; i < pages; i++) {
-            List<Object> batch = queue.poll(timeout, TimeUnit.SECONDS);
-            if (batch == null) {
-                log.warn("任务 {} 超时等待数据，已写 {} 行", taskId, rowsWritten.get());
-                break;
+        jobMetrics.finish(true);
+        try {
+            exportTaskLogService.finalizeExportLog(taskId, ExportStatus.COMPLETED.getValue(), path, rowsWritten.get(),
+                    elapsedMillis(startNanos), null);
+        } finally {
+            finishJob(jobContext, ExportStatus.COMPLETED, path, null);
+        }
+        // 输出到响应时文件内容已经写出，不再返回消息体
+        return ann.output() == ExportOutput.RESPONSE ? null : "导出完成，任务ID=" + taskId;
+    }
+
+    /**
+     * 结束任务上下文，并移入已结束的登记表。
+     */
+    private void finishJob(ExportJobContext jobContext, ExportStatus status, String filePath, String message) {
+        jobContext.finish(status, filePath, message);
+        exportJobRegistry.finish(jobContext);
+    }
+
+    /**
+     * 设置下载响应头。不设置Content-Length，由容器使用分块传输边生成边发送。
+     */
+    private HttpServletResponse openResponse(String exportName, String taskId) throws IOException {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attributes == null || attributes.getResponse() == null) {
+            throw new IllegalStateException("当前不在HTTP请求中，不能使用 RESPONSE 输出方式");
+        }
+        HttpServletResponse response = attributes.getResponse();
+        String fileName = URLEncoder.encode((exportName.isEmpty() ? "export_" + taskId : exportName) + ".xlsx", "UTF-8")
+                .replace("+", "%20");
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader("Content-Disposition", "attachment; filename*=UTF-8''" + fileName);
+        return response;
+    }
+
+    /**
+     * 按偏移量分页：各页并行查询，经重排窗口按页号顺序追加写入。
+     */
+    private void writeByOffset(String taskId, BatchExportStrategy<Object> strategy, ExportRowRenderer<Object> renderer,
+                               long total, int batchSize, long timeout, ExcelSheetWriter writer,
+                               AtomicLong rowsWritten, ExcelMetrics.ExportJobMetrics jobMetrics,
+                               Object[] args) throws Exception {
+        int windowSize = Runtime.getRuntime().availableProcessors() * 2;
+        try (ExportBatchSource source = new OffsetExportBatchSource<>(taskId, strategy, renderer, total, batchSize,
+                windowSize, excelExportTaskExecutor, args)) {
+            writeAll(source, renderer, timeout, writer, rowsWritten, jobMetrics);
+        } catch (TimeoutException e) {
+            log.warn("任务 {} 超时等待数据，已写 {} 行", taskId, rowsWritten.get());
+        }
+    }
+
+    /**
+     * 按偏移量分页并按工作表拆分：每个工作表对应一段偏移量范围，在生成线程池中由一个线程独立查询、序列化和压缩成
+     * 单独的部件，全部完成后按工作表顺序组装成一个xlsx。
+     */
+    private void writeSheetsInParallel(String taskId, BatchExportStrategy<Object> strategy,
+                                       ExportRowRenderer<Object> renderer, List<String> headers, long total,
+                                       int maxRowsPerSheet, ExcelExport ann, OutputStream out, AtomicLong rowsWritten,
+                                       ExcelMetrics.ExportJobMetrics jobMetrics, Object[] args) throws Exception {
+        int sheetCount = (int) ((total + maxRowsPerSheet - 1) / maxRowsPerSheet);
+        int processors = Runtime.getRuntime().availableProcessors();
+        // 查询窗口由同时生成的工作表分摊，总的在途页数与单个工作表导出时相当
+        int windowSize = Math.max(2, processors * 2 / Math.min(sheetCount, processors));
+        log.info("任务 {} 共 {} 行，拆分为 {} 个工作表并行生成", taskId, total, sheetCount);
+
+        try (ParallelExcelWorkbookWriter workbook = new ParallelExcelWorkbookWriter(ann.sheetName(), sheetCount)) {
+            CompletableFuture<?>[] sheets = new CompletableFuture<?>[sheetCount];
+            for (int i = 0; i < sheetCount; i++) {
+                int index = i;
+                long startOffset = (long) i * maxRowsPerSheet;
+                long endOffset = Math.min(total, startOffset + maxRowsPerSheet);
+                sheets[i] = CompletableFuture.runAsync(() -> writeSheetPart(taskId, strategy, renderer, workbook,
+                        index, startOffset, endOffset, windowSize, headers, ann, rowsWritten, jobMetrics, args),
+                        excelSheetWriteTaskExecutor);
+            }
+            try {
+                CompletableFuture.allOf(sheets).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+            workbook.finish(out);
+        }
+    }
+
+    /**
+     * 在当前线程上生成一个工作表部件。
+     */
+    private void writeSheetPart(String taskId, BatchExportStrategy<Object> strategy, ExportRowRenderer<Object> renderer,
+                                ParallelExcelWorkbookWriter workbook, int index, long startOffset, long endOffset,
+                                int windowSize, List<String> headers, ExcelExport ann, AtomicLong rowsWritten,
+                                ExcelMetrics.ExportJobMetrics jobMetrics, Object[] args) {
+        try (ExportBatchSource source = new OffsetExportBatchSource<>(taskId, strategy, renderer, startOffset,
+                endOffset, ann.batchSize(), windowSize, excelExportTaskExecutor, args);
+             ExcelSheetWriter writer = workbook.openSheet(index)) {
+            writer.writeHeaders(headers);
+            try {
+                writeAll(source, renderer, ann.timeoutSeconds(), writer, rowsWritten, jobMetrics);
+            } catch (TimeoutException e) {
+                log.warn("任务 {} 第 {} 个工作表超时等待数据，已写 {} 行", taskId, index + 1, rowsWritten.get());
+            }
+            writer.finish();
+        } catch (Exception e) {
+            throw new ExcelExportException("生成第 " + (index + 1) + " 个工作表失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 按键值分页：预先把键值切分成若干区间并行查询，每个区间内沿延续键逐页向后读取，按键值顺序追加写入。
+     */
+    @SuppressWarnings("unchecked")
+    private void writeByKeyset(String taskId, BatchExportStrategy<Object> strategy, ExportRowRenderer<Object> renderer,
+                               ExcelExport ann, ExcelSheetWriter writer, AtomicLong rowsWritten,
+                               ExcelMetrics.ExportJobMetrics jobMetrics, Object[] args) throws Exception {
+        if (!(strategy instanceof KeysetExportStrategy)) {
+            throw new IllegalArgumentException("导出策略 " + ann.strategyBeanName() + " 未实现 KeysetExportStrategy，不能使用 KEYSET 模式");
+        }
+        KeysetExportStrategy<Object, Object> keysetStrategy = (KeysetExportStrategy<Object, Object>) strategy;
+        List<KeyRange<Object>> ranges = keysetStrategy.splitKeyRanges(ann.parallelRanges(), args);
+
+        try (ExportBatchSource source = new KeysetExportBatchSource<>(taskId, keysetStrategy, renderer, ranges,
+                ann.batchSize(), ann.prefetchPages(), excelExportTaskExecutor, args)) {
+            writeAll(source, renderer, ann.timeoutSeconds(), writer, rowsWritten, jobMetrics);
+        } catch (TimeoutException e) {
+            log.warn("任务 {} 超时等待数据，已写 {} 行", taskId, rowsWritten.get());
+        }
+    }
+
+    /**
+     * 数据库游标：在只读事务内打开游标，逐行读取，每攒够一批就提交到导出线程池渲染，
+     * 渲染结果按提交顺序依次写入工作表，同时最多有windowSize批在渲染或等待写入。
+     * 游标依赖打开它的SqlSession，事务结束前必须读完并关闭。
+     */
+    @SuppressWarnings("unchecked")
+    private void writeByCursor(BatchExportStrategy<Object> strategy, ExportRowRenderer<Object> renderer,
+                               ExcelExport ann, ExcelSheetWriter writer, AtomicLong rowsWritten,
+                               ExcelMetrics.ExportJobMetrics jobMetrics, Object[] args) {
+        if (!(strategy instanceof CursorExportStrategy)) {
+            throw new IllegalArgumentException("导出策略 " + ann.strategyBeanName() + " 未实现 CursorExportStrategy，不能使用 CURSOR 模式");
+        }
+        CursorExportStrategy<Object> cursorStrategy = (CursorExportStrategy<Object>) strategy;
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        int batchSize = ann.batchSize();
+        int windowSize = Runtime.getRuntime().availableProcessors() * 2;
+        transactionTemplate.executeWithoutResult(status -> {
+            Deque<CompletableFuture<RenderedBatch>> rendering = new ArrayDeque<>(windowSize); // 按游标顺序排列
+            try (Cursor<Object> cursor = cursorStrategy.openCursor(args)) {
+                List<Object> chunk = new ArrayList<>(batchSize);
+                for (Object item : cursor) {
+                    chunk.add(item);
+                    if (chunk.size() == batchSize) {
+                        rendering.add(renderAsync(renderer, chunk));
+                        chunk = new ArrayList<>(batchSize);
+                        if (rendering.size() >= windowSize) {
+                            writeRendered(rendering, renderer, writer, rowsWritten, jobMetrics);
+                        }
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    rendering.add(renderAsync(renderer, chunk));
+                }
+                while (!rendering.isEmpty()) {
+                    writeRendered(rendering, renderer, writer, rowsWritten, jobMetrics);
+                }
+            } catch (IOException e) {
+                throw new ExcelExportException("写入数据或关闭游标失败: " + e.getMessage(), e);
             }
-            int baseRow = (int) (i * batchSize + 1);
-            for (int j = 0; j < batch.size(); j++) {
-                ExcelUtil.writeRow(sheet, baseRow + j,
-                        strategy.convertToRow(batch.get(j)));
-                rowsWritten.incrementAndGet();
+        });
+    }
+
+    private CompletableFuture<RenderedBatch> renderAsync(ExportRowRenderer<Object> renderer, List<Object> chunk) {
+        return CompletableFuture.supplyAsync(() -> renderer.render(chunk), excelExportTaskExecutor);
+    }
+
+    /**
+     * 等待最早提交的一批渲染完成并写入。
+     */
+    private void writeRendered(Deque<CompletableFuture<RenderedBatch>> rendering, ExportRowRenderer<Object> renderer,
+                               ExcelSheetWriter writer, AtomicLong rowsWritten,
+                               ExcelMetrics.ExportJobMetrics jobMetrics) throws IOException {
+        long waitStart = System.nanoTime();
+        RenderedBatch batch = rendering.poll().join();
+        jobMetrics.recordFetched(System.nanoTime() - waitStart, rendering.size());
+        writeBatch(batch, renderer, writer, rowsWritten, jobMetrics);
+    }
+
+    /**
+     * 从数据源依次取出各批已渲染的行，紧接着上一行追加写入。
+     */
+    private void writeAll(ExportBatchSource source, ExportRowRenderer<Object> renderer, long timeout,
+                          ExcelSheetWriter writer, AtomicLong rowsWritten,
+                          ExcelMetrics.ExportJobMetrics jobMetrics) throws Exception {
+        while (true) {
+            long waitStart = System.nanoTime();
+            RenderedBatch batch = source.next(timeout, TimeUnit.SECONDS);
+            if (batch == null) {
+                return;
             }
+            jobMetrics.recordFetched(System.nanoTime() - waitStart, source.getBufferedBatches());
+            writeBatch(batch, renderer, writer, rowsWritten, jobMetrics);
         }
+    }
 
-        String path;
-        try (FileOutputStream fos = new FileOutputStream("/tmp/export_" + taskId + ".xlsx")) {
-            workbook.write(fos);
-            path = "/tmp/export_" + taskId + ".xlsx";
+    /**
+     * 序列化一批已渲染的行，写完后把批次归还给渲染器复用。
+     */
+    private static void writeBatch(RenderedBatch batch, ExportRowRenderer<Object> renderer, ExcelSheetWriter writer,
+                                   AtomicLong rowsWritten, ExcelMetrics.ExportJobMetrics jobMetrics) throws IOException {
+        for (int i = 0; i < batch.size(); i++) {
+            writer.writeRow(batch.getRow(i));
         }
-        workbook.dispose();
+        rowsWritten.addAndGet(batch.size());
+        jobMetrics.recordWritten(batch.size());
+        renderer.release(batch);
+    }
 
-        exportTaskLogService.finalizeExportLog(taskId, ExportStatus.COMPLETED.getValue(), path, rowsWritten.get(), null);
-        return "导出完成，任务ID=" + taskId;
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
     }
 }
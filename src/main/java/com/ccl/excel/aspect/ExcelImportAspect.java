@@ -1,17 +1,32 @@
 package com.ccl.excel.aspect;
 
 import com.ccl.excel.annotion.ExcelImport;
+import com.ccl.excel.config.ExcelMetrics;
+import com.ccl.excel.config.ImportJobRegistry;
 import com.ccl.excel.constant.ImportStatus;
+import com.ccl.excel.execption.ExcelImportException;
 //import com.ccl.excel.mapper.ImportRecordRepository;
+import com.ccl.excel.pojo.ExcelImportEntity;
+import com.ccl.excel.pojo.ImportJobStatus;
 import com.ccl.excel.pojo.ImportRecord;
+import com.ccl.excel.service.impl.ImportCheckpointServiceImpl;
 import com.ccl.excel.service.impl.ImportRecordServiceImpl;
 import com.ccl.excel.strategy.BatchImportStrategy;
 import com.ccl.excel.task.ExcelImportBatchTask;
+import com.ccl.excel.task.ImportBatch;
+import com.ccl.excel.task.ImportCheckpoint;
+import com.ccl.excel.task.ImportJobContext;
+import com.ccl.excel.task.ImportPipeline;
+import com.ccl.excel.utils.ColumnBinding;
+import com.ccl.excel.utils.ErrorReportSink;
+import com.ccl.excel.utils.ExcelHeader;
+import com.ccl.excel.utils.ExcelImportSheet;
+import com.ccl.excel.utils.ExcelImportSource;
 import com.ccl.excel.utils.ExcelReadListener;
-import com.ccl.excel.utils.ExcelReportGenerator;
+import com.ccl.excel.utils.ExcelRow;
+import com.ccl.excel.utils.ExcelRowPool;
+import com.ccl.excel.utils.KeyFingerprintSet;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.openxml4j.opc.OPCPackage;
-import org.apache.poi.xssf.eventusermodel.XSSFReader;
 import org.apache.poi.xssf.model.SharedStrings;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -19,21 +34,33 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.annotation.Resource;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * AOP切面，用于拦截带有@ExcelImport注解的方法，实现Excel自动导入逻辑。
@@ -44,20 +71,34 @@ import java.util.stream.Collectors;
 public class ExcelImportAspect {
 
     private final Executor excelImportTaskExecutor;
+    private final Executor excelParseTaskExecutor;
+    private final Executor excelImportJobExecutor;
     private final ApplicationContext applicationContext; // 注入ApplicationContext
     @Resource
     private ImportRecordServiceImpl importRecordServiceImpl;
+    @Resource
+    private ExcelMetrics excelMetrics;
+    @Resource
+    private ImportJobRegistry importJobRegistry;
+    @Resource
+    private ImportCheckpointServiceImpl importCheckpointServiceImpl;
+    @Resource
+    private PlatformTransactionManager transactionManager;
+    // 保留上传文件的目录，恢复导入时从这里读取，必须在重启和重新部署后仍然存在
+    @Value("${excel.import.source.directory:${java.io.tmpdir}/excel-import-source}")
+    private String sourceDirectory;
 
-    // 线程安全的列表，用于收集所有批次导入中产生的失败记录
-    // 注意：这个列表是针对整个应用生命周期的，如果并发导入任务很多，
-    // 可能会有交叉污染。更好的做法是为每个导入任务维护一个独立的失败记录列表，
-    // 例如通过ConcurrentHashMap<String, List<Map<String, String>>>来存储，键为importJobId
-    private final ConcurrentHashMap<String, List<Map<String, String>>> allFailedRecordsMap = new ConcurrentHashMap<>();
+    // 按导入任务ID维护各自独立的失败记录写入器，任务结束后移除
+    private final ConcurrentHashMap<String, ErrorReportSink> errorSinks = new ConcurrentHashMap<>();
 
     public ExcelImportAspect(
             @Qualifier("excelImportTaskExecutor") Executor excelImportTaskExecutor,
+            @Qualifier("excelParseTaskExecutor") Executor excelParseTaskExecutor,
+            @Qualifier("excelImportJobExecutor") Executor excelImportJobExecutor,
                              ApplicationContext applicationContext) {
         this.excelImportTaskExecutor = excelImportTaskExecutor;
+        this.excelParseTaskExecutor = excelParseTaskExecutor;
+        this.excelImportJobExecutor = excelImportJobExecutor;
         this.applicationContext = applicationContext;
     }
 
@@ -70,6 +111,7 @@ public class ExcelImportAspect {
 
     /**
      * 环绕通知，实现Excel导入的核心逻辑。
+     * 方法返回ResponseEntity时返回任务状态：异步模式为202 Accepted，同步模式为200；否则返回导入结果信息。
      * @param joinPoint 切点连接点
      * @return 业务方法的返回值
      * @throws Throwable 如果发生异常
@@ -80,14 +122,6 @@ public class ExcelImportAspect {
         Method method = signature.getMethod();
         ExcelImport excelImportAnnotation = method.getAnnotation(ExcelImport.class);
 
-        // 获取注解参数
-        int batchSize = excelImportAnnotation.batchSize();
-        long timeoutSeconds = excelImportAnnotation.timeoutSeconds();
-        Class<? extends BatchImportStrategy<?>> strategyClass = excelImportAnnotation.strategy();
-
-        // 从Spring容器中获取导入策略的实例
-        BatchImportStrategy<Object> importStrategy = (BatchImportStrategy<Object>) applicationContext.getBean(strategyClass);
-
         // 获取方法参数中的MultipartFile
         MultipartFile excelFile = null;
         for (Object arg : joinPoint.getArgs()) {
@@ -102,116 +136,592 @@ public class ExcelImportAspect {
         }
 
         // 1. 记录Excel操作记录的开始导入数据
+        // 上传文件保留到任务完成，任务被中断(例如节点重启)后可以通过resume从检查点继续导入
         ImportRecord importRecord = new ImportRecord();
         importRecord.setFileName(excelFile.getOriginalFilename());
         importRecord.setStatus(ImportStatus.STARTED.getValue());
-        importRecordServiceImpl.save(importRecord);
-
-        String importJobId = importRecord.getId();
-        log.info("导入任务 [" + importJobId + "] 已开始，文件: " + excelFile.getOriginalFilename());
+        importRecord.setImportMethod(method.getDeclaringClass().getName() + "#" + method.getName());
+        File sourceFile = sourceFile(importRecord.getId());
+        Files.createDirectories(sourceFile.toPath().getParent());
+        try (InputStream is = excelFile.getInputStream()) {
+            Files.copy(is, sourceFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        importRecord.setSourcePath(sourceFile.getAbsolutePath());
+        try {
+            importRecordServiceImpl.save(importRecord);
+        } catch (RuntimeException e) {
+            deleteSource(sourceFile);
+            throw e;
+        }
+        log.info("导入任务 [" + importRecord.getId() + "] 已开始，文件: " + excelFile.getOriginalFilename());
+        String message = runImport(excelImportAnnotation, importRecord, sourceFile, new ImportCheckpoint());
+        if (ResponseEntity.class.isAssignableFrom(method.getReturnType())) {
+            ImportJobStatus status = status(importRecord.getId());
+            return excelImportAnnotation.async() ? ResponseEntity.accepted().body(status) : ResponseEntity.ok(status);
+        }
+        return message;
+    }
 
-        // 用于收集所有批处理任务的Future
-        List<CompletableFuture<List<Map<String, String>>>> futures = new ArrayList<>();
+    /**
+     * 查询导入任务的进度。
+     * 本节点执行中或刚结束的任务从内存登记表读取行进度，不访问数据库；其他任务回退到导入记录，没有行进度。
+     * @param importJobId 导入任务ID
+     * @return 任务状态，任务不存在时为null
+     */
+    public ImportJobStatus status(String importJobId) {
+        ImportJobStatus status = importJobRegistry.get(importJobId);
+        if (status != null) {
+            return status;
+        }
+        ImportRecord importRecord = importRecordServiceImpl.getById(importJobId);
+        return importRecord == null ? null : ImportJobStatus.of(importRecord);
+    }
 
-        try (InputStream is = excelFile.getInputStream()) {
-            OPCPackage pkg = OPCPackage.open(is);
-            XSSFReader xssfReader = new XSSFReader(pkg);
-            SharedStrings sst = xssfReader.getSharedStringsTable();
+    /**
+     * 恢复被中断的导入任务。
+     * 按导入记录中保存的方法重新读取@ExcelImport配置，从保留的上传文件重新解析，检查点中已完成的行直接跳过，
+     * 不转换也不入库。未完成(已开始、进行中)或流水线失败且源文件仍在的任务可以恢复。
+     * 恢复后的失败报告和写入统计只包含本次处理的行。
+     * @param importJobId 导入任务ID
+     * @return 导入结果信息
+     * @throws Exception 如果任务不能恢复或导入失败
+     */
+    public String resume(String importJobId) throws Exception {
+        ImportRecord importRecord = importRecordServiceImpl.getById(importJobId);
+        if (importRecord == null) {
+            throw new IllegalArgumentException("导入任务不存在: " + importJobId);
+        }
+        Integer status = importRecord.getStatus();
+        if (status == null || (status != ImportStatus.STARTED.getValue() && status != ImportStatus.IN_PROGRESS.getValue()
+                && status != ImportStatus.FAILED.getValue())) {
+            throw new IllegalStateException("导入任务 [" + importJobId + "] 已完成，不能恢复");
+        }
+        File sourceFile = importRecord.getSourcePath() == null ? null : new File(importRecord.getSourcePath());
+        if (sourceFile == null || !sourceFile.isFile()) {
+            throw new IllegalStateException("导入任务 [" + importJobId + "] 的源文件已不存在，不能恢复");
+        }
+        ExcelImport excelImportAnnotation = findImportAnnotation(importRecord.getImportMethod());
+        // 上次执行中各事务记录的区间合并为检查点
+        ImportCheckpoint checkpoint = importCheckpointServiceImpl.compact(importRecord);
+        log.info("导入任务 [" + importJobId + "] 从检查点恢复: " + checkpoint);
+        return runImport(excelImportAnnotation, importRecord, sourceFile, checkpoint);
+    }
 
-            ExcelReadListener listener = new ExcelReadListener(batchSize, rawBatchData -> {
-                // 将原始Map数据转换为目标POJO列表
-                List<Object> convertedBatchData = rawBatchData.stream()
-                        .map(importStrategy::convertRow)
-                        .collect(Collectors.toList());
+    /**
+     * 执行一次导入：解析源文件，跳过检查点中已完成的行，其余行经流水线转换入库，每个批次在写入数据的事务中记录检查点。
+     * 异步模式下提交到异步导入线程池后立即返回；同步模式下在当前线程解析，并最多等待timeoutSeconds秒。
+     * @param excelImportAnnotation 导入配置
+     * @param importRecord 已保存的导入记录
+     * @param sourceFile 保留的上传文件
+     * @param checkpoint 已完成的行，新任务为空
+     * @return 导入结果信息
+     */
+    private String runImport(ExcelImport excelImportAnnotation, ImportRecord importRecord, File sourceFile,
+                             ImportCheckpoint checkpoint) throws Exception {
+        String importJobId = importRecord.getId();
 
-                // 为每个批次数据创建一个Callable任务
-                ExcelImportBatchTask<Object> task = new ExcelImportBatchTask<>(
-                        convertedBatchData, importJobId, importStrategy);
+        // 登记到内存中的任务登记表，供状态接口查询进度
+        // 同一个任务同时只能在本节点执行一次，重复恢复时直接拒绝
+        ImportJobContext jobContext = new ImportJobContext(importJobId, importRecord.getStartTime());
+        if (!importJobRegistry.register(jobContext)) {
+            throw new IllegalStateException("导入任务 [" + importJobId + "] 正在执行");
+        }
+        // 请求的Locale在提交前取得，异步执行时后台线程上没有请求的Locale
+        LocaleContext localeContext = LocaleContextHolder.getLocaleContext();
 
-                CompletableFuture<List<Map<String, String>>> future = CompletableFuture.supplyAsync(() -> {
+        if (excelImportAnnotation.async()) {
+            updateStatus(importJobId, ImportStatus.IN_PROGRESS);
+            try {
+                excelImportJobExecutor.execute(() -> {
                     try {
-                        return task.call();
+                        startImport(excelImportAnnotation, importRecord, sourceFile, checkpoint, jobContext, localeContext);
                     } catch (Exception e) {
-                        log.error("批处理任务执行异常: " + e.getMessage());
-                        // 如果任务本身抛出异常，将整个批次标记为失败
-                        // 否则，无法设置错误，直接添加原始Map
-                        return (List<Map<String, String>>) new ArrayList<Map<String, String>>(rawBatchData);
+                        log.error("导入任务 [" + importJobId + "] 后台执行失败: " + e.getMessage());
                     }
-                }, excelImportTaskExecutor);
+                });
+            } catch (RejectedExecutionException e) {
+                // 保留源文件，稍后可以通过resume重新执行
+                abortJob(jobContext, "导入任务过多，请稍后重试");
+                throw new ExcelImportException("导入任务过多，请稍后重试", e);
+            }
+            log.info("导入任务 [" + importJobId + "] 已提交到后台执行。");
+            return "Excel导入任务已提交，正在后台处理中，任务ID: " + importJobId + "。请稍后查询结果。";
+        }
 
-                futures.add(future);
-            });
+        CompletableFuture<Void> allOf = startImport(excelImportAnnotation, importRecord, sourceFile, checkpoint,
+                jobContext, localeContext);
+        try {
+            allOf.get(excelImportAnnotation.timeoutSeconds(), TimeUnit.SECONDS);
+            return "Excel导入任务 [" + importJobId + "] 已完成。";
+        } catch (TimeoutException e) {
+            updateStatus(importJobId, ImportStatus.IN_PROGRESS);
+            log.info("导入任务 [" + importJobId + "] 主线程超时，将在后台继续处理。");
+            return "Excel导入任务已提交，正在后台处理中，任务ID: " + importJobId + "。请稍后查询结果。";
+        } catch (Exception e) {
+            updateStatus(importJobId, ImportStatus.FAILED);
+            log.error("导入任务 [" + importJobId + "] 执行过程中发生异常: " + e.getMessage());
+            throw new RuntimeException("Excel导入任务执行失败", e);
+        }
+    }
+
+    /**
+     * 在当前线程上打开源文件并解析所有工作表，批次交给导入工作线程处理。
+     * 解析完成后返回，流水线完成时更新导入记录、生成失败报告并结束任务上下文。
+     * @param excelImportAnnotation 导入配置
+     * @param importRecord 已保存的导入记录
+     * @param sourceFile 保留的上传文件
+     * @param checkpoint 已完成的行，新任务为空
+     * @param jobContext 已登记的任务上下文
+     * @param localeContext 请求的Locale
+     * @return 流水线的完成信号
+     * @throws Exception 如果无法开始导入或文件解析失败，此时任务已标记为失败
+     */
+    private CompletableFuture<Void> startImport(ExcelImport excelImportAnnotation, ImportRecord importRecord,
+                                                File sourceFile, ImportCheckpoint checkpoint,
+                                                ImportJobContext jobContext, LocaleContext localeContext) throws Exception {
+        String importJobId = importRecord.getId();
+        try {
+            return startPipeline(excelImportAnnotation, importRecord, sourceFile, checkpoint, jobContext, localeContext);
+        } catch (Exception e) {
+            // 解析失败时任务上下文已结束；这里只处理开始解析之前的异常
+            if (!jobContext.isFinished()) {
+                log.error("导入任务 [" + importJobId + "] 无法开始: " + e.getMessage());
+                abortJob(jobContext, e.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    private CompletableFuture<Void> startPipeline(ExcelImport excelImportAnnotation, ImportRecord importRecord,
+                                                  File sourceFile, ImportCheckpoint checkpoint,
+                                                  ImportJobContext jobContext, LocaleContext localeContext) throws Exception {
+        // 获取注解参数
+        int batchSize = excelImportAnnotation.batchSize();
+        Class<? extends BatchImportStrategy<?>> strategyClass = excelImportAnnotation.strategy();
+
+        // 从Spring容器中获取导入策略的实例
+        BatchImportStrategy<Object> importStrategy = (BatchImportStrategy<Object>) applicationContext.getBean(strategyClass);
 
-            listener.process(excelFile.getInputStream(), sst);
+        String importJobId = importRecord.getId();
+
+        // 当前任务的失败记录写入器，各工作线程产生失败记录后立即追加，不在内存中累积
+        ErrorReportSink errorSink = new ErrorReportSink(importStrategy.getErrorHeaders(),
+                excelImportAnnotation.errorReportLimit(), excelImportAnnotation.errorSampleRate());
+        errorSinks.put(importJobId, errorSink);
+        ExcelMetrics.ImportJobMetrics jobMetrics = excelMetrics.importJob(strategyClass.getSimpleName());
+
+        // 行对象池：批次任务完成后归还行对象，供解析后续行复用；池容量与同时在途的批次数相当
+        // 多个工作表并行解析时池为空会直接新建行对象，不会阻塞解析
+        int maxInFlightBatches = excelImportAnnotation.maxInFlightBatches();
+        int workerCount = excelImportAnnotation.workerCount();
+        ExcelRowPool rowPool = new ExcelRowPool(batchSize * (maxInFlightBatches + workerCount + 1), 16);
+
+        // 按请求的Locale一次性解析策略需要的列名，工作线程不再逐行查询MessageSource
+        String[] columnKeys = importStrategy.getColumnKeys();
+        String[] columnNames = columnKeys == null || columnKeys.length == 0 ? null
+                : ColumnBinding.resolveNames(applicationContext, columnKeys, LocaleContextHolder.getLocale(localeContext));
+        boolean[] requiredColumns = importStrategy.getRequiredColumns();
+
+        // importBatch在这个事务模板开启的事务中执行，检查点区间与数据一起提交
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // 跨批次去重：各工作线程共享同一个指纹集合，业务主键已出现过的行不再进入importBatch
+        KeyFingerprintSet naturalKeys = excelImportAnnotation.deduplicate() ? new KeyFingerprintSet() : null;
+
+        // 有界流水线：解析线程 -> 有界批次队列 -> 导入工作线程(转换 + 入库)
+        // 解析线程只负责XML，原始行在工作线程上并行转换为POJO；工作线程上临时设置请求的Locale，供策略生成多语言信息
+        ImportPipeline<ImportBatch> pipeline = new ImportPipeline<>(importJobId, maxInFlightBatches, workerCount,
+                excelImportTaskExecutor, batch -> {
+            LocaleContext previous = LocaleContextHolder.getLocaleContext();
+            LocaleContextHolder.setLocaleContext(localeContext);
+            ImportJobContext previousJob = ImportJobContext.bind(jobContext);
+            long start = System.nanoTime();
+            boolean importing = false; // 是否已开始入库，转换阶段的异常不涉及数据库
+            try {
+                List<Object> data = convertRows(importStrategy, batch.getRows(), batch.getColumns());
+                jobContext.recordConverted(batch.size());
+                List<Map<String, String>> duplicates = new ArrayList<>();
+                if (naturalKeys != null) {
+                    data = deduplicate(importStrategy, data, naturalKeys, duplicates);
+                    jobMetrics.recordDuplicates(duplicates.size());
+                    errorSink.appendAll(duplicates);
+                }
+                long importStart = System.nanoTime();
+                jobMetrics.recordConvert(importStart - start);
+                importing = true;
+                List<Object> batchData = data;
+                ExcelImportBatchTask<Object> task = new ExcelImportBatchTask<>(batchData, importJobId, importStrategy,
+                        excelImportAnnotation.retryDepth(), excelImportAnnotation.retryMinChunkSize(), transactionTemplate,
+                        chunk -> recordCommitted(importJobId, batch, chunk == batchData ? null : chunk));
+                List<Map<String, String>> failed = task.call();
+                jobMetrics.recordRetries(task.getRetryCount());
+                jobContext.recordRetries(task.getRetryCount());
+                jobMetrics.recordBatch(batch.size(), failed.size() + duplicates.size(), System.nanoTime() - importStart, true);
+                jobContext.recordBatch(batch.size() - failed.size() - duplicates.size(), failed.size() + duplicates.size());
+                errorSink.appendAll(failed);
+                if (task.getRetryCount() > 0) {
+                    // 拆分重试时成功的子批次已在各自的事务中记入检查点；其余的行已写入失败记录，整个批次记为完成。
+                    // 这里没有数据写入，记录失败只会让恢复时重新处理这些失败的行
+                    recordFailedRows(importJobId, batch);
+                }
+            } catch (Exception e) {
+                jobMetrics.recordBatch(batch.size(), batch.size(), System.nanoTime() - start, false);
+                if (importing && !ExcelImportBatchTask.isDataError(e)) {
+                    // 连接失败、超时等与数据无关的异常：批次不记入检查点，行也不记为失败，
+                    // 异常交给流水线使任务以失败结束，保留源文件，排除故障后可以恢复
+                    log.error("导入任务 [" + importJobId + "] 工作表 " + batch.getSheetIndex() + " 第 " + batch.getFirstRow() + "-"
+                            + batch.getLastRow() + " 行因非数据错误失败: " + e.getMessage());
+                    throw e instanceof RuntimeException ? (RuntimeException) e : new IllegalStateException(e);
+                }
+                jobContext.recordBatch(0, batch.size());
+                log.error("批处理任务执行异常: " + e.getMessage());
+                // 如果任务本身抛出异常，将整个批次标记为失败
+                // 否则，无法设置错误，直接添加原始行数据
+                for (ExcelRow row : batch.getRows()) {
+                    Map<String, String> record = row.toMap();
+                    record.put(ExcelImportEntity.SHEET_COLUMN, row.getSheetName());
+                    record.put(ExcelImportEntity.ROW_COLUMN, String.valueOf(row.getRowNum() + 1));
+                    errorSink.append(record);
+                }
+            } finally {
+                // 批次任务完成，回收行对象
+                rowPool.releaseAll(batch.getRows());
+                LocaleContextHolder.setLocaleContext(previous);
+                ImportJobContext.bind(previousJob);
+            }
+        });
+
+        // 保留的上传文件只打开一次Package，共享字符串表与工作表流共用
+        try (ExcelImportSource source = ExcelImportSource.open(sourceFile,
+                excelImportAnnotation.sharedStringsMode(), excelImportAnnotation.sharedStringsMappedThreshold())) {
+            SharedStrings sst = source.getSharedStrings();
+            List<ExcelImportSheet> sheets = source.selectSheets(excelImportAnnotation.allSheets(),
+                    excelImportAnnotation.sheetNames(), excelImportAnnotation.sheetIndexes());
+            log.info("导入任务 [" + importJobId + "] 将解析工作表: " + sheets);
+
+            // 每个工作表在解析线程池的一个线程上解析，线程池饱和时由当前请求线程解析
+            // 各工作表读到表头时绑定列索引，缺少必需的列时立即终止解析，缺少的可选列按空值读取；批次消费者只访问线程安全的对象
+            CompletableFuture<?>[] parses = new CompletableFuture<?>[sheets.size()];
+            for (int i = 0; i < sheets.size(); i++) {
+                ExcelImportSheet sheet = sheets.get(i);
+                AtomicReference<ColumnBinding> columns = new AtomicReference<>(); // 本工作表的列绑定
+                int[] nextRow = {1}; // 下一个批次覆盖的起始行号，只在本工作表的解析线程上访问
+                Consumer<ExcelHeader> headerConsumer = header -> {
+                    if (columnNames != null) {
+                        columns.set(ColumnBinding.bind(header, columnNames, requiredColumns));
+                        log.info("导入任务 [" + importJobId + "] 工作表 [" + sheet.getName() + "] 列绑定: " + columns.get());
+                    }
+                };
+                Consumer<List<ExcelRow>> batchConsumer = rawBatchData -> {
+                    if (columnNames != null && columns.get() == null) {
+                        // 没有表头行的工作表，按空表头绑定，有必需的列时失败
+                        headerConsumer.accept(rawBatchData.get(0).getHeader());
+                    }
+                    try {
+                        // 原始行直接入队，队列已满时阻塞解析线程，形成背压
+                        ImportBatch batch = new ImportBatch(rawBatchData, columns.get(), sheet.getIndex(), nextRow[0]);
+                        nextRow[0] = batch.getLastRow() + 1;
+                        long blockedNanos = pipeline.submit(batch, rawBatchData.size());
+                        jobMetrics.recordParsed(rawBatchData.size(), blockedNanos, pipeline.getQueueDepth());
+                        jobContext.recordParsed(rawBatchData.size());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("等待导入队列时被中断", e);
+                    }
+                };
+                ExcelReadListener listener = new ExcelReadListener(batchSize, rowPool, headerConsumer, batchConsumer);
+                // 恢复导入时跳过已完成的行，这些行只经过SAX扫描，不读取单元格也不转换
+                listener.setSkippedRows(checkpoint.committedRows(sheet.getIndex()));
+                parses[i] = CompletableFuture.runAsync(() -> parseSheet(importJobId, sheet, sst, localeContext, listener),
+                        excelParseTaskExecutor);
+            }
+            try {
+                CompletableFuture.allOf(parses).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
 
         } catch (Exception e) {
-            importRecord.setStatus(ImportStatus.FAILED.getValue());
-            importRecord.setEndTime(LocalDateTime.now());
-            importRecordServiceImpl.updateById(importRecord);
+            pipeline.finish();
+            // 已提交的批次仍会处理完，之后再释放失败记录写入器
+            pipeline.getCompletion().whenComplete((result, ex) -> {
+                closeErrorSink(importJobId);
+                jobMetrics.finish(false);
+                importJobRegistry.finish(jobContext);
+            });
+            // 文件本身无法解析，恢复也无法继续，不再保留源文件
+            deleteSource(sourceFile);
+            clearCheckpoint(importJobId);
+            updateStatus(importJobId, ImportStatus.FAILED);
+            jobContext.finish(ImportStatus.FAILED, null, e.getMessage());
             log.error("Excel文件读取或解析失败: " + e.getMessage());
+            if (e instanceof ExcelImportException) {
+                throw e;
+            }
             throw new RuntimeException("Excel文件读取或解析失败", e);
         }
+        pipeline.finish();
 
-        CompletableFuture<Void> allOf = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
-
-        allOf.whenComplete((result, ex) -> {
+        return pipeline.getCompletion().whenComplete((result, ex) -> {
             ImportRecord updateRecord = new ImportRecord();
             updateRecord.setId(importJobId);
+            updateRecord.setStartTime(importRecord.getStartTime());
             updateRecord.setEndTime(LocalDateTime.now());
-            // 汇总所有失败记录
-            List<Map<String, String>> currentFailedRecords = futures.stream()
-                    .map(future -> {
+            // 更新记录前的任何异常都不能跳过下面的清理，否则任务一直停留在登记表中，失败报告的临时文件也不会释放
+            updateRecord.setStatus(ImportStatus.FAILED.getValue());
+            try {
+                log.info("导入任务 [" + importJobId + "] 流水线统计: " + pipeline.getMetrics());
+                if (naturalKeys != null) {
+                    log.info("导入任务 [" + importJobId + "] 去重键: " + naturalKeys);
+                }
+                updateRecord.setInsertedCount(jobContext.getInserted());
+                updateRecord.setUpdatedCount(jobContext.getUpdated());
+                updateRecord.setUnchangedCount(jobContext.getUnchanged());
+                log.info("导入任务 [" + importJobId + "] 写入统计: 插入 " + jobContext.getInserted() + "，更新 "
+                        + jobContext.getUpdated() + "，未变化 " + jobContext.getUnchanged() + "，拆分重试 " + jobContext.getRetries() + " 次");
+                if (ex != null) {
+                    // 保留源文件和检查点，排除故障后可以恢复
+                    log.error("导入任务 [" + importJobId + "] 存在子任务异常: " + ex.getMessage());
+                } else {
+                    deleteSource(sourceFile);
+                    clearCheckpoint(importJobId);
+                    if (errorSink.getFailedCount() == 0) {
+                        updateRecord.setStatus(ImportStatus.COMPLETED_SUCCESS.getValue());
+                        log.info("导入任务 [" + importJobId + "] 已全部成功完成。");
+                    } else {
+                        updateRecord.setStatus(ImportStatus.COMPLETED_WITH_ERRORS.getValue());
+                        log.info("导入任务 [" + importJobId + "] 已完成，但存在失败记录: " + errorSink.getFailedCount() + " 条。");
+
+                        String failedReportFileName = "failed_import_" + importJobId + ".xlsx";
+                        String failedReportPath = Paths.get(System.getProperty("java.io.tmpdir"), failedReportFileName).toString();
                         try {
-                            return future.get(); // 获取每个子任务返回的失败记录
-                        } catch (Exception e) {
-                            return new ArrayList<Map<String, String>>(); // 忽略异常
+                            // 失败记录在导入过程中已流式写入，这里只需落盘
+                            if (errorSink.writeTo(failedReportPath)) {
+                                updateRecord.setFailedReportPath(failedReportPath);
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            log.error("生成失败报告Excel失败: " + e.getMessage());
                         }
-                    })
-                    .flatMap(List::stream)
-                    .collect(Collectors.toList());
+                    }
+                }
+                importRecordServiceImpl.updateById(updateRecord);
+            } finally {
+                // 任务完成后，释放并移除该任务的失败记录写入器，任务上下文移入已结束的登记表
+                closeErrorSink(importJobId);
+                jobMetrics.finish(ex == null);
+                jobContext.finish(ImportStatus.of(updateRecord.getStatus()), updateRecord.getFailedReportPath(),
+                        ex == null ? null : ex.getMessage());
+                importJobRegistry.finish(jobContext);
+            }
+        });
+    }
 
+    /**
+     * 将原始行数据转换为目标POJO列表，并记录每条数据来自哪个工作表的哪一行。
+     * @param importStrategy 导入策略
+     * @param rows 原始行数据
+     * @param columns 所属工作表的列绑定
+     * @return 转换后的POJO列表
+     */
+    private static List<Object> convertRows(BatchImportStrategy<Object> importStrategy, List<ExcelRow> rows,
+                                            ColumnBinding columns) {
+        List<Object> converted = new ArrayList<>(rows.size());
+        for (ExcelRow row : rows) {
+            Object data = importStrategy.convertRow(row, columns);
+            if (data instanceof ExcelImportEntity) {
+                ((ExcelImportEntity) data).setSheetName(row.getSheetName());
+                ((ExcelImportEntity) data).setRowNum(row.getRowNum() + 1);
+            }
+            converted.add(data);
+        }
+        return converted;
+    }
 
-            if (ex != null) {
-                updateRecord.setStatus(ImportStatus.FAILED.getValue());
-                log.error("导入任务 [" + importJobId + "] 存在子任务异常: " + ex.getMessage());
+    /**
+     * 跨批次去重：业务主键已出现过的行生成失败记录，其余行返回继续导入。
+     * 转换阶段已有错误的行不占用业务主键。多个批次并行处理，重复的行中保留哪一行取决于哪个批次先到达。
+     * @param importStrategy 导入策略
+     * @param data 转换后的POJO列表
+     * @param naturalKeys 任务内共享的业务主键指纹集合
+     * @param duplicates 收集重复行的失败记录
+     * @return 未重复的行
+     */
+    private static List<Object> deduplicate(BatchImportStrategy<Object> importStrategy, List<Object> data,
+                                            KeyFingerprintSet naturalKeys, List<Map<String, String>> duplicates) {
+        List<Object> unique = new ArrayList<>(data.size());
+        for (Object item : data) {
+            boolean invalid = item instanceof ExcelImportEntity && ((ExcelImportEntity) item).getImportError() != null
+                    && !((ExcelImportEntity) item).getImportError().isEmpty();
+            String key = invalid ? null : importStrategy.getNaturalKey(item);
+            if (key == null || naturalKeys.add(key)) {
+                unique.add(item);
             } else {
-                if (currentFailedRecords.isEmpty()) {
-                    updateRecord.setStatus(ImportStatus.COMPLETED_SUCCESS.getValue());
-                    log.info("导入任务 [" + importJobId + "] 已全部成功完成。");
-                } else {
-                    updateRecord.setStatus(ImportStatus.COMPLETED_WITH_ERRORS.getValue());
-                    log.info("导入任务 [" + importJobId + "] 已完成，但存在失败记录。");
+                duplicates.add(importStrategy.failedRecord(item, "业务主键 [" + key + "] 与文件中的其他行重复;"));
+            }
+        }
+        return unique;
+    }
 
-                    String failedReportFileName = "failed_import_" + importJobId + ".xlsx";
-                    String failedReportPath = System.getProperty("java.io.tmpdir") + failedReportFileName;
-                    try {
-                        // 使用策略获取错误报告的列头
-                        ExcelReportGenerator.generateErrorExcel(currentFailedRecords, failedReportPath, importStrategy.getErrorHeaders());
-                        updateRecord.setFailedReportPath(failedReportPath);
-                    } catch (IOException e) {
-                        log.error("生成失败报告Excel失败: " + e.getMessage());
-                    }
-                }
+    /**
+     * 在当前线程上解析一个工作表。
+     * 解析线程上没有请求线程的Locale，这里临时设置为请求的Locale，保证多语言列名按请求的语言解析；
+     * 结束后恢复原值，线程池饱和由请求线程自己解析时也不会丢失请求的Locale。
+     * @param importJobId 导入任务ID
+     * @param sheet 要解析的工作表
+     * @param sst 共享字符串表
+     * @param localeContext 请求线程的Locale
+     * @param listener 该工作表专用的监听器
+     */
+    private void parseSheet(String importJobId, ExcelImportSheet sheet, SharedStrings sst,
+                            LocaleContext localeContext, ExcelReadListener listener) {
+        LocaleContext previous = LocaleContextHolder.getLocaleContext();
+        LocaleContextHolder.setLocaleContext(localeContext);
+        long start = System.nanoTime();
+        try (InputStream in = sheet.openStream()) {
+            listener.process(in, sheet.getName(), sst);
+            log.info("导入任务 [" + importJobId + "] 工作表 [" + sheet.getName() + "] 解析完成，耗时: "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        } catch (ExcelImportException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("工作表 [" + sheet.getName() + "] 解析失败: " + e.getMessage(), e);
+        } finally {
+            LocaleContextHolder.setLocaleContext(previous);
+        }
+    }
+
+    /**
+     * 在写入数据的事务中记录已完成的行。
+     * 整个批次一次导入成功时记录批次覆盖的整个区间，包括转换失败、重复以及恢复时跳过的行；
+     * 拆分重试时只记录子批次中各行的行号，连续的行合并为一个区间。不能取得行号的数据不记录，恢复时会重新导入。
+     * @param importJobId 导入任务ID
+     * @param batch 所属批次
+     * @param chunk 提交的子批次，整个批次时为null
+     */
+    private void recordCommitted(String importJobId, ImportBatch batch, List<?> chunk) {
+        if (chunk == null) {
+            importCheckpointServiceImpl.record(importJobId, batch.getSheetIndex(), batch.getFirstRow(), batch.getLastRow());
+            return;
+        }
+        // ExcelImportEntity的行号是1-based，检查点的行号与解析时一致(0-based)
+        int[] rows = chunk.stream()
+                .filter(item -> item instanceof ExcelImportEntity && ((ExcelImportEntity) item).getRowNum() != null)
+                .mapToInt(item -> ((ExcelImportEntity) item).getRowNum() - 1)
+                .sorted()
+                .toArray();
+        int from = -1;
+        int to = -1;
+        for (int row : rows) {
+            if (from >= 0 && row <= to + 1) {
+                to = Math.max(to, row);
+                continue;
             }
-            importRecordServiceImpl.updateById(updateRecord);
-            // 任务完成后，移除该任务的失败记录列表
-            allFailedRecordsMap.remove(importJobId);
-        });
+            if (from >= 0) {
+                importCheckpointServiceImpl.record(importJobId, batch.getSheetIndex(), from, to);
+            }
+            from = row;
+            to = row;
+        }
+        if (from >= 0) {
+            importCheckpointServiceImpl.record(importJobId, batch.getSheetIndex(), from, to);
+        }
+    }
 
+    /**
+     * 拆分重试结束后把整个批次记为完成，失败的行已写入失败记录。保存失败只会让恢复时重新处理这些行。
+     */
+    private void recordFailedRows(String importJobId, ImportBatch batch) {
         try {
-            allOf.get(timeoutSeconds, TimeUnit.SECONDS);
-            return "Excel导入任务 [" + importJobId + "] 已完成。";
-        } catch (TimeoutException e) {
-            importRecord.setStatus(ImportStatus.IN_PROGRESS.getValue());
-            importRecordServiceImpl.updateById(importRecord);
-            log.info("导入任务 [" + importJobId + "] 主线程超时，将在后台继续处理。");
-            return "Excel导入任务已提交，正在后台处理中，任务ID: " + importJobId + "。请稍后查询结果。";
+            importCheckpointServiceImpl.record(importJobId, batch.getSheetIndex(), batch.getFirstRow(), batch.getLastRow());
         } catch (Exception e) {
-            importRecord.setStatus(ImportStatus.FAILED.getValue());
-            importRecord.setEndTime(LocalDateTime.now());
-            importRecordServiceImpl.updateById(importRecord);
-            log.error("导入任务 [" + importJobId + "] 执行过程中发生异常: " + e.getMessage());
-            throw new RuntimeException("Excel导入任务执行失败", e);
+            log.warn("导入任务 [" + importJobId + "] 保存检查点失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 任务结束且不能再恢复时删除检查点区间。
+     */
+    private void clearCheckpoint(String importJobId) {
+        try {
+            importCheckpointServiceImpl.clear(importJobId);
+        } catch (Exception e) {
+            log.warn("导入任务 [" + importJobId + "] 删除检查点失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 任务未能开始执行时标记为失败，并结束任务上下文。源文件保留，可以通过resume重新执行。
+     * @param jobContext 已登记的任务上下文
+     * @param message 失败原因
+     */
+    private void abortJob(ImportJobContext jobContext, String message) {
+        try {
+            updateStatus(jobContext.getImportJobId(), ImportStatus.FAILED);
+        } finally {
+            closeErrorSink(jobContext.getImportJobId());
+            jobContext.finish(ImportStatus.FAILED, null, message);
+            importJobRegistry.finish(jobContext);
+        }
+    }
+
+    /**
+     * 只更新导入记录的状态，不覆盖检查点等其他字段。失败时同时记录结束时间。
+     */
+    private void updateStatus(String importJobId, ImportStatus status) {
+        importRecordServiceImpl.lambdaUpdate()
+                .set(ImportRecord::getStatus, status.getValue())
+                .set(status == ImportStatus.FAILED, ImportRecord::getEndTime, LocalDateTime.now())
+                .eq(ImportRecord::getId, importJobId)
+                .update();
+    }
+
+    /**
+     * 根据导入记录中保存的"类名#方法名"找到方法上的@ExcelImport配置。
+     */
+    private ExcelImport findImportAnnotation(String importMethod) throws ClassNotFoundException {
+        int separator = importMethod == null ? -1 : importMethod.indexOf('#');
+        if (separator > 0) {
+            Class<?> type = ClassUtils.forName(importMethod.substring(0, separator), applicationContext.getClassLoader());
+            String methodName = importMethod.substring(separator + 1);
+            for (Method method : ReflectionUtils.getUniqueDeclaredMethods(type)) {
+                ExcelImport annotation = method.getAnnotation(ExcelImport.class);
+                if (annotation != null && method.getName().equals(methodName)) {
+                    return annotation;
+                }
+            }
+        }
+        throw new IllegalStateException("找不到导入方法上的@ExcelImport配置: " + importMethod);
+    }
+
+    /**
+     * 导入任务保留的上传文件，位于excel.import.source.directory目录中。
+     * 默认目录在系统临时目录下，重启或重新部署后可能被清空，生产环境应配置为持久化的目录，否则中断的任务无法恢复。
+     * @return 保留的上传文件
+     */
+    private File sourceFile(String importJobId) {
+        return Paths.get(sourceDirectory, "import_source_" + importJobId + ".xlsx").toAbsolutePath().toFile();
+    }
+
+    private static void deleteSource(File sourceFile) {
+        try {
+            Files.deleteIfExists(sourceFile.toPath());
+        } catch (IOException e) {
+            log.warn("删除导入源文件失败: " + sourceFile.getAbsolutePath());
+        }
+    }
+
+    /**
+     * 释放并移除导入任务的失败记录写入器。
+     * @param importJobId 导入任务ID
+     */
+    private void closeErrorSink(String importJobId) {
+        ErrorReportSink sink = errorSinks.remove(importJobId);
+        if (sink != null) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                log.warn("释放失败报告临时文件失败: " + e.getMessage());
+            }
         }
     }
-}
\ No newline at end of file
+}
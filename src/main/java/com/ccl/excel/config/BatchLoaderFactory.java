@@ -0,0 +1,98 @@
+package com.ccl.excel.config;
+
+import com.ccl.excel.strategy.BatchLoader;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 批量查询器工厂：按名称创建并缓存{@link BatchLoader}，同名的查询器在所有策略和导入任务之间共享同一个缓存。
+ * 缓存容量按估算的条目字节数限制，超出后按Caffeine的W-TinyLFU策略淘汰，写入后超过过期时间的条目重新查询。
+ */
+@Slf4j
+@Component
+public class BatchLoaderFactory {
+
+    private static final int MAX_KEYS_PER_QUERY = 1000; // 单次IN查询最多的键数
+    private static final int ENTRY_OVERHEAD_BYTES = 64; // 每个缓存条目的固定开销估算(节点、Optional等)
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<String, BatchLoader<?, ?>> loaders = new ConcurrentHashMap<>();
+
+    public BatchLoaderFactory(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 获取指定名称的批量查询器，首次获取时创建。
+     * @param name 查询器名称，同名的查询器共享缓存
+     * @param query 一次查询一组键的函数，通常是一条IN (...)查询；结果中没有的键表示不存在
+     * @param maximumBytes 缓存的估算字节数上限
+     * @param ttl 缓存条目写入后的过期时间
+     * @return 批量查询器
+     */
+    public <K, V> BatchLoader<K, V> getLoader(String name, Function<Set<K>, Map<K, V>> query,
+                                              long maximumBytes, Duration ttl) {
+        return getLoader(name, query, maximumBytes, ttl, true);
+    }
+
+    /**
+     * 获取指定名称的批量查询器，首次获取时创建。
+     * @param name 查询器名称，同名的查询器共享缓存
+     * @param query 一次查询一组键的函数，通常是一条IN (...)查询；结果中没有的键表示不存在
+     * @param maximumBytes 缓存的估算字节数上限
+     * @param ttl 缓存条目写入后的过期时间
+     * @param cacheMissing 是否缓存不存在的键，用于唯一性校验时应为false
+     * @return 批量查询器
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> BatchLoader<K, V> getLoader(String name, Function<Set<K>, Map<K, V>> query,
+                                              long maximumBytes, Duration ttl, boolean cacheMissing) {
+        return (BatchLoader<K, V>) loaders.computeIfAbsent(name, n -> {
+            Cache<K, Optional<V>> cache = Caffeine.newBuilder()
+                    .maximumWeight(maximumBytes)
+                    .weigher((K key, Optional<V> value) ->
+                            ENTRY_OVERHEAD_BYTES + estimateBytes(key) + (value.isPresent() ? estimateBytes(value.get()) : 0))
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(registry, cache, n);
+            Counter queries = Counter.builder("excel.import.lookup.queries")
+                    .description("批量查询器实际执行的查询次数")
+                    .tag("cache", n)
+                    .register(registry);
+            DistributionSummary keysPerQuery = DistributionSummary.builder("excel.import.lookup.keys")
+                    .description("批量查询器每次查询的键数")
+                    .tag("cache", n)
+                    .register(registry);
+            log.info("已创建批量查询器: " + n + "，缓存上限 " + maximumBytes + " 字节，过期时间 " + ttl
+                    + (cacheMissing ? "" : "，不缓存不存在的键"));
+            return new BatchLoader<>(n, query, MAX_KEYS_PER_QUERY, cache, cacheMissing, queries, keysPerQuery);
+        });
+    }
+
+    /**
+     * 粗略估算键或值占用的字节数：字符串按字符数计算，其他对象按固定大小计算。
+     */
+    private static int estimateBytes(Object value) {
+        if (value instanceof CharSequence) {
+            return 40 + 2 * ((CharSequence) value).length();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Enum) {
+            return 16;
+        }
+        return 64;
+    }
+}
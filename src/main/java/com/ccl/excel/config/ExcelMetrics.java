@@ -0,0 +1,284 @@
+package com.ccl.excel.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Excel导入导出的运行指标，通过 Spring Boot Actuator 以 /actuator/prometheus 暴露。
+ * <p>
+ * 导入指标按导入策略类名(strategy)打标签，导出指标按导出名称(exportName)和导出策略(strategy)打标签。
+ * 计数器的速率即吞吐量(行/秒)；各阶段耗时用于判断瓶颈：
+ * 解析线程阻塞时间长说明导入工作线程不够，导出写入线程等待时间长说明数据库查询跟不上。
+ * 线程池的活跃线程数、队列长度等由 Actuator 自动绑定为 executor.* 指标，这里额外统计 CallerRunsPolicy 和 AbortPolicy 的触发次数。
+ */
+@Component
+public class ExcelMetrics {
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<String, AtomicInteger> activeJobs = new ConcurrentHashMap<>(); // 按指标名和标签维护的进行中任务数
+
+    public ExcelMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 创建带计数的CallerRunsPolicy：线程池饱和、任务由提交线程自己执行时计数。
+     * @param executorName 线程池的Bean名称
+     * @return 拒绝策略
+     */
+    public RejectedExecutionHandler callerRunsPolicy(String executorName) {
+        Counter counter = Counter.builder("excel.executor.caller.runs")
+                .description("线程池饱和后由提交线程执行的任务数")
+                .tag("name", executorName)
+                .register(registry);
+        ThreadPoolExecutor.CallerRunsPolicy delegate = new ThreadPoolExecutor.CallerRunsPolicy();
+        return (task, executor) -> {
+            counter.increment();
+            delegate.rejectedExecution(task, executor);
+        };
+    }
+
+    /**
+     * 创建统计触发次数的AbortPolicy：线程池饱和时抛出RejectedExecutionException，由提交方决定如何处理。
+     * @param executorName 线程池名称
+     * @return 拒绝策略
+     */
+    public RejectedExecutionHandler abortPolicy(String executorName) {
+        Counter counter = Counter.builder("excel.executor.rejected")
+                .description("线程池饱和后被拒绝的任务数")
+                .tag("name", executorName)
+                .register(registry);
+        ThreadPoolExecutor.AbortPolicy delegate = new ThreadPoolExecutor.AbortPolicy();
+        return (task, executor) -> {
+            counter.increment();
+            delegate.rejectedExecution(task, executor);
+        };
+    }
+
+    /**
+     * 开始记录一个导入任务，进行中的导入任务数加一。
+     * @param strategy 导入策略类名
+     * @return 该任务的指标记录器
+     */
+    public ImportJobMetrics importJob(String strategy) {
+        return new ImportJobMetrics(Tags.of("strategy", strategy));
+    }
+
+    /**
+     * 开始记录一个导出任务，进行中的导出任务数加一。
+     * @param exportName 导出名称
+     * @param strategy 导出策略类名
+     * @return 该任务的指标记录器
+     */
+    public ExportJobMetrics exportJob(String exportName, String strategy) {
+        return new ExportJobMetrics(Tags.of("exportName", exportName, "strategy", strategy));
+    }
+
+    private AtomicInteger activeJobs(String name, Tags tags) {
+        return activeJobs.computeIfAbsent(name + tags, key -> {
+            AtomicInteger value = new AtomicInteger();
+            Gauge.builder(name, value, AtomicInteger::get)
+                    .description("进行中的任务数")
+                    .tags(tags)
+                    .register(registry);
+            return value;
+        });
+    }
+
+    private Timer outcomeTimer(String name, String description, Tags tags, boolean success) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .tag("outcome", success ? "success" : "error")
+                .register(registry);
+    }
+
+    /**
+     * 单个导入任务的指标记录器。创建时已解析好各个指标，记录时不再查找注册表。
+     * 解析线程和导入工作线程可以并发调用。
+     */
+    public final class ImportJobMetrics {
+
+        private final Tags tags;
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger active;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private final Counter rowsParsed;
+        private final Counter rowsImported;
+        private final Counter rowsFailed;
+        private final Timer producerBlocked;
+        private final DistributionSummary queueDepth;
+        private final Timer convert;
+        private final Timer batchSuccess;
+        private final Timer batchError;
+        private final Counter batchRetries;
+        private final Counter rowsDuplicate;
+
+        private ImportJobMetrics(Tags tags) {
+            this.tags = tags;
+            this.active = activeJobs("excel.import.jobs.active", tags);
+            this.rowsParsed = registry.counter("excel.import.rows.parsed", tags);
+            this.rowsImported = registry.counter("excel.import.rows.imported", tags);
+            this.rowsFailed = registry.counter("excel.import.rows.failed", tags);
+            this.producerBlocked = Timer.builder("excel.import.producer.blocked")
+                    .description("解析线程因导入队列已满被阻塞的时间")
+                    .tags(tags)
+                    .register(registry);
+            this.queueDepth = DistributionSummary.builder("excel.import.queue.depth")
+                    .description("提交批次后导入队列中等待的批次数")
+                    .tags(tags)
+                    .register(registry);
+            this.convert = Timer.builder("excel.import.convert")
+                    .description("一个批次的行数据转换耗时")
+                    .tags(tags)
+                    .register(registry);
+            this.batchSuccess = batchTimer(true);
+            this.batchError = batchTimer(false);
+            this.batchRetries = Counter.builder("excel.import.batch.retries")
+                    .description("批次失败后拆分重试额外执行importBatch的次数")
+                    .tags(tags)
+                    .register(registry);
+            this.rowsDuplicate = registry.counter("excel.import.rows.duplicate", tags);
+            active.incrementAndGet();
+        }
+
+        private Timer batchTimer(boolean success) {
+            return Timer.builder("excel.import.batch")
+                    .description("importBatch耗时")
+                    .tags(tags)
+                    .tag("outcome", success ? "success" : "error")
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        /**
+         * 记录解析线程提交的一个批次。
+         * @param rows 批次行数
+         * @param blockedNanos 因队列已满被阻塞的时间
+         * @param depth 提交后的队列深度
+         */
+        public void recordParsed(int rows, long blockedNanos, int depth) {
+            rowsParsed.increment(rows);
+            producerBlocked.record(blockedNanos, TimeUnit.NANOSECONDS);
+            queueDepth.record(depth);
+        }
+
+        /**
+         * 记录一个批次的行转换耗时。
+         */
+        public void recordConvert(long nanos) {
+            convert.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * 记录一个批次的导入结果。
+         * @param rows 批次行数
+         * @param failed 失败行数
+         * @param nanos importBatch耗时
+         * @param success 批次是否正常完成(未抛出异常)
+         */
+        public void recordBatch(int rows, int failed, long nanos, boolean success) {
+            (success ? batchSuccess : batchError).record(nanos, TimeUnit.NANOSECONDS);
+            rowsImported.increment(rows - failed);
+            rowsFailed.increment(failed);
+        }
+
+        /**
+         * 记录一个批次拆分重试额外执行importBatch的次数。
+         */
+        public void recordRetries(int retries) {
+            if (retries > 0) {
+                batchRetries.increment(retries);
+            }
+        }
+
+        /**
+         * 记录去重时发现的重复行数，这些行同时计入失败行数。
+         */
+        public void recordDuplicates(int rows) {
+            if (rows > 0) {
+                rowsDuplicate.increment(rows);
+            }
+        }
+
+        /**
+         * 任务结束，进行中的导入任务数减一并记录总耗时。重复调用只记录一次。
+         */
+        public void finish(boolean success) {
+            if (finished.compareAndSet(false, true)) {
+                active.decrementAndGet();
+                outcomeTimer("excel.import.duration", "导入任务总耗时", tags, success)
+                        .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * 单个导出任务的指标记录器。创建时已解析好各个指标，记录时不再查找注册表。
+     */
+    public final class ExportJobMetrics {
+
+        private final Tags tags;
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger active;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private final Counter rowsWritten;
+        private final Timer writerWait;
+        private final DistributionSummary queueDepth;
+
+        private ExportJobMetrics(Tags tags) {
+            this.tags = tags;
+            this.active = activeJobs("excel.export.jobs.active", tags);
+            this.rowsWritten = registry.counter("excel.export.rows.written", tags);
+            this.writerWait = Timer.builder("excel.export.writer.wait")
+                    .description("写入线程等待数据库查询结果的时间")
+                    .tags(tags)
+                    .register(registry);
+            this.queueDepth = DistributionSummary.builder("excel.export.queue.depth")
+                    .description("已查询、等待写入的批次数")
+                    .tags(tags)
+                    .register(registry);
+            active.incrementAndGet();
+        }
+
+        /**
+         * 记录写入线程取到的一批数据。
+         * @param waitNanos 写入线程等待这批数据的时间
+         * @param bufferedBatches 取走这批数据后已查询、等待写入的批次数
+         */
+        public void recordFetched(long waitNanos, int bufferedBatches) {
+            writerWait.record(waitNanos, TimeUnit.NANOSECONDS);
+            queueDepth.record(bufferedBatches);
+        }
+
+        /**
+         * 记录写入的行数。
+         */
+        public void recordWritten(int rows) {
+            rowsWritten.increment(rows);
+        }
+
+        /**
+         * 任务结束，进行中的导出任务数减一并记录总耗时。重复调用只记录一次。
+         */
+        public void finish(boolean success) {
+            if (finished.compareAndSet(false, true)) {
+                active.decrementAndGet();
+                outcomeTimer("excel.export.duration", "导出任务总耗时", tags, success)
+                        .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
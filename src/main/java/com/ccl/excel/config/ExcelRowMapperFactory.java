@@ -0,0 +1,46 @@
+package com.ccl.excel.config;
+
+import com.ccl.excel.utils.ExcelCellConverter;
+import com.ccl.excel.utils.ExcelRowMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 行映射器工厂：按POJO类型生成并缓存{@link ExcelRowMapper}。
+ * 策略在初始化时获取各自的映射器，访问器在应用启动阶段生成，导入导出时不再有反射开销。
+ * 自定义转换器优先使用Spring容器中的Bean，没有时通过无参构造函数创建。
+ */
+@Slf4j
+@Component
+public class ExcelRowMapperFactory {
+
+    private final ApplicationContext applicationContext;
+    private final ConcurrentHashMap<Class<?>, ExcelRowMapper<?>> mappers = new ConcurrentHashMap<>();
+
+    public ExcelRowMapperFactory(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * 获取POJO类型的行映射器，首次获取时生成。
+     * @param type POJO类型
+     * @return 行映射器
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ExcelRowMapper<T> getMapper(Class<T> type) {
+        return (ExcelRowMapper<T>) mappers.computeIfAbsent(type, t -> {
+            ExcelRowMapper<?> mapper = ExcelRowMapper.create(t, applicationContext, this::createConverter);
+            log.info("已生成行映射器: " + t.getSimpleName() + " " + mapper.getHeaders());
+            return mapper;
+        });
+    }
+
+    private ExcelCellConverter<?> createConverter(Class<? extends ExcelCellConverter> type) {
+        ExcelCellConverter<?> converter = applicationContext.getBeanProvider(type).getIfAvailable();
+        return converter != null ? converter : BeanUtils.instantiateClass(type);
+    }
+}
@@ -0,0 +1,64 @@
+package com.ccl.excel.config;
+
+import com.ccl.excel.pojo.ExportJobStatus;
+import com.ccl.excel.task.ExportJobContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 本节点导出任务的内存登记表，供导出任务状态接口查询进度，结构与{@link ImportJobRegistry}一致。
+ * 执行中的任务保存在ConcurrentHashMap中；结束的任务移入有界缓存保留一段时间，之后的查询回退到导出任务日志。
+ */
+@Component
+public class ExportJobRegistry {
+
+    private static final int MAX_FINISHED_JOBS = 1000; // 最多保留的已结束任务数
+    private static final Duration FINISHED_RETENTION = Duration.ofHours(1); // 已结束任务的保留时间
+
+    private final ConcurrentHashMap<String, ExportJobContext> running = new ConcurrentHashMap<>();
+    private final Cache<String, ExportJobContext> finished = Caffeine.newBuilder()
+            .maximumSize(MAX_FINISHED_JOBS)
+            .expireAfterWrite(FINISHED_RETENTION)
+            .build();
+
+    public ExportJobRegistry(MeterRegistry registry) {
+        Gauge.builder("excel.export.jobs.running", running, ConcurrentHashMap::size)
+                .description("本节点正在执行的导出任务数")
+                .register(registry);
+    }
+
+    /**
+     * 登记一个开始执行的任务。导出任务ID每次新生成，不会重复。
+     * @param context 任务上下文
+     */
+    public void register(ExportJobContext context) {
+        running.put(context.getTaskId(), context);
+    }
+
+    /**
+     * 把结束的任务移入已结束缓存。先放入缓存再移除，查询不会在两者之间查不到任务。
+     * @param context 任务上下文
+     */
+    public void finish(ExportJobContext context) {
+        finished.put(context.getTaskId(), context);
+        running.remove(context.getTaskId(), context);
+    }
+
+    /**
+     * @param taskId 导出任务ID
+     * @return 任务的进度快照，不在登记表中时为null
+     */
+    public ExportJobStatus get(String taskId) {
+        ExportJobContext context = running.get(taskId);
+        if (context == null) {
+            context = finished.getIfPresent(taskId);
+        }
+        return context == null ? null : context.snapshot();
+    }
+}
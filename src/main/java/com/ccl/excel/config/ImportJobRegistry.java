@@ -0,0 +1,71 @@
+package com.ccl.excel.config;
+
+import com.ccl.excel.pojo.ImportJobStatus;
+import com.ccl.excel.task.ImportJobContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 本节点导入任务的内存登记表，供任务状态接口查询进度。
+ * 执行中的任务保存在ConcurrentHashMap中，同一个任务同时只能登记一次；
+ * 结束的任务移入有界缓存保留一段时间，之后的查询回退到导入记录。
+ * 查询只读取任务上下文中的计数器，不访问数据库。
+ */
+@Component
+public class ImportJobRegistry {
+
+    private static final int MAX_FINISHED_JOBS = 1000; // 最多保留的已结束任务数
+    private static final Duration FINISHED_RETENTION = Duration.ofHours(1); // 已结束任务的保留时间
+
+    private final ConcurrentHashMap<String, ImportJobContext> running = new ConcurrentHashMap<>();
+    private final Cache<String, ImportJobContext> finished = Caffeine.newBuilder()
+            .maximumSize(MAX_FINISHED_JOBS)
+            .expireAfterWrite(FINISHED_RETENTION)
+            .build();
+
+    public ImportJobRegistry(MeterRegistry registry) {
+        Gauge.builder("excel.import.jobs.running", running, ConcurrentHashMap::size)
+                .description("本节点正在执行的导入任务数")
+                .register(registry);
+    }
+
+    /**
+     * 登记一个开始执行的任务。
+     * @param context 任务上下文
+     * @return 同一个任务已在执行时返回false
+     */
+    public boolean register(ImportJobContext context) {
+        if (running.putIfAbsent(context.getImportJobId(), context) != null) {
+            return false;
+        }
+        finished.invalidate(context.getImportJobId());
+        return true;
+    }
+
+    /**
+     * 把结束的任务移入已结束缓存。先放入缓存再移除，查询不会在两者之间查不到任务。
+     * @param context 任务上下文
+     */
+    public void finish(ImportJobContext context) {
+        finished.put(context.getImportJobId(), context);
+        running.remove(context.getImportJobId(), context);
+    }
+
+    /**
+     * @param importJobId 导入任务ID
+     * @return 任务的进度快照，不在登记表中时为null
+     */
+    public ImportJobStatus get(String importJobId) {
+        ImportJobContext context = running.get(importJobId);
+        if (context == null) {
+            context = finished.getIfPresent(importJobId);
+        }
+        return context == null ? null : context.snapshot();
+    }
+}
@@ -0,0 +1,188 @@
+package com.ccl.excel.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * LOAD DATA LOCAL INFILE专用的连接池。
+ * <p>
+ * MySQL驱动只在握手时根据allowLoadLocalInfile/allowLoadLocalInfileInPath声明CLIENT_LOCAL_FILES能力，
+ * 在已建立的连接上修改这些属性不会生效；而且允许读取本地文件的连接不应混入主连接池供其他代码使用。
+ * 因此这里按主数据源的地址和账号单独建立一个小连接池，只设置allowLoadLocalInfileInPath，
+ * 驱动只允许发送{@link #getDirectory()}目录下的文件，服务端请求其他路径时会被拒绝。
+ * <p>
+ * 默认关闭(excel.import.load-data.enabled=false)，关闭或启动检查失败(例如服务端未开启local_infile)时
+ * {@link #isAvailable()}返回false，LOAD_DATA写入方式回退为JDBC_BATCH。
+ */
+@Slf4j
+@Component
+public class LoadDataSource implements DisposableBean {
+
+    private final File directory; // 允许驱动读取的目录，LOAD DATA的临时文件写在这里
+    private final HikariDataSource dataSource; // 不可用时为null
+
+    public LoadDataSource(DataSourceProperties properties,
+                          @Value("${excel.import.load-data.enabled:false}") boolean enabled,
+                          @Value("${excel.import.load-data.directory:${java.io.tmpdir}/excel-load-data}") String directory,
+                          @Value("${excel.import.load-data.max-pool-size:4}") int maxPoolSize) {
+        this.directory = new File(directory).getAbsoluteFile();
+        this.dataSource = enabled ? open(properties, this.directory, maxPoolSize) : null;
+    }
+
+    /**
+     * @return LOAD DATA连接池是否可用
+     */
+    public boolean isAvailable() {
+        return dataSource != null;
+    }
+
+    /**
+     * @return 允许驱动读取的目录
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 在LOAD DATA专用连接上执行操作。
+     * 当前线程存在事务时，同一事务内复用同一个连接并关闭自动提交：外层事务提交前(beforeCommit)先提交该连接，
+     * 提交失败时外层事务随之回滚；外层事务回滚时该连接也回滚。两个连接不是同一个数据库事务，
+     * 如果该连接已提交而外层事务随后提交失败，已载入的行不会回滚。没有事务时使用自动提交的连接。
+     * @param action 使用连接的操作
+     * @return 操作的返回值
+     */
+    public <T> T execute(ConnectionCallback<T> action) throws SQLException {
+        if (dataSource == null) {
+            throw new IllegalStateException("LOAD DATA连接池不可用");
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try (Connection con = dataSource.getConnection()) {
+                return action.doInConnection(con);
+            }
+        }
+        Connection con = (Connection) TransactionSynchronizationManager.getResource(this);
+        if (con == null) {
+            con = dataSource.getConnection();
+            try {
+                con.setAutoCommit(false);
+            } catch (SQLException e) {
+                con.close();
+                throw e;
+            }
+            TransactionSynchronizationManager.bindResource(this, con);
+            TransactionSynchronizationManager.registerSynchronization(new LoadDataSynchronization(con));
+        }
+        return action.doInConnection(con);
+    }
+
+    @Override
+    public void destroy() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    /**
+     * 建立连接池并检查服务端是否开启local_infile，失败时返回null。
+     */
+    private static HikariDataSource open(DataSourceProperties properties, File directory, int maxPoolSize) {
+        HikariDataSource dataSource = null;
+        try {
+            Files.createDirectories(directory.toPath());
+            String url = properties.determineUrl();
+            dataSource = new HikariDataSource();
+            dataSource.setPoolName("ExcelLoadData");
+            dataSource.setDriverClassName(properties.determineDriverClassName());
+            dataSource.setJdbcUrl(url + (url.contains("?") ? "&" : "?") + "allowLoadLocalInfile=false"
+                    + "&allowLoadLocalInfileInPath=" + URLEncoder.encode(directory.getPath(), "UTF-8"));
+            dataSource.setUsername(properties.determineUsername());
+            dataSource.setPassword(properties.determinePassword());
+            dataSource.setMaximumPoolSize(Math.max(1, maxPoolSize));
+            dataSource.setMinimumIdle(0);
+            try (Connection con = dataSource.getConnection();
+                 Statement statement = con.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT @@GLOBAL.local_infile")) {
+                if (!rs.next() || !rs.getBoolean(1)) {
+                    throw new IllegalStateException("服务端未开启local_infile");
+                }
+            }
+            log.info("LOAD DATA连接池已就绪，允许读取的目录: " + directory);
+            return dataSource;
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException | SQLException | RuntimeException e) {
+            log.warn("LOAD DATA连接池不可用，LOAD_DATA写入方式将回退为JDBC_BATCH: " + e.getMessage());
+            if (dataSource != null) {
+                dataSource.close();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 让LOAD DATA连接跟随外层事务提交或回滚，事务结束后归还连接。
+     */
+    private final class LoadDataSynchronization implements TransactionSynchronization {
+
+        private final Connection con;
+
+        private LoadDataSynchronization(Connection con) {
+            this.con = con;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(LoadDataSource.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(LoadDataSource.this, con);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            try {
+                con.commit();
+            } catch (SQLException e) {
+                throw new DataAccessResourceFailureException("提交LOAD DATA连接失败", e);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(LoadDataSource.this);
+            try {
+                if (status != STATUS_COMMITTED) {
+                    con.rollback();
+                }
+            } catch (SQLException e) {
+                log.warn("回滚LOAD DATA连接失败: " + e.getMessage());
+            } finally {
+                try {
+                    con.close();
+                } catch (SQLException e) {
+                    log.warn("归还LOAD DATA连接失败: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Spring 应用配置类，用于配置线程池。
@@ -16,16 +17,112 @@ public class ThreadPoolConfig {
 
     /**
      * 配置用于 Excel 导入任务的线程池。
+     * 导入流水线在这里执行排空任务(转换 + 入库)。队列满时直接拒绝，不能由提交的解析线程执行：
+     * 流水线会让解析线程阻塞在有界批次队列上，稍后重新提交排空任务。
+     * @param excelMetrics 运行指标
      * @return ThreadPoolTaskExecutor实例
      */
     @Bean(name = "excelImportTaskExecutor")
-    public Executor excelImportTaskExecutor() {
+    public Executor excelImportTaskExecutor(ExcelMetrics excelMetrics) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(Math.max(2, Runtime.getRuntime().availableProcessors())); // 核心线程数，至少2个或CPU核心数
         executor.setMaxPoolSize(Math.max(5, Runtime.getRuntime().availableProcessors() * 2)); // 最大线程数，至少5个或CPU核心数*2
         executor.setQueueCapacity(200); // 任务队列容量
         executor.setThreadNamePrefix("ExcelImport-"); // 线程名称前缀
-        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy()); // 拒绝策略
+        executor.setRejectedExecutionHandler(excelMetrics.abortPolicy("excelImportTaskExecutor")); // 拒绝策略，抛出异常并统计触发次数
+        // 优雅停机：等待所有任务完成后再关闭线程池
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60); // 等待60秒
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 配置用于异步导入任务的线程池。
+     * 异步导入时每个任务在这个线程池的一个线程上打开文件并驱动解析，请求线程提交后立即返回。
+     * 线程只在解析期间占用，批次仍由导入线程池处理，线程数取CPU核心数的一半即可；
+     * 队列满时直接拒绝，提示稍后重试，不回退到请求线程执行。
+     * @return ThreadPoolTaskExecutor实例
+     */
+    @Bean(name = "excelImportJobExecutor")
+    public Executor excelImportJobExecutor() {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads); // 核心线程数，至少2个或CPU核心数的一半
+        executor.setMaxPoolSize(threads); // 最大线程数，与核心线程数一致
+        executor.setQueueCapacity(100); // 等待执行的导入任务数
+        executor.setThreadNamePrefix("ExcelImportJob-"); // 线程名称前缀
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy()); // 拒绝策略，抛出异常由调用方提示稍后重试
+        // 优雅停机：等待所有任务完成后再关闭线程池
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60); // 等待60秒
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 配置用于异步导出任务的线程池。
+     * 异步导出(FILE输出)时每个任务在这个线程池的一个线程上统计总数并写入文件，请求线程提交后立即返回。
+     * 数据查询和渲染仍在导出线程池中进行，这里的线程主要做序列化；队列满时直接拒绝，提示稍后重试，不回退到请求线程执行。
+     * @return ThreadPoolTaskExecutor实例
+     */
+    @Bean(name = "excelExportJobExecutor")
+    public Executor excelExportJobExecutor() {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads); // 核心线程数，至少2个或CPU核心数的一半
+        executor.setMaxPoolSize(threads); // 最大线程数，与核心线程数一致
+        executor.setQueueCapacity(100); // 等待执行的导出任务数
+        executor.setThreadNamePrefix("ExcelExportJob-"); // 线程名称前缀
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy()); // 拒绝策略，抛出异常由调用方提示稍后重试
+        // 优雅停机：等待所有任务完成后再关闭线程池
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60); // 等待60秒
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 配置用于 Excel 工作表解析的线程池。
+     * 多工作表导入时每个工作表在一个线程上做SAX解析，属于CPU密集型，线程数与CPU核心数一致。
+     * 不设任务队列：线程都在忙时由提交任务的请求线程自己解析，
+     * 这样解析并发度不会超过核心数，也不会有工作表排在队列里等待。
+     * @param excelMetrics 运行指标
+     * @return ThreadPoolTaskExecutor实例
+     */
+    @Bean(name = "excelParseTaskExecutor")
+    public Executor excelParseTaskExecutor(ExcelMetrics excelMetrics) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(processors); // 核心线程数，CPU核心数
+        executor.setMaxPoolSize(processors); // 最大线程数，CPU核心数
+        executor.setQueueCapacity(0); // 不排队，直接交给空闲线程
+        executor.setThreadNamePrefix("ExcelParse-"); // 线程名称前缀
+        executor.setRejectedExecutionHandler(excelMetrics.callerRunsPolicy("excelParseTaskExecutor")); // 拒绝策略，并统计触发次数
+        // 优雅停机：等待所有任务完成后再关闭线程池
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60); // 等待60秒
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 配置用于并行生成导出工作表的线程池。
+     * 每个线程负责一个工作表的序列化和压缩，属于CPU密集型，线程数与CPU核心数一致。
+     * 工作表的数据查询仍提交到导出线程池，两者分开，避免生成线程占满线程池后查询任务无线程可用。
+     * 不设任务队列，线程都在忙时由请求线程自己生成该工作表。
+     * @param excelMetrics 运行指标
+     * @return ThreadPoolTaskExecutor实例
+     */
+    @Bean(name = "excelSheetWriteTaskExecutor")
+    public Executor excelSheetWriteTaskExecutor(ExcelMetrics excelMetrics) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(processors); // 核心线程数，CPU核心数
+        executor.setMaxPoolSize(processors); // 最大线程数，CPU核心数
+        executor.setQueueCapacity(0); // 不排队，直接交给空闲线程
+        executor.setThreadNamePrefix("ExcelSheetWrite-"); // 线程名称前缀
+        executor.setRejectedExecutionHandler(excelMetrics.callerRunsPolicy("excelSheetWriteTaskExecutor")); // 拒绝策略，并统计触发次数
         // 优雅停机：等待所有任务完成后再关闭线程池
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60); // 等待60秒
@@ -40,17 +137,18 @@ public class ThreadPoolConfig {
      * 其次是处理数据，属于轻量的CPU密集型
      * 线程数 ≈ CPU 核心数 × (1 + IO等待时间 / 计算时间)
      *  但是我们又要考虑内存，可能 下面的配置比较合适
+     * @param excelMetrics 运行指标
      * @return ThreadPoolTaskExecutor实例
      */
     @Bean(name = "excelExportTaskExecutor")
-    public Executor excelExportTaskExecutor() {
+    public Executor excelExportTaskExecutor(ExcelMetrics excelMetrics) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(Math.max(2, Runtime.getRuntime().availableProcessors())); // 核心线程数，至少2个或CPU核心数
         executor.setMaxPoolSize(Math.max(5, Runtime.getRuntime().availableProcessors() * 2)); // 最大线程数，至少5个或CPU核心数*2
         executor.setQueueCapacity(200); // 任务队列容量，适当增大以应对突发任务
         executor.setThreadNamePrefix("ExcelExport-"); // 线程名称前缀
         // 使用CallerRunsPolicy拒绝策略，当任务被拒绝时，由提交任务的线程（即调用者线程）直接执行该任务
-        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setRejectedExecutionHandler(excelMetrics.callerRunsPolicy("excelExportTaskExecutor"));
         // 优雅停机：等待所有任务完成后再关闭线程池
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60); // 等待60秒
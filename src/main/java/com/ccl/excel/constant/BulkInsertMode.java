@@ -0,0 +1,14 @@
+package com.ccl.excel.constant;
+
+/**
+ * 导入数据批量写入数据库的方式。
+ * UPSERT和STAGED_MERGE按主键合并，已存在的行被更新而不是使整个批次失败，适合重复导入同一份数据。
+ */
+public enum BulkInsertMode {
+    SAVE_BATCH,   // MyBatis-Plus saveBatch：逐行INSERT，经过MyBatis拦截器链，支持自动填充
+    MULTI_VALUES, // 多行 INSERT ... VALUES (...),(...)，按参数个数和语句字节数分段
+    JDBC_BATCH,   // JDBC批处理，执行期间在连接上开启rewriteBatchedStatements，由驱动改写为多行INSERT
+    LOAD_DATA,    // LOAD DATA LOCAL INFILE，数据编码为制表符分隔的临时文件，经专用连接池(LoadDataSource)发送；需要开启excel.import.load-data.enabled和服务端的local_infile，否则回退为JDBC_BATCH
+    UPSERT,       // 多行 INSERT ... ON DUPLICATE KEY UPDATE，已存在的行更新除主键外的所有列
+    STAGED_MERGE; // 先写入临时表，再用一条 UPDATE ... JOIN 和一条 INSERT ... SELECT 合并到目标表，只更新内容有变化的行
+}
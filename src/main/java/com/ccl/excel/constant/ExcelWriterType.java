@@ -0,0 +1,9 @@
+package com.ccl.excel.constant;
+
+/**
+ * 导出时生成xlsx的写入器类型。
+ */
+public enum ExcelWriterType {
+    SXSSF,     // POI SXSSFWorkbook：逐个创建Row/Cell对象，先写临时文件再打包
+    STREAMING; // 直接输出SpreadsheetML：内联字符串，边生成边压缩，不创建单元格对象，也没有临时文件
+}
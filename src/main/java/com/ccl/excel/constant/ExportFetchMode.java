@@ -0,0 +1,10 @@
+package com.ccl.excel.constant;
+
+/**
+ * 导出时从数据库获取数据的方式。
+ */
+public enum ExportFetchMode {
+    OFFSET,  // 按偏移量分页：LIMIT offset, n，深分页时每页的代价随offset线性增长
+    KEYSET,  // 按键值分页：WHERE key > ? ORDER BY key LIMIT n，每页代价与位置无关
+    CURSOR;  // 数据库游标：一次查询逐行流式读取，不统计总数也不分页
+}
@@ -0,0 +1,9 @@
+package com.ccl.excel.constant;
+
+/**
+ * 导出结果的输出方式。
+ */
+public enum ExportOutput {
+    FILE,      // 写入服务器临时目录的文件，返回任务ID，之后再单独下载
+    RESPONSE;  // 同步导出，边查询边写入HTTP响应流，不落盘
+}
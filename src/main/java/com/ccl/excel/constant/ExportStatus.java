@@ -25,4 +25,19 @@ public enum ExportStatus {
     public String getDescription() {
         return description;
     }
+
+    /**
+     * @param value 状态值
+     * @return 对应的状态，未知的值返回null
+     */
+    public static ExportStatus of(Integer value) {
+        if (value != null) {
+            for (ExportStatus status : values()) {
+                if (status.value == value) {
+                    return status;
+                }
+            }
+        }
+        return null;
+    }
 }
\ No newline at end of file
@@ -19,4 +19,19 @@ public enum ImportStatus {
     public int getValue() {
         return value;
     }
+
+    /**
+     * @param value 状态值
+     * @return 对应的状态，未知的值返回null
+     */
+    public static ImportStatus of(Integer value) {
+        if (value != null) {
+            for (ImportStatus status : values()) {
+                if (status.value == value) {
+                    return status;
+                }
+            }
+        }
+        return null;
+    }
 }
\ No newline at end of file
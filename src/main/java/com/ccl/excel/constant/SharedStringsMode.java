@@ -0,0 +1,11 @@
+package com.ccl.excel.constant;
+
+/**
+ * 导入时共享字符串表(SST)的加载方式。
+ */
+public enum SharedStringsMode {
+    AUTO,       // 根据SST部件大小自动选择：不超过阈值用READ_ONLY，超过阈值用MAPPED
+    IN_MEMORY,  // 使用POI的SharedStringsTable，全部加载到堆内存
+    READ_ONLY,  // 使用ReadOnlySharedStringsTable流式解析，只保留字符串本身(不含rPh注音)
+    MAPPED;     // 字符串写入临时文件并内存映射，堆内只保留偏移量索引和有界缓存
+}
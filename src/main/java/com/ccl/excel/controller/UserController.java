@@ -1,29 +1,100 @@
 package com.ccl.excel.controller;
 
+import com.ccl.excel.annotion.ExcelExport;
 import com.ccl.excel.annotion.ExcelImport;
+import com.ccl.excel.aspect.ExcelExportAspect;
+import com.ccl.excel.aspect.ExcelImportAspect;
+import com.ccl.excel.constant.ExcelWriterType;
+import com.ccl.excel.constant.ExportFetchMode;
+import com.ccl.excel.constant.ExportOutput;
+import com.ccl.excel.pojo.ExportJobStatus;
+import com.ccl.excel.pojo.ImportJobStatus;
 import com.ccl.excel.strategy.UserImportStrategy;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.annotation.Resource;
+
 @Slf4j
 @Controller
 @RequestMapping("/user")
 @Tag(name = "用户接口", description = "提供用户的增删改查接口")
 public class UserController {
 
+    @Resource
+    private ExcelImportAspect excelImportAspect;
+
+    @Resource
+    private ExcelExportAspect excelExportAspect;
 
     @PostMapping("/import")
     @ResponseBody
-    @ExcelImport(batchSize = 200, timeoutSeconds = 10000, strategy = UserImportStrategy.class)
-    public String importUser(@RequestParam("file") MultipartFile file) {
+    @ExcelImport(batchSize = 200, async = true, deduplicate = true, strategy = UserImportStrategy.class)
+    public ResponseEntity<ImportJobStatus> importUser(@RequestParam("file") MultipartFile file) {
         log.info("Service层: importUsers 方法被调用，文件名为: " + file.getOriginalFilename());
-        return "导入请求已接收，正在处理中...";
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * 查询导入任务的进度，执行中的任务返回已解析、已转换、已入库和失败的行数。
+     */
+    @GetMapping("/import/status")
+    @ResponseBody
+    public ResponseEntity<ImportJobStatus> importStatus(@RequestParam("id") String importJobId) {
+        ImportJobStatus status = excelImportAspect.status(importJobId);
+        return status == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(status);
+    }
+
+    /**
+     * 恢复被中断的导入任务，已完成的行直接跳过。
+     */
+    @PostMapping("/import/resume")
+    @ResponseBody
+    public String resumeImport(@RequestParam("id") String importJobId) throws Exception {
+        return excelImportAspect.resume(importJobId);
+    }
+
+    @GetMapping("/export")
+    @ResponseBody
+    @ExcelExport(batchSize = 2000, timeoutSeconds = 600, exportName = "用户导出", strategyBeanName = "userExportStrategy",
+            sheetName = "用户", fetchMode = ExportFetchMode.KEYSET, parallelRanges = 4, writerType = ExcelWriterType.STREAMING,
+            async = true)
+    public ResponseEntity<ExportJobStatus> exportUser() {
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * 查询导出任务的进度，执行中的任务返回总行数和已写入的行数，完成后返回文件路径。
+     */
+    @GetMapping("/export/status")
+    @ResponseBody
+    public ResponseEntity<ExportJobStatus> exportStatus(@RequestParam("id") String taskId) {
+        ExportJobStatus status = excelExportAspect.status(taskId);
+        return status == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(status);
+    }
+
+    @GetMapping("/export/stream")
+    @ResponseBody
+    @ExcelExport(timeoutSeconds = 600, exportName = "用户导出(游标)", strategyBeanName = "userExportStrategy",
+            sheetName = "用户", fetchMode = ExportFetchMode.CURSOR)
+    public String exportUserByCursor() {
+        return "导出请求已接收，正在处理中...";
+    }
+
+    @GetMapping("/export/download")
+    @ResponseBody
+    @ExcelExport(timeoutSeconds = 600, exportName = "用户", strategyBeanName = "userExportStrategy",
+            sheetName = "用户", fetchMode = ExportFetchMode.CURSOR, output = ExportOutput.RESPONSE)
+    public String downloadUser() {
+        return null;
     }
 
 }
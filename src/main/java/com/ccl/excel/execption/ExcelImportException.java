@@ -0,0 +1,14 @@
+package com.ccl.excel.execption;
+
+/**
+ * 自定义 Excel 导入异常。
+ */
+public class ExcelImportException extends RuntimeException {
+    public ExcelImportException(String message) {
+        super(message);
+    }
+
+    public ExcelImportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,9 @@
+package com.ccl.excel.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.ccl.excel.pojo.ImportCheckpointRange;
+import org.apache.ibatis.annotations.Mapper;
+
+@Mapper
+public interface ImportCheckpointMapper extends BaseMapper<ImportCheckpointRange> {
+}
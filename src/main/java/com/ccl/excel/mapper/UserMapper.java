@@ -3,7 +3,20 @@ package com.ccl.excel.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.ccl.excel.pojo.User;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
+
+    /**
+     * 按id顺序流式读取全部用户。
+     * fetchSize = Integer.MIN_VALUE 让MySQL驱动逐行读取结果集，需要在事务内使用并及时关闭游标。
+     * @return 用户游标
+     */
+    @Select("SELECT id, name, age, email FROM t_user ORDER BY id")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<User> streamAll();
 }
@@ -0,0 +1,46 @@
+package com.ccl.excel.pojo;
+
+/**
+ * 一次批量写入的结果：新插入、已存在且被更新、已存在且内容相同的行数。
+ */
+public class BulkWriteResult {
+
+    private final long inserted; // 新插入的行数
+    private final long updated; // 已存在且被更新的行数
+    private final long unchanged; // 已存在且内容相同的行数
+
+    public BulkWriteResult(long inserted, long updated, long unchanged) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.unchanged = unchanged;
+    }
+
+    /**
+     * @param inserted 插入的行数
+     * @return 只有插入的写入结果
+     */
+    public static BulkWriteResult inserted(long inserted) {
+        return new BulkWriteResult(inserted, 0, 0);
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public long getUnchanged() {
+        return unchanged;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkWriteResult{" +
+               "inserted=" + inserted +
+               ", updated=" + updated +
+               ", unchanged=" + unchanged +
+               '}';
+    }
+}
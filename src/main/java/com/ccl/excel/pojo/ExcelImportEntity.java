@@ -0,0 +1,45 @@
+package com.ccl.excel.pojo;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+
+/**
+ * 导入数据模型的基类，记录数据来自哪个工作表的哪一行，以及导入失败的原因。
+ * 行转换完成后由导入切面填写来源，策略生成错误报告时写入"工作表"和"行号"两列，便于定位原始数据。
+ */
+public abstract class ExcelImportEntity {
+
+    public static final String SHEET_COLUMN = "工作表"; // 错误报告中工作表名称的列头
+    public static final String ROW_COLUMN = "行号"; // 错误报告中行号的列头
+    public static final String ERROR_COLUMN = "失败原因"; // 错误报告中失败原因的列头
+
+    @TableField(exist = false)
+    private String sheetName; // 来源工作表名称
+    @TableField(exist = false)
+    private Integer rowNum; // 来源行号，与Excel中显示的行号一致 (1-based)
+    @TableField(exist = false)
+    private String importError; // 导入失败原因
+
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    public void setSheetName(String sheetName) {
+        this.sheetName = sheetName;
+    }
+
+    public Integer getRowNum() {
+        return rowNum;
+    }
+
+    public void setRowNum(Integer rowNum) {
+        this.rowNum = rowNum;
+    }
+
+    public String getImportError() {
+        return importError;
+    }
+
+    public void setImportError(String importError) {
+        this.importError = importError;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ccl.excel.pojo;
+
+import com.ccl.excel.constant.ExportStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 导出任务的进度快照，由导出任务状态接口返回。
+ * 进行中的任务取自内存中的任务上下文；不在内存中的任务取自导出任务日志，此时已写行数为日志中记录的最终值。
+ */
+@Data
+public class ExportJobStatus {
+
+    private String taskId; // 导出任务ID
+    private String exportName; // 导出任务的名称
+    private String status; // 任务状态，ExportStatus的名称
+    private LocalDateTime startTime; // 开始时间
+    private LocalDateTime endTime; // 结束时间，未结束时为null
+    private Long elapsedMillis; // 已运行的毫秒数
+    private Long totalRecords; // 总记录数，游标模式或尚未统计时为null
+    private Long rowsWritten; // 已写入的行数
+    private String filePath; // 导出文件路径，完成后才有
+    private String message; // 失败原因
+
+    /**
+     * 根据导出任务日志生成快照。
+     * @param taskLog 导出任务日志
+     * @return 进度快照
+     */
+    public static ExportJobStatus of(ExportTaskLog taskLog) {
+        ExportJobStatus status = new ExportJobStatus();
+        status.setTaskId(taskLog.getId());
+        status.setExportName(taskLog.getExportName());
+        ExportStatus exportStatus = ExportStatus.of(taskLog.getStatus());
+        status.setStatus(exportStatus != null ? exportStatus.name() : String.valueOf(taskLog.getStatus()));
+        status.setStartTime(taskLog.getStartTime());
+        status.setEndTime(taskLog.getEndTime());
+        status.setElapsedMillis(taskLog.getElapsedMillis());
+        status.setTotalRecords(taskLog.getTotalRecords());
+        status.setRowsWritten(taskLog.getExportedRecords());
+        status.setFilePath(taskLog.getFilePath());
+        status.setMessage(taskLog.getErrorMessage());
+        return status;
+    }
+}
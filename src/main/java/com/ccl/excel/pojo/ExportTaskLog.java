@@ -27,6 +27,8 @@ public class ExportTaskLog {
     private String filePath; // 导出 Excel 文件的路径
     private String errorMessage; // 错误信息
     private String requestParams; // 原始请求参数的 JSON 字符串
+    private Long elapsedMillis; // 导出耗时(毫秒)
+    private Double rowsPerSecond; // 导出吞吐量(行/秒)
 
     public ExportTaskLog() {
         this.id = UUID.randomUUID().toString(); // 自动生成ID
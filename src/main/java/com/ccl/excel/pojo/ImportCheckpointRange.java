@@ -0,0 +1,82 @@
+package com.ccl.excel.pojo;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+/**
+ * 导入检查点中的一段已完成的行。
+ * 与写入这些行的数据在同一个事务中插入，数据提交则区间一定存在，数据回滚则区间也不存在；
+ * 恢复导入时把同一个任务的所有区间合并为{@link com.ccl.excel.task.ImportCheckpoint}。
+ */
+@TableName("t_import_checkpoint")
+public class ImportCheckpointRange {
+
+    @TableId(type = IdType.AUTO)
+    private Long id; // 自增主键
+    private String importJobId; // 导入任务ID
+    private Integer sheetIndex; // 工作表索引
+    private Integer firstRow; // 起始行号(含)，与解析时的行号一致(0-based)
+    private Integer lastRow; // 结束行号(含)
+
+    public ImportCheckpointRange() {
+    }
+
+    public ImportCheckpointRange(String importJobId, int sheetIndex, int firstRow, int lastRow) {
+        this.importJobId = importJobId;
+        this.sheetIndex = sheetIndex;
+        this.firstRow = firstRow;
+        this.lastRow = lastRow;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getImportJobId() {
+        return importJobId;
+    }
+
+    public void setImportJobId(String importJobId) {
+        this.importJobId = importJobId;
+    }
+
+    public Integer getSheetIndex() {
+        return sheetIndex;
+    }
+
+    public void setSheetIndex(Integer sheetIndex) {
+        this.sheetIndex = sheetIndex;
+    }
+
+    public Integer getFirstRow() {
+        return firstRow;
+    }
+
+    public void setFirstRow(Integer firstRow) {
+        this.firstRow = firstRow;
+    }
+
+    public Integer getLastRow() {
+        return lastRow;
+    }
+
+    public void setLastRow(Integer lastRow) {
+        this.lastRow = lastRow;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportCheckpointRange{" +
+               "importJobId='" + importJobId + '\'' +
+               ", sheetIndex=" + sheetIndex +
+               ", firstRow=" + firstRow +
+               ", lastRow=" + lastRow +
+               '}';
+    }
+}
@@ -0,0 +1,171 @@
+package com.ccl.excel.pojo;
+
+import com.ccl.excel.constant.ImportStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * 导入任务的进度快照，由任务状态接口返回。
+ * 进行中的任务取自内存中的任务上下文；不在内存中的任务(例如已过保留期或节点重启后)取自导入记录，此时没有行进度。
+ */
+public class ImportJobStatus {
+
+    private String importJobId; // 导入任务ID
+    private String status; // 任务状态，ImportStatus的名称
+    private LocalDateTime startTime; // 开始时间
+    private LocalDateTime endTime; // 结束时间，未结束时为null
+    private Long elapsedMillis; // 已运行的毫秒数
+    private Long rowsParsed; // 已解析并提交到流水线的行数
+    private Long rowsConverted; // 已转换的行数
+    private Long rowsCommitted; // 已成功入库的行数
+    private Long rowsFailed; // 失败的行数
+    private Long insertedCount; // 新插入的行数
+    private Long updatedCount; // 已存在且被更新的行数
+    private Long unchangedCount; // 已存在且内容相同的行数
+    private String failedReportPath; // 失败报告路径
+    private String message; // 失败原因
+
+    /**
+     * 根据导入记录生成快照，没有行进度。
+     * @param record 导入记录
+     * @return 进度快照
+     */
+    public static ImportJobStatus of(ImportRecord record) {
+        ImportJobStatus status = new ImportJobStatus();
+        status.setImportJobId(record.getId());
+        ImportStatus importStatus = ImportStatus.of(record.getStatus());
+        status.setStatus(importStatus != null ? importStatus.name() : String.valueOf(record.getStatus()));
+        status.setStartTime(record.getStartTime());
+        status.setEndTime(record.getEndTime());
+        status.setInsertedCount(record.getInsertedCount());
+        status.setUpdatedCount(record.getUpdatedCount());
+        status.setUnchangedCount(record.getUnchangedCount());
+        status.setFailedReportPath(record.getFailedReportPath());
+        return status;
+    }
+
+    public String getImportJobId() {
+        return importJobId;
+    }
+
+    public void setImportJobId(String importJobId) {
+        this.importJobId = importJobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public Long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(Long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public Long getRowsParsed() {
+        return rowsParsed;
+    }
+
+    public void setRowsParsed(Long rowsParsed) {
+        this.rowsParsed = rowsParsed;
+    }
+
+    public Long getRowsConverted() {
+        return rowsConverted;
+    }
+
+    public void setRowsConverted(Long rowsConverted) {
+        this.rowsConverted = rowsConverted;
+    }
+
+    public Long getRowsCommitted() {
+        return rowsCommitted;
+    }
+
+    public void setRowsCommitted(Long rowsCommitted) {
+        this.rowsCommitted = rowsCommitted;
+    }
+
+    public Long getRowsFailed() {
+        return rowsFailed;
+    }
+
+    public void setRowsFailed(Long rowsFailed) {
+        this.rowsFailed = rowsFailed;
+    }
+
+    public Long getInsertedCount() {
+        return insertedCount;
+    }
+
+    public void setInsertedCount(Long insertedCount) {
+        this.insertedCount = insertedCount;
+    }
+
+    public Long getUpdatedCount() {
+        return updatedCount;
+    }
+
+    public void setUpdatedCount(Long updatedCount) {
+        this.updatedCount = updatedCount;
+    }
+
+    public Long getUnchangedCount() {
+        return unchangedCount;
+    }
+
+    public void setUnchangedCount(Long unchangedCount) {
+        this.unchangedCount = unchangedCount;
+    }
+
+    public String getFailedReportPath() {
+        return failedReportPath;
+    }
+
+    public void setFailedReportPath(String failedReportPath) {
+        this.failedReportPath = failedReportPath;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportJobStatus{" +
+               "importJobId='" + importJobId + '\'' +
+               ", status='" + status + '\'' +
+               ", elapsedMillis=" + elapsedMillis +
+               ", rowsParsed=" + rowsParsed +
+               ", rowsConverted=" + rowsConverted +
+               ", rowsCommitted=" + rowsCommitted +
+               ", rowsFailed=" + rowsFailed +
+               '}';
+    }
+}
@@ -20,6 +20,12 @@ public class ImportRecord {
     private LocalDateTime endTime; // 导入结束时间
     private Integer status; // 导入任务的状态
     private String failedReportPath; // 失败报告Excel文件的路径
+    private Long insertedCount; // 新插入的行数
+    private Long updatedCount; // 已存在且被更新的行数
+    private Long unchangedCount; // 已存在且内容相同的行数
+    private String importMethod; // 声明@ExcelImport的方法，格式为"类名#方法名"，恢复导入时据此读取导入配置
+    private String sourcePath; // 保留的上传文件路径，任务结束后删除
+    private String checkpoint; // 恢复导入时合并得到的已完成的行，格式见ImportCheckpoint
 
     public ImportRecord() {
         this.id = UUID.randomUUID().toString(); // 自动生成ID
@@ -76,6 +82,54 @@ public class ImportRecord {
         this.failedReportPath = failedReportPath;
     }
 
+    public Long getInsertedCount() {
+        return insertedCount;
+    }
+
+    public void setInsertedCount(Long insertedCount) {
+        this.insertedCount = insertedCount;
+    }
+
+    public Long getUpdatedCount() {
+        return updatedCount;
+    }
+
+    public void setUpdatedCount(Long updatedCount) {
+        this.updatedCount = updatedCount;
+    }
+
+    public Long getUnchangedCount() {
+        return unchangedCount;
+    }
+
+    public void setUnchangedCount(Long unchangedCount) {
+        this.unchangedCount = unchangedCount;
+    }
+
+    public String getImportMethod() {
+        return importMethod;
+    }
+
+    public void setImportMethod(String importMethod) {
+        this.importMethod = importMethod;
+    }
+
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    public void setSourcePath(String sourcePath) {
+        this.sourcePath = sourcePath;
+    }
+
+    public String getCheckpoint() {
+        return checkpoint;
+    }
+
+    public void setCheckpoint(String checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
     @Override
     public String toString() {
         return "ImportRecord{" +
@@ -85,6 +139,12 @@ public class ImportRecord {
                ", endTime=" + endTime +
                ", status=" + status +
                ", failedReportPath='" + failedReportPath + '\'' +
+               ", insertedCount=" + insertedCount +
+               ", updatedCount=" + updatedCount +
+               ", unchangedCount=" + unchangedCount +
+               ", importMethod='" + importMethod + '\'' +
+               ", sourcePath='" + sourcePath + '\'' +
+               ", checkpoint='" + checkpoint + '\'' +
                '}';
     }
 }
\ No newline at end of file
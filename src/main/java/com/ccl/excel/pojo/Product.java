@@ -1,30 +1,29 @@
 package com.ccl.excel.pojo;
 
-import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
+import com.ccl.excel.annotion.ExcelColumn;
 
 import java.math.BigDecimal;
-import java.util.LinkedHashMap;
-import java.util.Map;
 
 /**
  * 产品数据模型，用于Excel导入。
- * 包含一个用于存储导入失败原因的字段。
+ * 带@ExcelColumn的字段同时决定导入、导出和错误报告的列。
  */
 @TableName("t_product")
-public class Product {
+public class Product extends ExcelImportEntity {
 
     @TableId
+    @ExcelColumn(header = "product.id", index = 0, required = true)
     private String productId;
+    @ExcelColumn(header = "product.name", index = 1, required = true)
     private String productName;
+    @ExcelColumn(header = "product.price", index = 2, required = true)
     private BigDecimal price;
 
+    @ExcelColumn(header = "product.stock", index = 3, required = true)
     private Integer stock;
 
-    @TableField(exist = false)
-    private String importError; // 导入失败原因
-
     // Constructors, Getters, Setters
     public Product() {
     }
@@ -68,14 +67,6 @@ public class Product {
         this.stock = stock;
     }
 
-    public String getImportError() {
-        return importError;
-    }
-
-    public void setImportError(String importError) {
-        this.importError = importError;
-    }
-
     @Override
     public String toString() {
         return "Product{" +
@@ -83,21 +74,7 @@ public class Product {
                ", productName='" + productName + '\'' +
                ", price=" + price +
                ", stock=" + stock +
-               ", importError='" + importError + '\'' +
+               ", importError='" + getImportError() + '\'' +
                '}';
     }
-
-    /**
-     * 将Product对象转换为Map，用于错误报告生成。
-     * @return 包含Product数据的Map
-     */
-    public Map<String, String> toMap() {
-        Map<String, String> map = new LinkedHashMap<>();
-        map.put("产品ID", productId);
-        map.put("产品名称", productName);
-        map.put("价格", price != null ? price.toPlainString() : "");
-        map.put("库存", stock != null ? stock.toString() : "");
-        map.put("失败原因", importError != null ? importError : "");
-        return map;
-    }
-}
\ No newline at end of file
+}
@@ -1,25 +1,24 @@
 package com.ccl.excel.pojo;
 
-import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
-
-import java.util.LinkedHashMap;
-import java.util.Map;
+import com.ccl.excel.annotion.ExcelColumn;
 
 /**
  * 用户数据模型，用于Excel导入。
- * 包含一个用于存储导入失败原因的字段。
+ * 带@ExcelColumn的字段同时决定导入、导出和错误报告的列。
  */
 @TableName("t_user")
-public class User {
+public class User extends ExcelImportEntity {
     @TableId
+    @ExcelColumn(header = "ID", index = 0, importable = false)
     private String id;
+    @ExcelColumn(header = "user.name", index = 1, required = true)
     private String name;
+    @ExcelColumn(header = "user.age", index = 2, required = true)
     private Integer age;
+    @ExcelColumn(header = "user.email", index = 3)
     private String email;
-    @TableField(exist = false)
-    private String importError; // 导入失败原因
 
     // Constructors, Getters, Setters
     public User() {
@@ -64,14 +63,6 @@ public class User {
         this.email = email;
     }
 
-    public String getImportError() {
-        return importError;
-    }
-
-    public void setImportError(String importError) {
-        this.importError = importError;
-    }
-
     @Override
     public String toString() {
         return "User{" +
@@ -79,21 +70,7 @@ public class User {
                ", name='" + name + '\'' +
                ", age=" + age +
                ", email='" + email + '\'' +
-               ", importError='" + importError + '\'' +
+               ", importError='" + getImportError() + '\'' +
                '}';
     }
-
-    /**
-     * 将User对象转换为Map，用于错误报告生成。
-     * @return 包含User数据的Map
-     */
-    public Map<String, String> toMap() {
-        Map<String, String> map = new LinkedHashMap<>();
-        map.put("ID", id);
-        map.put("姓名", name);
-        map.put("年龄", age != null ? age.toString() : "");
-        map.put("邮箱", email);
-        map.put("失败原因", importError != null ? importError : "");
-        return map;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.ccl.excel.service;
+
+import com.ccl.excel.constant.BulkInsertMode;
+import com.ccl.excel.pojo.BulkWriteResult;
+
+import java.util.List;
+
+/**
+ * 导入数据批量写入服务。
+ * 除{@link BulkInsertMode#SAVE_BATCH}外直接通过JDBC写入，不经过MyBatis拦截器链；
+ * 表名和列名取自MyBatis-Plus的表信息，调用方存在事务时加入该事务。
+ * 在导入任务中调用时，写入结果在事务提交后累加到当前的{@link com.ccl.excel.task.ImportJobContext}。
+ */
+public interface BulkInsertService {
+
+    /**
+     * 批量写入实体。
+     * @param entities 同一类型的实体列表
+     * @param mode 写入方式
+     * @return 插入、更新和未变化的行数；非合并方式只有插入行数
+     */
+    <T> BulkWriteResult write(List<T> entities, BulkInsertMode mode);
+
+    /**
+     * 批量插入实体。
+     * @param entities 同一类型的实体列表
+     * @param mode 写入方式
+     * @return 写入的行数(插入和更新)
+     */
+    default <T> int insert(List<T> entities, BulkInsertMode mode) {
+        BulkWriteResult result = write(entities, mode);
+        return (int) (result.getInserted() + result.getUpdated());
+    }
+}
@@ -31,4 +31,15 @@ public interface ExportTaskLogService extends IService<ExportTaskLog> {
      * @param errorMessage 错误信息
      */
     void finalizeExportLog(String id, Integer status, String filePath, Long exportedRecords, String errorMessage);
+
+    /**
+     * 最终更新导出任务日志，同时记录耗时和吞吐量(行/秒)。
+     * @param id 任务ID
+     * @param status 最终状态
+     * @param filePath 文件路径
+     * @param exportedRecords 导出记录数
+     * @param elapsedMillis 导出耗时(毫秒)
+     * @param errorMessage 错误信息
+     */
+    void finalizeExportLog(String id, Integer status, String filePath, Long exportedRecords, long elapsedMillis, String errorMessage);
 }
\ No newline at end of file
@@ -0,0 +1,532 @@
+package com.ccl.excel.service.impl;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.baomidou.mybatisplus.extension.toolkit.Db;
+import com.ccl.excel.config.LoadDataSource;
+import com.ccl.excel.constant.BulkInsertMode;
+import com.ccl.excel.pojo.BulkWriteResult;
+import com.ccl.excel.service.BulkInsertService;
+import com.ccl.excel.task.ImportJobContext;
+import com.mysql.cj.conf.PropertyKey;
+import com.mysql.cj.conf.RuntimeProperty;
+import com.mysql.cj.jdbc.JdbcConnection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 导入数据批量写入服务实现类。
+ * 通过JdbcTemplate获取当前事务的连接，MySQL驱动相关的连接属性只在单次写入期间修改，结束后恢复原值，不影响连接池中的其他使用者。
+ * LOAD_DATA使用{@link LoadDataSource}中的专用连接，不可用时回退为JDBC_BATCH。
+ */
+@Slf4j
+@Service
+public class BulkInsertServiceImpl implements BulkInsertService {
+
+    private static final int MAX_PARAMETERS = 65_535; // MySQL预处理语句的参数个数上限
+    private static final int MAX_STATEMENT_BYTES = 4 * 1024 * 1024; // 单条多行INSERT的估算字节上限，远小于max_allowed_packet的默认值
+    private static final int JDBC_BATCH_SIZE = 1000; // JDBC批处理每次执行的行数
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoadDataSource loadDataSource;
+    private final ConcurrentHashMap<Class<?>, TableLayout> layouts = new ConcurrentHashMap<>(); // 按实体类型缓存的表结构
+    private final AtomicBoolean loadDataFallbackLogged = new AtomicBoolean(); // 回退警告只记录一次
+
+    public BulkInsertServiceImpl(JdbcTemplate jdbcTemplate, LoadDataSource loadDataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.loadDataSource = loadDataSource;
+    }
+
+    @Override
+    public <T> BulkWriteResult write(List<T> entities, BulkInsertMode mode) {
+        if (entities == null || entities.isEmpty()) {
+            return BulkWriteResult.inserted(0);
+        }
+        BulkWriteResult result;
+        if (mode == BulkInsertMode.SAVE_BATCH) {
+            Db.saveBatch(entities, entities.size());
+            result = BulkWriteResult.inserted(entities.size());
+        } else {
+            TableLayout layout = layouts.computeIfAbsent(entities.get(0).getClass(), TableLayout::of);
+            Object[][] rows = layout.extract(entities);
+            long start = System.nanoTime();
+            BulkInsertMode effectiveMode = mode;
+            if (mode == BulkInsertMode.LOAD_DATA && !loadDataSource.isAvailable()) {
+                if (loadDataFallbackLogged.compareAndSet(false, true)) {
+                    log.warn("LOAD DATA连接池未开启或不可用，LOAD_DATA写入方式回退为JDBC_BATCH");
+                }
+                effectiveMode = BulkInsertMode.JDBC_BATCH;
+            }
+            if (effectiveMode == BulkInsertMode.LOAD_DATA) {
+                try {
+                    result = BulkWriteResult.inserted(loadDataSource.execute(con -> loadData(con, layout, rows,
+                            loadDataSource.getDirectory().toPath())));
+                } catch (SQLException e) {
+                    throw jdbcTemplate.getExceptionTranslator().translate("LOAD DATA", layout.tableName, e);
+                }
+            } else {
+                result = jdbcTemplate.execute(writeCallback(effectiveMode, layout, rows));
+            }
+            log.debug("批量写入 " + layout.tableName + " (" + effectiveMode + "): " + result + "，耗时 "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        }
+        recordAfterCommit(result);
+        return result;
+    }
+
+    /**
+     * @return 在主数据源当前事务的连接上按指定方式写入的回调
+     */
+    private static ConnectionCallback<BulkWriteResult> writeCallback(BulkInsertMode mode, TableLayout layout,
+                                                                     Object[][] rows) {
+        return con -> {
+            switch (mode) {
+                case JDBC_BATCH:
+                    return BulkWriteResult.inserted(insertJdbcBatch(con, layout, rows));
+                case UPSERT:
+                    return upsert(con, layout, rows);
+                case STAGED_MERGE:
+                    return stagedMerge(con, layout, rows);
+                default:
+                    return BulkWriteResult.inserted(insertMultiValues(con, layout, layout.tableName, rows, ""));
+            }
+        };
+    }
+
+    /**
+     * 在导入任务中时，事务提交后把写入结果累加到任务上下文；没有事务时立即累加。
+     */
+    private static void recordAfterCommit(BulkWriteResult result) {
+        ImportJobContext context = ImportJobContext.current();
+        if (context == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    context.record(result);
+                }
+            });
+        } else {
+            context.record(result);
+        }
+    }
+
+    /**
+     * 多行INSERT：每条语句的参数个数不超过上限，估算的语句字节数不超过{@link #MAX_STATEMENT_BYTES}。
+     * @param table 写入的表
+     * @param suffix 追加在VALUES之后的子句，例如ON DUPLICATE KEY UPDATE
+     * @return 驱动返回的影响行数之和
+     */
+    private static long insertMultiValues(Connection con, TableLayout layout, String table, Object[][] rows,
+                                          String suffix) throws SQLException {
+        long affected = 0;
+        for (int from = 0, to; from < rows.length; from = to) {
+            to = chunkEnd(layout, rows, from);
+            affected += executeChunk(con, layout, table, rows, from, to, suffix);
+        }
+        return affected;
+    }
+
+    /**
+     * 多行INSERT ... ON DUPLICATE KEY UPDATE。
+     * 每段写入前先统计目标表中已存在的主键数，再根据驱动返回的影响行数推算更新和未变化的行数：
+     * 默认(CLIENT_FOUND_ROWS)下插入计1、更新计2、未变化计1；useAffectedRows=true时未变化计0。
+     * 同一批次内有重复主键时计数只是近似值。
+     */
+    private static BulkWriteResult upsert(Connection con, TableLayout layout, Object[][] rows) throws SQLException {
+        layout.requireKey();
+        long existing = 0;
+        long affected = 0;
+        for (int from = 0, to; from < rows.length; from = to) {
+            to = chunkEnd(layout, rows, from);
+            existing += countExisting(con, layout, rows, from, to);
+            affected += executeChunk(con, layout, layout.tableName, rows, from, to, layout.upsertSuffix);
+        }
+        long inserted = rows.length - existing;
+        long updated = useAffectedRows(con) ? (affected - inserted) / 2 : affected - inserted - existing;
+        updated = Math.max(0, Math.min(updated, existing));
+        return new BulkWriteResult(inserted, updated, existing - updated);
+    }
+
+    /**
+     * 经临时表合并：批次先写入与目标表结构相同的临时表(同一批次内重复主键以最后一行为准)，
+     * 再用一条UPDATE ... JOIN更新内容有变化的行、一条INSERT ... SELECT插入不存在的行。
+     * 临时表只对当前连接可见，创建和删除临时表不会隐式提交事务。
+     */
+    private static BulkWriteResult stagedMerge(Connection con, TableLayout layout, Object[][] rows) throws SQLException {
+        layout.requireKey();
+        try (Statement statement = con.createStatement()) {
+            statement.execute("CREATE TEMPORARY TABLE IF NOT EXISTS " + layout.stagingTable + " LIKE " + layout.tableName);
+            statement.execute("DELETE FROM " + layout.stagingTable);
+        }
+        try {
+            insertMultiValues(con, layout, layout.stagingTable, rows, layout.upsertSuffix);
+            try (Statement statement = con.createStatement()) {
+                long existing;
+                try (ResultSet rs = statement.executeQuery(layout.mergeCountSql)) {
+                    existing = rs.next() ? rs.getLong(1) : 0;
+                }
+                long updated = layout.mergeUpdateSql == null ? 0 : statement.executeUpdate(layout.mergeUpdateSql);
+                long inserted = statement.executeUpdate(layout.mergeInsertSql);
+                return new BulkWriteResult(inserted, updated, existing - updated);
+            }
+        } finally {
+            try (Statement statement = con.createStatement()) {
+                statement.execute("DROP TEMPORARY TABLE IF EXISTS " + layout.stagingTable);
+            }
+        }
+    }
+
+    /**
+     * @return 从from开始的一段的结束下标(不含)，参数个数和估算的语句字节数都不超过上限
+     */
+    private static int chunkEnd(TableLayout layout, Object[][] rows, int from) {
+        int maxRows = Math.max(1, MAX_PARAMETERS / layout.columns.length);
+        int to = from;
+        long bytes = layout.insertSql.length();
+        while (to < rows.length && to - from < maxRows) {
+            long rowBytes = estimateBytes(rows[to]);
+            if (to > from && bytes + rowBytes > MAX_STATEMENT_BYTES) {
+                break;
+            }
+            bytes += rowBytes;
+            to++;
+        }
+        return to;
+    }
+
+    private static int executeChunk(Connection con, TableLayout layout, String table, Object[][] rows,
+                                    int from, int to, String suffix) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(layout.multiValuesSql(table, to - from) + suffix)) {
+            int parameter = 1;
+            for (int i = from; i < to; i++) {
+                for (Object value : rows[i]) {
+                    ps.setObject(parameter++, value);
+                }
+            }
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * 统计目标表中已存在的主键数，主键是各行的第一列。
+     */
+    private static long countExisting(Connection con, TableLayout layout, Object[][] rows, int from, int to)
+            throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM ").append(layout.tableName)
+                .append(" WHERE ").append(layout.columns[0]).append(" IN (");
+        for (int i = from; i < to; i++) {
+            sql.append(i == from ? "?" : ",?");
+        }
+        try (PreparedStatement ps = con.prepareStatement(sql.append(')').toString())) {
+            for (int i = from; i < to; i++) {
+                ps.setObject(i - from + 1, rows[i][0]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * @return 连接是否使用useAffectedRows，即ON DUPLICATE KEY UPDATE未改变的行是否计为0
+     */
+    private static boolean useAffectedRows(Connection con) throws SQLException {
+        return con.isWrapperFor(JdbcConnection.class) && con.unwrap(JdbcConnection.class).getPropertySet()
+                .getBooleanProperty(PropertyKey.useAffectedRows).getValue();
+    }
+
+    /**
+     * JDBC批处理：执行期间开启rewriteBatchedStatements，由驱动把批次改写为多行INSERT发送。
+     */
+    private static int insertJdbcBatch(Connection con, TableLayout layout, Object[][] rows) throws SQLException {
+        RuntimeProperty<Boolean> rewrite = con.isWrapperFor(JdbcConnection.class)
+                ? con.unwrap(JdbcConnection.class).getPropertySet().getBooleanProperty(PropertyKey.rewriteBatchedStatements)
+                : null;
+        Boolean previous = rewrite != null ? rewrite.getValue() : null;
+        if (rewrite != null) {
+            rewrite.setValue(true);
+        }
+        try (PreparedStatement ps = con.prepareStatement(layout.insertSql)) {
+            int inserted = 0;
+            for (int i = 0; i < rows.length; i++) {
+                for (int j = 0; j < rows[i].length; j++) {
+                    ps.setObject(j + 1, rows[i][j]);
+                }
+                ps.addBatch();
+                if ((i + 1) % JDBC_BATCH_SIZE == 0 || i == rows.length - 1) {
+                    for (int count : ps.executeBatch()) {
+                        // 改写后的批次每行返回SUCCESS_NO_INFO
+                        inserted += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+                    }
+                }
+            }
+            return inserted;
+        } finally {
+            if (rewrite != null) {
+                rewrite.setValue(previous);
+            }
+        }
+    }
+
+    /**
+     * LOAD DATA LOCAL INFILE：整批数据编码为制表符分隔的文本，写入允许驱动读取的目录下的临时文件后发送给服务端。
+     * LOCAL模式下重复主键等错误只产生警告并跳过该行，因此写入行数不足时按失败处理，由调用方回滚事务。
+     * @param con LOAD DATA专用连接
+     * @param directory 连接的allowLoadLocalInfileInPath目录
+     */
+    private static int loadData(Connection con, TableLayout layout, Object[][] rows, Path directory) throws SQLException {
+        Path file = null;
+        try {
+            file = Files.createTempFile(directory, "excel_import_", ".tsv");
+            Files.write(file, layout.encode(rows));
+            try (Statement statement = con.createStatement()) {
+                int inserted = statement.executeUpdate(layout.loadDataSql(file.toAbsolutePath().toString()));
+                if (inserted != rows.length) {
+                    throw new SQLException("LOAD DATA 只写入了 " + inserted + "/" + rows.length + " 行，可能存在重复主键或无效数据");
+                }
+                return inserted;
+            }
+        } catch (IOException e) {
+            throw new SQLException("写入LOAD DATA临时文件失败: " + e.getMessage(), e);
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("删除LOAD DATA临时文件失败: " + file);
+                }
+            }
+        }
+    }
+
+    /**
+     * 估算一行在多行INSERT中占用的字节数，字符串按UTF-8最坏情况计算。
+     */
+    private static long estimateBytes(Object[] row) {
+        long bytes = 3; // 括号和逗号
+        for (Object value : row) {
+            bytes += value instanceof CharSequence ? ((CharSequence) value).length() * 3L + 3 : 24;
+        }
+        return bytes;
+    }
+
+    /**
+     * 实体类型对应的表结构：表名、写入的列及其属性，以及主键生成方式和各写入方式用到的SQL。
+     */
+    private static final class TableLayout {
+        private final TableInfo tableInfo;
+        private final String tableName;
+        private final String[] columns; // 写入的列名，有主键时主键在前
+        private final String[] properties; // 与列一一对应的实体属性
+        private final boolean hasKey; // 写入的列中是否包含主键
+        private final boolean generateKey; // 主键为空时是否由这里生成
+        private final String columnList; // (c1,c2,...)
+        private final String insertSql; // 单行INSERT
+        private final String valuesGroup; // 一行的占位符 (?,?,...)
+        private final String upsertSuffix; // ON DUPLICATE KEY UPDATE子句，更新除主键外的所有列
+        private final String stagingTable; // 合并使用的临时表
+        private final String mergeCountSql; // 临时表中已存在于目标表的行数
+        private final String mergeUpdateSql; // 用临时表更新目标表中内容有变化的行，只有主键一列时为null
+        private final String mergeInsertSql; // 把目标表中不存在的行从临时表插入
+
+        private TableLayout(TableInfo tableInfo, List<String> columns, List<String> properties, boolean hasKey,
+                            boolean generateKey) {
+            this.tableInfo = tableInfo;
+            this.tableName = tableInfo.getTableName();
+            this.columns = columns.toArray(new String[0]);
+            this.properties = properties.toArray(new String[0]);
+            this.hasKey = hasKey;
+            this.generateKey = generateKey;
+            this.columnList = "(" + String.join(",", this.columns) + ")";
+            StringBuilder group = new StringBuilder("(");
+            for (int i = 0; i < this.columns.length; i++) {
+                group.append(i == 0 ? "?" : ",?");
+            }
+            this.valuesGroup = group.append(')').toString();
+            this.insertSql = "INSERT INTO " + tableName + " " + columnList + " VALUES " + valuesGroup;
+
+            String key = this.columns[0];
+            this.stagingTable = "tmp_merge_" + tableName;
+            StringBuilder upsert = new StringBuilder(" ON DUPLICATE KEY UPDATE ");
+            StringBuilder set = new StringBuilder();
+            StringBuilder same = new StringBuilder();
+            StringBuilder select = new StringBuilder();
+            for (int i = 0; i < this.columns.length; i++) {
+                String column = this.columns[i];
+                select.append(i == 0 ? "" : ",").append("s.").append(column);
+                if (i == 0) {
+                    continue;
+                }
+                upsert.append(i == 1 ? "" : ",").append(column).append("=VALUES(").append(column).append(')');
+                set.append(i == 1 ? "" : ",").append("t.").append(column).append("=s.").append(column);
+                same.append(i == 1 ? "" : " AND ").append("t.").append(column).append(" <=> s.").append(column);
+            }
+            if (this.columns.length == 1) {
+                upsert.append(key).append('=').append(key);
+            }
+            this.upsertSuffix = upsert.toString();
+            String join = tableName + " t JOIN " + stagingTable + " s ON t." + key + " = s." + key;
+            this.mergeCountSql = "SELECT COUNT(*) FROM " + join;
+            this.mergeUpdateSql = this.columns.length == 1 ? null
+                    : "UPDATE " + join + " SET " + set + " WHERE NOT (" + same + ")";
+            this.mergeInsertSql = "INSERT INTO " + tableName + " " + columnList + " SELECT " + select
+                    + " FROM " + stagingTable + " s LEFT JOIN " + tableName + " t ON t." + key + " = s." + key
+                    + " WHERE t." + key + " IS NULL";
+        }
+
+        private static TableLayout of(Class<?> type) {
+            TableInfo tableInfo = TableInfoHelper.getTableInfo(type);
+            if (tableInfo == null) {
+                throw new IllegalArgumentException(type.getName() + " 不是MyBatis-Plus实体，无法批量写入");
+            }
+            if (tableInfo.isWithInsertFill()) {
+                throw new IllegalArgumentException(type.getName() + " 含有插入时自动填充的字段，请使用 SAVE_BATCH");
+            }
+            List<String> columns = new ArrayList<>();
+            List<String> properties = new ArrayList<>();
+            IdType idType = tableInfo.getIdType();
+            if (tableInfo.getKeyColumn() != null && idType != IdType.AUTO) {
+                columns.add(tableInfo.getKeyColumn());
+                properties.add(tableInfo.getKeyProperty());
+            }
+            for (TableFieldInfo field : tableInfo.getFieldList()) {
+                columns.add(field.getColumn());
+                properties.add(field.getProperty());
+            }
+            boolean hasKey = tableInfo.getKeyColumn() != null && idType != IdType.AUTO;
+            boolean generateKey = hasKey && (idType == IdType.ASSIGN_ID || idType == IdType.ASSIGN_UUID);
+            return new TableLayout(tableInfo, columns, properties, hasKey, generateKey);
+        }
+
+        /**
+         * 合并写入需要按主键匹配，主键由数据库自增时无法使用。
+         */
+        private void requireKey() {
+            if (!hasKey) {
+                throw new IllegalArgumentException(tableName + " 没有可写入的主键，不能使用合并写入");
+            }
+        }
+
+        /**
+         * 取出各行要写入的值，主键为空时按实体的主键策略生成并回填到实体。
+         */
+        private Object[][] extract(List<?> entities) {
+            Object[][] rows = new Object[entities.size()][];
+            for (int i = 0; i < rows.length; i++) {
+                Object entity = entities.get(i);
+                if (generateKey && tableInfo.getPropertyValue(entity, tableInfo.getKeyProperty()) == null) {
+                    tableInfo.setPropertyValue(entity, tableInfo.getKeyProperty(), nextKey());
+                }
+                Object[] row = new Object[properties.length];
+                for (int j = 0; j < row.length; j++) {
+                    Object value = tableInfo.getPropertyValue(entity, properties[j]);
+                    row[j] = value instanceof Enum ? ((Enum<?>) value).name() : value;
+                }
+                rows[i] = row;
+            }
+            return rows;
+        }
+
+        private Object nextKey() {
+            if (tableInfo.getIdType() == IdType.ASSIGN_UUID) {
+                return IdWorker.get32UUID();
+            }
+            return tableInfo.getKeyType() == String.class ? IdWorker.getIdStr() : (Object) IdWorker.getId();
+        }
+
+        /**
+         * @param path 数据文件的绝对路径
+         * @return LOAD DATA语句，使用默认的制表符分隔格式
+         */
+        private String loadDataSql(String path) {
+            String literal = path.replace("\\", "\\\\").replace("'", "\\'");
+            return "LOAD DATA LOCAL INFILE '" + literal + "' INTO TABLE " + tableName
+                    + " CHARACTER SET utf8mb4 " + columnList;
+        }
+
+        private String multiValuesSql(String table, int rowCount) {
+            StringBuilder sql = new StringBuilder(insertSql.length() + rowCount * (valuesGroup.length() + 1));
+            sql.append("INSERT INTO ").append(table).append(' ').append(columnList).append(" VALUES ").append(valuesGroup);
+            for (int i = 1; i < rowCount; i++) {
+                sql.append(',').append(valuesGroup);
+            }
+            return sql.toString();
+        }
+
+        /**
+         * 编码为LOAD DATA默认格式：字段以制表符分隔，行以换行结束，反斜杠转义，NULL写作\N。
+         */
+        private byte[] encode(Object[][] rows) {
+            StringBuilder sb = new StringBuilder(rows.length * columns.length * 16);
+            for (Object[] row : rows) {
+                for (int j = 0; j < row.length; j++) {
+                    if (j > 0) {
+                        sb.append('\t');
+                    }
+                    appendField(sb, row[j]);
+                }
+                sb.append('\n');
+            }
+            return sb.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        private static void appendField(StringBuilder sb, Object value) {
+            if (value == null) {
+                sb.append("\\N");
+                return;
+            }
+            String text;
+            if (value instanceof BigDecimal) {
+                text = ((BigDecimal) value).toPlainString();
+            } else if (value instanceof Boolean) {
+                text = (Boolean) value ? "1" : "0";
+            } else if (value instanceof TemporalAccessor) {
+                text = value.toString().replace('T', ' ');
+            } else if (value instanceof Date) {
+                text = new Timestamp(((Date) value).getTime()).toString();
+            } else {
+                text = value.toString();
+            }
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '\\': sb.append("\\\\"); break;
+                    case '\t': sb.append("\\t"); break;
+                    case '\n': sb.append("\\n"); break;
+                    case '\r': sb.append("\\r"); break;
+                    case '\0': sb.append("\\0"); break;
+                    default: sb.append(c);
+                }
+            }
+        }
+    }
+}
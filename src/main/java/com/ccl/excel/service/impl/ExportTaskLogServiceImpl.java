@@ -41,6 +41,24 @@ public class ExportTaskLogServiceImpl extends ServiceImpl<ExportTaskLogMapper, E
     @Override
     @Transactional
     public void finalizeExportLog(String id, Integer status, String filePath, Long exportedRecords, String errorMessage) {
+        this.updateById(buildFinalEntry(id, status, filePath, exportedRecords, errorMessage));
+        log.info("最终更新导出任务日志: ID={}, 状态={}, 文件路径={}, 导出记录数={}",
+                id, ExportStatus.values()[status].getDescription(), filePath, exportedRecords);
+    }
+
+    @Override
+    @Transactional
+    public void finalizeExportLog(String id, Integer status, String filePath, Long exportedRecords, long elapsedMillis, String errorMessage) {
+        ExportTaskLog logEntry = buildFinalEntry(id, status, filePath, exportedRecords, errorMessage);
+        logEntry.setElapsedMillis(elapsedMillis);
+        logEntry.setRowsPerSecond(elapsedMillis > 0 && exportedRecords != null ? exportedRecords * 1000.0 / elapsedMillis : null);
+        this.updateById(logEntry);
+        log.info("最终更新导出任务日志: ID={}, 状态={}, 文件路径={}, 导出记录数={}, 耗时={} ms, 吞吐量={} 行/秒",
+                id, ExportStatus.values()[status].getDescription(), filePath, exportedRecords,
+                elapsedMillis, logEntry.getRowsPerSecond() != null ? Math.round(logEntry.getRowsPerSecond()) : "-");
+    }
+
+    private ExportTaskLog buildFinalEntry(String id, Integer status, String filePath, Long exportedRecords, String errorMessage) {
         ExportTaskLog logEntry = new ExportTaskLog();
         logEntry.setId(id);
         logEntry.setEndTime(LocalDateTime.now());
@@ -48,8 +66,6 @@ public class ExportTaskLogServiceImpl extends ServiceImpl<ExportTaskLogMapper, E
         logEntry.setFilePath(filePath);
         logEntry.setExportedRecords(exportedRecords);
         logEntry.setErrorMessage(errorMessage);
-        this.updateById(logEntry);
-        log.info("最终更新导出任务日志: ID={}, 状态={}, 文件路径={}, 导出记录数={}",
-                id, ExportStatus.values()[status].getDescription(), filePath, exportedRecords);
+        return logEntry;
     }
 }
\ No newline at end of file
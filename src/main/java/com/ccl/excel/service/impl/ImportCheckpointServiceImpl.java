@@ -0,0 +1,72 @@
+package com.ccl.excel.service.impl;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.ccl.excel.mapper.ImportCheckpointMapper;
+import com.ccl.excel.pojo.ImportCheckpointRange;
+import com.ccl.excel.pojo.ImportRecord;
+import com.ccl.excel.task.ImportCheckpoint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.Resource;
+import java.util.List;
+
+/**
+ * 导入检查点服务。
+ * 每个提交的批次(或拆分重试时的子批次)在写入数据的同一个事务中插入一条已完成的行区间，
+ * 不需要在各工作线程之间加锁，也不会出现数据已提交而检查点丢失的情况。
+ * 恢复导入时把保存在导入记录中的检查点文本与所有区间合并，合并结果写回导入记录并删除区间，区间表不会随恢复次数增长。
+ */
+@Slf4j
+@Service
+public class ImportCheckpointServiceImpl extends ServiceImpl<ImportCheckpointMapper, ImportCheckpointRange> {
+
+    @Resource
+    private ImportRecordServiceImpl importRecordServiceImpl;
+
+    /**
+     * 记录一段已完成的行。应在写入这些行的事务中调用。
+     * @param importJobId 导入任务ID
+     * @param sheetIndex 工作表索引
+     * @param firstRow 起始行号(含)
+     * @param lastRow 结束行号(含)
+     */
+    public void record(String importJobId, int sheetIndex, int firstRow, int lastRow) {
+        baseMapper.insert(new ImportCheckpointRange(importJobId, sheetIndex, firstRow, lastRow));
+    }
+
+    /**
+     * 合并导入任务的检查点：导入记录中的检查点文本加上所有已记录的区间。
+     * 合并结果写回导入记录，已合并的区间随之删除，两者在同一个事务中完成。
+     * @param importRecord 导入记录
+     * @return 合并后的检查点
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public ImportCheckpoint compact(ImportRecord importRecord) {
+        String importJobId = importRecord.getId();
+        ImportCheckpoint checkpoint = ImportCheckpoint.parse(importRecord.getCheckpoint());
+        List<ImportCheckpointRange> ranges = lambdaQuery().eq(ImportCheckpointRange::getImportJobId, importJobId).list();
+        if (ranges.isEmpty()) {
+            return checkpoint;
+        }
+        for (ImportCheckpointRange range : ranges) {
+            checkpoint.markCommitted(range.getSheetIndex(), range.getFirstRow(), range.getLastRow());
+        }
+        importRecordServiceImpl.lambdaUpdate()
+                .set(ImportRecord::getCheckpoint, checkpoint.format())
+                .eq(ImportRecord::getId, importJobId)
+                .update();
+        lambdaUpdate().eq(ImportCheckpointRange::getImportJobId, importJobId).remove();
+        log.info("导入任务 [" + importJobId + "] 合并了 " + ranges.size() + " 个检查点区间: " + checkpoint);
+        return checkpoint;
+    }
+
+    /**
+     * 删除导入任务的所有区间。任务完成后不能再恢复，区间不再需要。
+     * @param importJobId 导入任务ID
+     */
+    public void clear(String importJobId) {
+        lambdaUpdate().eq(ImportCheckpointRange::getImportJobId, importJobId).remove();
+    }
+}
@@ -28,7 +28,7 @@ public class ImportRecordServiceImpl extends ServiceImpl<ImportRecordMapper, Imp
      * @param file 待导入的Excel文件
      * @return 导入结果信息
      */
-    @ExcelImport(batchSize = 200, timeoutSeconds = 10,
+    @ExcelImport(batchSize = 200, timeoutSeconds = 10, deduplicate = true,
             strategy = UserImportStrategy.class)
     public String importUsers(MultipartFile file) {
         log.info("Service层: importUsers 方法被调用，文件名为: " + file.getOriginalFilename());
@@ -41,7 +41,7 @@ public class ImportRecordServiceImpl extends ServiceImpl<ImportRecordMapper, Imp
      * @param file 待导入的Excel文件
      * @return 导入结果信息
      */
-    @ExcelImport(batchSize = 500, timeoutSeconds = 15,
+    @ExcelImport(batchSize = 500, timeoutSeconds = 15, deduplicate = true,
             strategy = ProductImportStrategy.class)
     public String importProducts(MultipartFile file) {
         log.info("Service层: importProducts 方法被调用，文件名为: " + file.getOriginalFilename());
@@ -42,4 +42,24 @@ public interface BatchExportStrategy<T> {
      * @return 包含实体数据的字符串列表，每个字符串对应一个单元格
      */
     List<String> convertToRow(T data);
+
+    /**
+     * 将实体对象渲染到复用的单元格数组中，在查询线程上调用，写入线程只负责序列化。
+     * 需要格式化日期、金额、枚举等的策略应覆盖此方法直接填充数组，避免为每行创建List。
+     * 默认实现委托给{@link #convertToRow(Object)}。
+     *
+     * @param data  实体对象
+     * @param cells 可复用的单元格数组，长度不小于表头列数，其中可能残留上一次渲染的值
+     * @return 填充好的单元格数组：通常就是cells，列数超过cells长度时返回新数组；数组中的每个元素都必须重新赋值，空单元格为null
+     */
+    default String[] renderRow(T data, String[] cells) {
+        List<String> values = convertToRow(data);
+        if (values.size() > cells.length) {
+            return values.toArray(new String[0]);
+        }
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i < values.size() ? values.get(i) : null;
+        }
+        return cells;
+    }
 }
\ No newline at end of file
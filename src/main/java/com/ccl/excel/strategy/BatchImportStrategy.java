@@ -1,5 +1,9 @@
 package com.ccl.excel.strategy;
 
+import com.ccl.excel.pojo.ExcelImportEntity;
+import com.ccl.excel.utils.ColumnBinding;
+import com.ccl.excel.utils.ExcelRow;
+
 import java.util.List;
 import java.util.Map;
 
@@ -12,18 +16,58 @@ import java.util.Map;
 public interface BatchImportStrategy<T> {
 
     /**
-     * 将从Excel读取的原始行数据（Map<String, String>）转换为具体的业务POJO对象。
-     * 这个方法应该包含数据类型转换、验证等逻辑。
+     * 获取导入需要的列。
+     * 导入任务开始时按请求的Locale解析为列名，每个工作表读到表头后绑定为列索引，
+     * 缺少必需的列({@link #getRequiredColumns()})时导入立即失败，缺少的可选列读取时为null。返回空数组表示不做列绑定。
+     *
+     * @return 列的多语言key，找不到对应消息时key本身即列名；数组下标即{@link ColumnBinding}中的绑定序号
+     */
+    default String[] getColumnKeys() {
+        return new String[0];
+    }
+
+    /**
+     * 获取各列是否必需。
+     * 默认返回null，表示{@link #getColumnKeys()}中的所有列都是必需的。
+     *
+     * @return 与{@link #getColumnKeys()}一一对应的必需标记，为null时所有列都是必需的
+     */
+    default boolean[] getRequiredColumns() {
+        return null;
+    }
+
+    /**
+     * 使用本工作表的列绑定，把一行数据转换为业务POJO对象。
+     * 这个方法应该包含数据类型转换、验证等逻辑；为了收集失败数据，建议返回一个包含错误信息的POJO。
+     * 列绑定在每个工作表上只解析一次，实现中应通过{@link ColumnBinding#get(ExcelRow, int)}按绑定序号取值，
+     * 也可以按列索引({@link ExcelRow#get(int)})或列名({@link ExcelRow#get(String)})读取单元格；
+     * 基于Map的旧实现可以通过{@link ExcelRow#toMap()}适配。
+     * 行对象会在批次处理完成后被回收复用，实现中不能保留对row的引用。
      *
-     * @param rowData 从Excel读取的一行数据，键为列名，值为字符串形式的单元格内容。
-     * @return 转换后的业务POJO对象。如果转换失败或数据不合法，可以返回null或抛出异常。
-     * 为了收集失败数据，建议返回一个包含错误信息的POJO，或者在内部记录错误。
+     * @param row 从Excel读取的一行数据
+     * @param columns 本工作表的列绑定，{@link #getColumnKeys()}为空时为null
+     * @return 转换后的业务POJO对象
      */
-    T convertRow(Map<String, String> rowData);
+    T convertRow(ExcelRow row, ColumnBinding columns);
+
+    /**
+     * 获取行的业务主键，用于导入任务内的跨批次去重。
+     * 导入配置开启去重({@link com.ccl.excel.annotion.ExcelImport#deduplicate()})时，
+     * 同一个任务中业务主键相同的行只导入最先到达的一行，其余行在importBatch之前直接记为失败。
+     * 默认返回null，表示不参与去重。
+     *
+     * @param item 转换后的POJO对象
+     * @return 业务主键，为null时该行不参与去重
+     */
+    default String getNaturalKey(T item) {
+        return null;
+    }
 
     /**
      * 执行实际的批处理导入逻辑。
      * 这个方法应该包含业务验证、持久化（如保存到数据库）等操作。
+     * 导入任务在调用前已开启事务，并在同一个事务中记录检查点；实现的事务应加入该事务(默认的REQUIRED)，
+     * 不能使用REQUIRES_NEW，否则数据与检查点不再一起提交，恢复导入时可能重复导入。
      *
      * @param data 待导入的POJO对象列表。
      * @return 导入失败的POJO对象列表。如果所有数据都成功导入，则返回空列表。
@@ -38,4 +82,23 @@ public interface BatchImportStrategy<T> {
     List<String> getErrorHeaders();
 
     Map<String, String> t2Map(T item);
+
+    /**
+     * 生成一条带失败原因的失败记录。原因追加在行上已有的错误之后。
+     *
+     * @param item 失败的POJO对象
+     * @param reason 失败原因
+     * @return 错误报告中的一行
+     */
+    default Map<String, String> failedRecord(T item, String reason) {
+        if (item instanceof ExcelImportEntity) {
+            ExcelImportEntity entity = (ExcelImportEntity) item;
+            entity.setImportError(entity.getImportError() != null && !entity.getImportError().isEmpty()
+                    ? entity.getImportError() + " " + reason : reason);
+            return t2Map(item);
+        }
+        Map<String, String> record = t2Map(item);
+        record.put(ExcelImportEntity.ERROR_COLUMN, reason);
+        return record;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,162 @@
+package com.ccl.excel.strategy;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 导入校验用的批量查询器(DataLoader风格)。
+ * <p>
+ * 策略在importBatch中先收集整个批次需要校验的键，调用一次{@link #loadMany(Collection)}：
+ * 缓存中没有的键合并为一次IN (...)查询(键太多时按{@code maxKeysPerQuery}分段)，而不是每行查询一次。
+ * 查询结果写入有界缓存，在批次和导入任务之间共享，缓存的容量按估算的字节数限制，并有过期时间。
+ * 不存在的键默认也缓存；用于唯一性校验的查询器应关闭({@code cacheMissing=false})：导入会写入新的键，
+ * 并发的查询可能在写入方提交并使缓存失效之后，才把查询时得到的"不存在"写回缓存，使之后的重复键一直通过校验。
+ * <p>
+ * 由{@link com.ccl.excel.config.BatchLoaderFactory}创建：缓存命中率见cache.gets(result=hit/miss)，
+ * 实际执行的查询见excel.import.lookup.queries和excel.import.lookup.keys，均以cache=名称为标签。线程安全。
+ *
+ * @param <K> 键类型
+ * @param <V> 查询结果类型
+ */
+public class BatchLoader<K, V> {
+
+    private final String name; // 查询器名称，也是指标中的cache标签
+    private final Function<Set<K>, Map<K, V>> query; // 一次查询一组键，结果中没有的键表示不存在
+    private final int maxKeysPerQuery; // 单次IN查询最多的键数
+    private final Cache<K, Optional<V>> cache; // 不存在的键缓存为Optional.empty()
+    private final boolean cacheMissing; // 是否缓存不存在的键
+    private final Counter queries; // 实际执行的查询次数
+    private final DistributionSummary keysPerQuery; // 每次查询的键数
+
+    public BatchLoader(String name, Function<Set<K>, Map<K, V>> query, int maxKeysPerQuery,
+                       Cache<K, Optional<V>> cache, Counter queries, DistributionSummary keysPerQuery) {
+        this(name, query, maxKeysPerQuery, cache, true, queries, keysPerQuery);
+    }
+
+    public BatchLoader(String name, Function<Set<K>, Map<K, V>> query, int maxKeysPerQuery,
+                       Cache<K, Optional<V>> cache, boolean cacheMissing, Counter queries,
+                       DistributionSummary keysPerQuery) {
+        this.name = name;
+        this.cacheMissing = cacheMissing;
+        this.query = query;
+        this.maxKeysPerQuery = Math.max(1, maxKeysPerQuery);
+        this.cache = cache;
+        this.queries = queries;
+        this.keysPerQuery = keysPerQuery;
+    }
+
+    /**
+     * 批量查询一组键。
+     * @param keys 键，null和重复的键会被忽略
+     * @return 存在的键及其查询结果，不存在的键不在结果中
+     */
+    public Map<K, V> loadMany(Collection<K> keys) {
+        Set<K> distinct = new LinkedHashSet<>(keys.size());
+        for (K key : keys) {
+            if (key != null) {
+                distinct.add(key);
+            }
+        }
+        Map<K, Optional<V>> found;
+        if (cacheMissing) {
+            found = cache.getAll(distinct, this::queryMissing);
+        } else {
+            // 只缓存存在的键；缓存中没有的键每次都查询，查询结果中存在的键再写入缓存
+            found = new HashMap<>(cache.getAllPresent(distinct));
+            distinct.removeAll(found.keySet());
+            if (!distinct.isEmpty()) {
+                Map<K, Optional<V>> loaded = queryMissing(distinct);
+                for (Map.Entry<K, Optional<V>> entry : loaded.entrySet()) {
+                    if (entry.getValue().isPresent()) {
+                        cache.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                found.putAll(loaded);
+            }
+        }
+        Map<K, V> result = new HashMap<>(found.size() * 2);
+        for (Map.Entry<K, Optional<V>> entry : found.entrySet()) {
+            entry.getValue().ifPresent(value -> result.put(entry.getKey(), value));
+        }
+        return result;
+    }
+
+    /**
+     * 查询单个键。批次校验应使用{@link #loadMany(Collection)}。
+     * @param key 键
+     * @return 查询结果，不存在时为null
+     */
+    public V load(K key) {
+        return key == null ? null : loadMany(Collections.singleton(key)).get(key);
+    }
+
+    /**
+     * 在当前事务提交后使一组键的缓存失效，没有事务时立即失效。
+     * 导入写入了新数据后调用，避免缓存中"不存在"的结果在过期前继续被使用。
+     * @param keys 键
+     */
+    public void invalidateAfterCommit(Collection<K> keys) {
+        List<K> copy = new ArrayList<>(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidateAll(copy);
+                }
+            });
+        } else {
+            cache.invalidateAll(copy);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchLoader{name='" + name + "', size=" + cache.estimatedSize() + ", stats=" + cache.stats() + '}';
+    }
+
+    /**
+     * 查询缓存中没有的键，每段键执行一次查询；不存在的键也写入结果，缓存为Optional.empty()。
+     */
+    private Map<K, Optional<V>> queryMissing(Iterable<? extends K> missing) {
+        Map<K, Optional<V>> loaded = new HashMap<>();
+        Set<K> chunk = new LinkedHashSet<>();
+        for (K key : missing) {
+            chunk.add(key);
+            if (chunk.size() == maxKeysPerQuery) {
+                queryChunk(chunk, loaded);
+                chunk = new LinkedHashSet<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            queryChunk(chunk, loaded);
+        }
+        return loaded;
+    }
+
+    private void queryChunk(Set<K> chunk, Map<K, Optional<V>> loaded) {
+        Map<K, V> rows = query.apply(chunk);
+        queries.increment();
+        keysPerQuery.record(chunk.size());
+        for (K key : chunk) {
+            loaded.put(key, Optional.ofNullable(rows.get(key)));
+        }
+    }
+}
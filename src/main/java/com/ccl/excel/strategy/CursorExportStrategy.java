@@ -0,0 +1,22 @@
+package com.ccl.excel.strategy;
+
+import org.apache.ibatis.cursor.Cursor;
+
+/**
+ * 基于数据库游标的批量导出策略接口。
+ * 一次查询、逐行读取：不执行COUNT(*)，也没有分页查询，适合单表全量导出。
+ * 使用MySQL时，Mapper方法应配置 fetchSize = Integer.MIN_VALUE 与 FORWARD_ONLY 结果集，
+ * 驱动才会逐行从网络读取结果，而不是把整个结果集加载到内存。
+ *
+ * @param <T> 导出数据对应的实体类型
+ */
+public interface CursorExportStrategy<T> extends BatchExportStrategy<T> {
+
+    /**
+     * 打开导出数据的游标。游标依赖打开它的SqlSession，调用方需要在同一个事务内读取并关闭游标。
+     *
+     * @param methodArgs 原始方法的参数
+     * @return 按导出顺序逐行返回数据的游标
+     */
+    Cursor<T> openCursor(Object... methodArgs);
+}
@@ -0,0 +1,38 @@
+package com.ccl.excel.strategy;
+
+/**
+ * 分页键的一个区间 (lowerExclusive, upperInclusive]。
+ * 边界为null表示该方向不设限制，用于把全表按键值预先切分成若干段并行导出。
+ *
+ * @param <K> 分页键的类型
+ */
+public class KeyRange<K> {
+
+    private final K lowerExclusive; // 下界(不包含)，null表示从头开始
+    private final K upperInclusive; // 上界(包含)，null表示直到末尾
+
+    public KeyRange(K lowerExclusive, K upperInclusive) {
+        this.lowerExclusive = lowerExclusive;
+        this.upperInclusive = upperInclusive;
+    }
+
+    /**
+     * @return 覆盖全部数据的区间
+     */
+    public static <K> KeyRange<K> all() {
+        return new KeyRange<>(null, null);
+    }
+
+    public K getLowerExclusive() {
+        return lowerExclusive;
+    }
+
+    public K getUpperInclusive() {
+        return upperInclusive;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + lowerExclusive + ", " + upperInclusive + "]";
+    }
+}
@@ -0,0 +1,38 @@
+package com.ccl.excel.strategy;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于键值分页(seek)的批量导出策略接口。
+ * 与按偏移量分页不同，每一页都通过"WHERE key > 延续键 ORDER BY key LIMIT n"查询，
+ * 借助索引直接定位起点，每页的代价与所处位置无关，导出总代价随数据量线性增长。
+ *
+ * @param <T> 导出数据对应的实体类型
+ * @param <K> 分页键的类型，必须唯一且有索引，通常为主键
+ */
+public interface KeysetExportStrategy<T, K> extends BatchExportStrategy<T> {
+
+    /**
+     * 获取键值在 (afterKey, upperKey] 区间内、按分页键升序排列的前limit条数据。
+     *
+     * @param afterKey   延续键，只返回键值大于它的数据；null表示从头开始
+     * @param upperKey   上界，只返回键值不大于它的数据；null表示不设上界
+     * @param limit      每页限制数量
+     * @param methodArgs 原始方法的参数
+     * @return 一页数据及下一页的延续键；返回的数据少于limit条时视为该区间已读完
+     */
+    KeysetPage<T, K> fetchAfter(K afterKey, K upperKey, int limit, Object... methodArgs);
+
+    /**
+     * 把全部数据按分页键预先切分成若干个互不重叠、按顺序排列的区间，各区间可以并行查询。
+     * 默认不切分，返回覆盖全部数据的单个区间。
+     *
+     * @param parts      期望的区间数
+     * @param methodArgs 原始方法的参数
+     * @return 按键值升序排列的区间列表
+     */
+    default List<KeyRange<K>> splitKeyRanges(int parts, Object... methodArgs) {
+        return Collections.singletonList(KeyRange.all());
+    }
+}
@@ -0,0 +1,42 @@
+package com.ccl.excel.strategy;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 键值分页查询返回的一页数据。
+ * 除数据本身外还携带延续键，下一页从"键值大于延续键"的位置开始查询。
+ *
+ * @param <T> 导出数据对应的实体类型
+ * @param <K> 分页键的类型
+ */
+public class KeysetPage<T, K> {
+
+    private final List<T> data; // 本页数据，按分页键升序排列
+    private final K nextKey; // 延续键，即本页最后一行的键值；本页为空时为null
+
+    public KeysetPage(List<T> data, K nextKey) {
+        this.data = data == null ? Collections.emptyList() : data;
+        this.nextKey = nextKey;
+    }
+
+    /**
+     * 根据查询结果构建一页数据，延续键取最后一行的键值。
+     * @param data 本页数据，需已按分页键升序排列
+     * @param keyExtractor 从实体中取分页键的方法
+     * @return 一页数据
+     */
+    public static <T, K> KeysetPage<T, K> of(List<T> data, Function<T, K> keyExtractor) {
+        K nextKey = data == null || data.isEmpty() ? null : keyExtractor.apply(data.get(data.size() - 1));
+        return new KeysetPage<>(data, nextKey);
+    }
+
+    public List<T> getData() {
+        return data;
+    }
+
+    public K getNextKey() {
+        return nextKey;
+    }
+}
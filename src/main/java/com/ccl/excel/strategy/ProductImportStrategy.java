@@ -1,21 +1,22 @@
 package com.ccl.excel.strategy;
 
+import com.ccl.excel.config.ExcelRowMapperFactory;
+import com.ccl.excel.constant.BulkInsertMode;
 import com.ccl.excel.pojo.Product;
-import com.ccl.excel.service.impl.ProductServiceImpl;
+import com.ccl.excel.service.BulkInsertService;
+import com.ccl.excel.utils.ColumnBinding;
+import com.ccl.excel.utils.ExcelRow;
+import com.ccl.excel.utils.ExcelRowMapper;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.MessageSource;
-import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.servlet.LocaleResolver;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import java.math.BigDecimal;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * 产品数据导入策略实现。
@@ -25,67 +26,43 @@ import java.util.stream.Collectors;
 @Component
 public class ProductImportStrategy implements BatchImportStrategy<Product> {
 
+    // 产品目录每天整表重新导入，按主键合并：新产品插入，已有产品按主键更新
+    private static final BulkInsertMode INSERT_MODE = BulkInsertMode.UPSERT;
+
     @Resource
-    private ProductServiceImpl productService;
-    @Autowired
-    private MessageSource messageSource;
+    private BulkInsertService bulkInsertService;
 
-    @Override
-    public Product convertRow(Map<String, String> rowData) {
-        // 多语言
-        Locale locale = LocaleContextHolder.getLocale();
-
-        Product product = new Product();
-//        String productId = rowData.get("产品ID");
-        String productId = rowData.get(messageSource.getMessage("product.id",null,  locale));
-//        String productName = rowData.get("产品名称");
-        String productName = rowData.get(messageSource.getMessage("product.name",null,  locale));
-//        String priceStr = rowData.get("价格");
-        String priceStr = rowData.get(messageSource.getMessage("product.price",null,  locale));
-//        String stockStr = rowData.get("库存");
-        String stockStr = rowData.get(messageSource.getMessage("product.stock",null,  locale));
-
-        StringBuilder errorBuilder = new StringBuilder();
-
-        if (productId == null || productId.trim().isEmpty()) {
-            errorBuilder.append("产品ID不能为空; ");
-        }
-        if (productName == null || productName.trim().isEmpty()) {
-            errorBuilder.append("产品名称不能为空; ");
-        }
-        BigDecimal price = null;
-        if (priceStr != null && !priceStr.trim().isEmpty()) {
-            try {
-                price = new BigDecimal(priceStr);
-            } catch (NumberFormatException e) {
-                errorBuilder.append("价格格式不正确; ");
-            }
-        } else {
-            errorBuilder.append("价格不能为空; ");
-        }
-        Integer stock = null;
-        if (stockStr != null && !stockStr.trim().isEmpty()) {
-            try {
-                stock = Integer.parseInt(stockStr);
-            } catch (NumberFormatException e) {
-                errorBuilder.append("库存格式不正确; ");
-            }
-        } else {
-            errorBuilder.append("库存不能为空; ");
-        }
+    @Resource
+    private ExcelRowMapperFactory mapperFactory;
 
-        product.setProductId(productId);
-        product.setProductName(productName);
-        product.setPrice(price);
-        product.setStock(stock);
+    private ExcelRowMapper<Product> mapper; // 按Product上的@ExcelColumn生成，启动时创建
 
-        if (errorBuilder.length() > 0) {
-            product.setImportError(errorBuilder.toString().trim());
-        }
-        return product;
+    @PostConstruct
+    public void init() {
+        mapper = mapperFactory.getMapper(Product.class);
     }
 
+    @Override
+    public String[] getColumnKeys() {
+        return mapper.getColumnKeys();
+    }
+
+    @Override
+    public boolean[] getRequiredColumns() {
+        // 只有@ExcelColumn(required = true)的列在表头中缺少时才终止导入
+        return mapper.getRequiredColumns();
+    }
+
+    @Override
+    public Product convertRow(ExcelRow rowData, ColumnBinding columns) {
+        // 类型转换和必填校验都由映射器完成
+        return mapper.read(rowData, columns);
+    }
 
+    @Override
+    public String getNaturalKey(Product item) {
+        return item.getProductId();
+    }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -115,40 +92,33 @@ public class ProductImportStrategy implements BatchImportStrategy<Product> {
                     failedProducts.add(t2Map(product));
                     log.error("ProductImportStrategy: 导入失败 (业务验证): " + product);
                 } else {
-                    // 模拟成功保存到数据库
+                    // 校验通过的产品才写入数据库
                     log.info("ProductImportStrategy: 成功导入产品: " + product.getProductName());
+                    successProducts.add(product);
                 }
-
-                successProducts.add(product);
             }
             log.info("--- ProductImportStrategy: 批次产品数据导入完成，失败数: " + failedProducts.size() + " ---");
 
             if (!CollectionUtils.isEmpty(successProducts)){
-                productService.saveBatch(successProducts, successProducts.size());
+                bulkInsertService.insert(successProducts, INSERT_MODE);
             }
 
             return failedProducts;
 
-        }catch (Exception e){
+        }catch (RuntimeException e){
             log.error("ProductImportStrategy: 批次产品数据导入异常: " + e.getMessage());
-            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
-            return products.stream().map(this::t2Map).collect(Collectors.toList());
+            // 抛出异常回滚事务，由批次任务拆分重试以找出出错的行
+            throw e;
         }
     }
 
     @Override
     public List<String> getErrorHeaders() {
-        return Arrays.asList("产品ID", "产品名称", "价格", "库存", "失败原因");
+        return mapper.getErrorHeaders();
     }
 
     @Override
     public Map<String, String> t2Map(Product item) {
-        Map<String, String> failedRecord = new LinkedHashMap<>();
-        failedRecord.put("产品ID", item.getProductId());
-        failedRecord.put("产品名称", item.getProductName());
-        failedRecord.put("价格", item.getPrice() != null ? item.getPrice().toString() : "");
-        failedRecord.put("库存", item.getStock() != null ? item.getStock().toString() : "");
-        failedRecord.put("失败原因", item.getImportError());
-        return failedRecord;
+        return mapper.toErrorMap(item);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,106 @@
+package com.ccl.excel.strategy;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.ccl.excel.config.ExcelRowMapperFactory;
+import com.ccl.excel.mapper.UserMapper;
+import com.ccl.excel.pojo.User;
+import com.ccl.excel.utils.ExcelRowMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 用户数据导出策略实现。
+ * 以主键id作为分页键，支持按偏移量分页、按键值分页和数据库游标三种方式。
+ */
+@Slf4j
+@Component("userExportStrategy")
+public class UserExportStrategy implements KeysetExportStrategy<User, String>, CursorExportStrategy<User> {
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private ExcelRowMapperFactory mapperFactory;
+
+    private ExcelRowMapper<User> mapper; // 按User上的@ExcelColumn生成，启动时创建
+
+    @PostConstruct
+    public void init() {
+        mapper = mapperFactory.getMapper(User.class);
+    }
+
+    @Override
+    public long getTotalCount(Object... methodArgs) {
+        return userMapper.selectCount(null);
+    }
+
+    @Override
+    public List<User> fetchDataSegment(long offset, long limit, Object... methodArgs) {
+        return userMapper.selectList(Wrappers.<User>lambdaQuery()
+                .orderByAsc(User::getId)
+                .last("LIMIT " + offset + "," + limit));
+    }
+
+    @Override
+    public KeysetPage<User, String> fetchAfter(String afterKey, String upperKey, int limit, Object... methodArgs) {
+        List<User> users = userMapper.selectList(Wrappers.<User>lambdaQuery()
+                .gt(afterKey != null, User::getId, afterKey)
+                .le(upperKey != null, User::getId, upperKey)
+                .orderByAsc(User::getId)
+                .last("LIMIT " + limit));
+        return KeysetPage.of(users, User::getId);
+    }
+
+    @Override
+    public List<KeyRange<String>> splitKeyRanges(int parts, Object... methodArgs) {
+        long total = getTotalCount(methodArgs);
+        if (parts <= 1 || total < parts) {
+            return KeysetExportStrategy.super.splitKeyRanges(parts, methodArgs);
+        }
+        // 按行数等分，取每个分位点上的id作为区间边界；每次只走一遍id索引，不回表
+        List<KeyRange<String>> ranges = new ArrayList<>(parts);
+        String lower = null;
+        for (int i = 1; i < parts; i++) {
+            long position = total * i / parts - 1;
+            List<Object> ids = userMapper.selectObjs(new QueryWrapper<User>()
+                    .select("id")
+                    .orderByAsc("id")
+                    .last("LIMIT " + position + ",1"));
+            if (ids.isEmpty()) {
+                break;
+            }
+            String upper = String.valueOf(ids.get(0));
+            ranges.add(new KeyRange<>(lower, upper));
+            lower = upper;
+        }
+        ranges.add(new KeyRange<>(lower, null));
+        return ranges;
+    }
+
+    @Override
+    public Cursor<User> openCursor(Object... methodArgs) {
+        return userMapper.streamAll();
+    }
+
+    @Override
+    public List<String> getHeaders() {
+        return mapper.getHeaders();
+    }
+
+    @Override
+    public List<String> convertToRow(User data) {
+        return mapper.toRow(data);
+    }
+
+    @Override
+    public String[] renderRow(User data, String[] cells) {
+        return mapper.render(data, cells);
+    }
+}
@@ -1,17 +1,23 @@
 package com.ccl.excel.strategy;
 
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.ccl.excel.config.BatchLoaderFactory;
+import com.ccl.excel.config.ExcelRowMapperFactory;
+import com.ccl.excel.constant.BulkInsertMode;
+import com.ccl.excel.mapper.UserMapper;
 import com.ccl.excel.pojo.User;
-import com.ccl.excel.service.impl.UserServiceImpl;
+import com.ccl.excel.service.BulkInsertService;
+import com.ccl.excel.utils.ColumnBinding;
+import com.ccl.excel.utils.ExcelRow;
+import com.ccl.excel.utils.ExcelRowMapper;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.MessageSource;
-import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.util.CollectionUtils;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -23,54 +29,66 @@ import java.util.stream.Collectors;
 @Component
 public class UserImportStrategy implements BatchImportStrategy<User> {
 
+    // 用户表只有几个短列，多行INSERT即可把一个批次压缩为少量语句
+    private static final BulkInsertMode INSERT_MODE = BulkInsertMode.MULTI_VALUES;
+
     @Resource
-    private UserServiceImpl userService;
+    private BulkInsertService bulkInsertService;
 
-    @Autowired
-    private MessageSource messageSource;
+    @Resource
+    private ExcelRowMapperFactory mapperFactory;
 
-    @Override
-    public User convertRow(Map<String, String> rowData) {
+    @Resource
+    private BatchLoaderFactory batchLoaderFactory;
 
-        // 多语言
-        Locale locale = LocaleContextHolder.getLocale();
+    @Resource
+    private UserMapper userMapper;
 
-        User user = new User();
-        String name = rowData.get(messageSource.getMessage("user.name",null,  locale));
-        String ageStr = rowData.get(messageSource.getMessage("user.age",null,  locale));
-        String email = rowData.get(messageSource.getMessage("user.email",null,  locale));
+    private ExcelRowMapper<User> mapper; // 按User上的@ExcelColumn生成，启动时创建
+    private BatchLoader<String, String> registeredEmails; // 已注册的邮箱 -> 用户ID，批次和任务之间共享缓存，只缓存已注册的邮箱
 
-        StringBuilder errorBuilder = new StringBuilder();
+    @PostConstruct
+    public void init() {
+        mapper = mapperFactory.getMapper(User.class);
+        // 导入会不断注册新邮箱，"未注册"的结果不缓存，否则并发批次写回的旧结果会让重复的邮箱通过校验
+        registeredEmails = batchLoaderFactory.getLoader("user.email", this::findUserIdsByEmail,
+                16L * 1024 * 1024, Duration.ofMinutes(10), false);
+    }
 
-        // 模拟数据转换和初步验证
-        if (name == null || name.trim().isEmpty()) {
-            errorBuilder.append("姓名不能为空; ");
-        }
-        Integer age = null;
-        if (ageStr != null && !ageStr.trim().isEmpty()) {
-            try {
-                age = Integer.parseInt(ageStr);
-            } catch (NumberFormatException e) {
-                errorBuilder.append("年龄格式不正确; ");
-            }
-        } else {
-            errorBuilder.append("年龄不能为空; ");
-        }
-        if (email == null || email.trim().isEmpty() || !email.contains("@")) {
-            errorBuilder.append("邮箱格式不正确或为空; ");
-        }
+    @Override
+    public String[] getColumnKeys() {
+        return mapper.getColumnKeys();
+    }
 
+    @Override
+    public boolean[] getRequiredColumns() {
+        // 只有@ExcelColumn(required = true)的列在表头中缺少时才终止导入
+        return mapper.getRequiredColumns();
+    }
+
+    @Override
+    public User convertRow(ExcelRow rowData, ColumnBinding columns) {
+        // 类型转换和必填校验由映射器完成，这里只补充业务规则
+        User user = mapper.read(rowData, columns);
         user.setId(UUID.randomUUID().toString());
-        user.setName(name);
-        user.setAge(age);
-        user.setEmail(email);
 
-        if (errorBuilder.length() > 0) {
-            user.setImportError(errorBuilder.toString().trim());
+        String email = user.getEmail();
+        if (email == null || email.trim().isEmpty() || !email.contains("@")) {
+            String error = user.getImportError() != null ? user.getImportError() + " " : "";
+            user.setImportError(error + "邮箱格式不正确或为空;");
         }
         return user;
     }
 
+    /**
+     * 邮箱作为业务主键，开启去重时同一个文件中邮箱相同的行只导入一行。
+     * 邮箱不区分大小写，与数据库的比较规则一致。
+     */
+    @Override
+    public String getNaturalKey(User item) {
+        return item.getEmail() == null ? null : item.getEmail().trim().toLowerCase(Locale.ROOT);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public List<Map<String, String>> importBatch(List<User> users) {
@@ -103,35 +121,63 @@ public class UserImportStrategy implements BatchImportStrategy<User> {
                     successUsers.add(user);
                 }
             }
+
+            // 整个批次的邮箱只查询一次，缓存中已有的邮箱不再查询
+            Map<String, String> registered = registeredEmails.loadMany(
+                    successUsers.stream().map(this::getNaturalKey).collect(Collectors.toList()));
+            if (!registered.isEmpty()) {
+                for (Iterator<User> it = successUsers.iterator(); it.hasNext(); ) {
+                    User user = it.next();
+                    if (registered.containsKey(getNaturalKey(user))) {
+                        failedUsers.add(failedRecord(user, "邮箱已被注册;"));
+                        it.remove();
+                    }
+                }
+            }
+            // 没有开启去重时，至少保证同一个批次中的邮箱不重复
+            Set<String> batchEmails = new HashSet<>();
+            for (Iterator<User> it = successUsers.iterator(); it.hasNext(); ) {
+                User user = it.next();
+                if (!batchEmails.add(getNaturalKey(user))) {
+                    failedUsers.add(failedRecord(user, "邮箱与本批次中的其他行重复;"));
+                    it.remove();
+                }
+            }
             log.info("--- UserImportStrategy: 批次用户数据导入完成，失败数: " + failedUsers.size() + " ---");
 
             // 上面校验检查没有问题之后就只需要对这批次的数据进行导入即可
-            if (!CollectionUtils.isEmpty(successUsers))
-                userService.saveBatch(successUsers, successUsers.size());
+            if (!CollectionUtils.isEmpty(successUsers)) {
+                bulkInsertService.insert(successUsers, INSERT_MODE);
+            }
 
             return failedUsers;
-        } catch (Exception e) {
+        } catch (RuntimeException e) {
             log.error("UserImportStrategy: 批次用户数据导入异常: " + e.getMessage());
-            // 手动回滚事务
-            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            // 抛出异常回滚事务，由批次任务拆分重试以找出出错的行
+            throw e;
+        }
+    }
 
-            return users.stream().map(this::t2Map).collect(Collectors.toList());
+    /**
+     * 一条IN查询找出一组邮箱中已注册的，只查询id和email两列。结果按{@link #getNaturalKey(User)}的形式作为键。
+     */
+    private Map<String, String> findUserIdsByEmail(Set<String> emails) {
+        Map<String, String> userIds = new HashMap<>();
+        for (User user : userMapper.selectList(Wrappers.<User>lambdaQuery()
+                .select(User::getId, User::getEmail)
+                .in(User::getEmail, emails))) {
+            userIds.putIfAbsent(getNaturalKey(user), user.getId());
         }
+        return userIds;
     }
 
     @Override
     public List<String> getErrorHeaders() {
-        return Arrays.asList("ID", "姓名", "年龄", "邮箱", "失败原因");
+        return mapper.getErrorHeaders();
     }
 
     @Override
     public Map<String, String> t2Map(User item) {
-        Map<String, String> map = new LinkedHashMap<>();
-//        map.put("ID", item.getId());
-        map.put("姓名", item.getName());
-        map.put("年龄", item.getAge() != null ? item.getAge().toString() : "");
-        map.put("邮箱", item.getEmail());
-        map.put("失败原因", item.getImportError() != null ? item.getImportError() : "");
-        return map;
+        return mapper.toErrorMap(item);
     }
-}
\ No newline at end of file
+}
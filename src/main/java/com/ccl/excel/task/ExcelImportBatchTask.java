@@ -2,17 +2,32 @@ package com.ccl.excel.task;
 
 import com.ccl.excel.strategy.BatchImportStrategy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.dao.PermissionDeniedDataAccessException;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 /**
  * Excel导入的批处理任务，实现Callable接口，可以在线程池中执行。
- * 每个任务负责导入一个批次的数据，并处理其内部的事务。
+ * 每个任务负责导入一个批次的数据，事务由策略的importBatch管理。
  * 现在它依赖于一个BatchImportStrategy来执行实际的导入逻辑。
+ * <p>
+ * importBatch因数据错误抛出异常(整个批次已回滚)时，把批次对半拆分后分别重试，递归进行，直到子批次成功、
+ * 达到最大拆分深度或不大于最小拆分行数。最终仍然失败的子批次中的行以异常原因记为失败，其余行正常导入。
+ * 连接失败、超时、死锁等与数据无关的异常直接抛出，不拆分也不把行记为失败：拆分只会对故障中的数据库
+ * 发起更多调用，抛出后整个批次不记入检查点，排除故障后可以恢复。
+ * <p>
+ * 设置了事务模板和提交记录器时，每次调用importBatch都在事务模板开启的事务中执行，策略的@Transactional加入该事务；
+ * importBatch返回后在同一个事务中调用提交记录器记录这些行已完成，行数据与检查点一起提交或一起回滚。
  *
  * @param <T> 导入数据的POJO类型
  */
@@ -22,9 +37,14 @@ public class ExcelImportBatchTask<T> implements Callable<List<Map<String, String
     private final List<T> batchData; // 当前批次的数据 (已转换为POJO)
     private final String importJobId; // 导入任务ID
     private final BatchImportStrategy<T> importStrategy; // 导入策略
+    private final int maxRetryDepth; // 最大拆分深度，0表示不拆分重试
+    private final int minRetryChunkSize; // 不大于该行数的子批次不再拆分
+    private final TransactionTemplate transactionTemplate; // 包裹importBatch的事务，为null时由策略自行管理事务
+    private final Consumer<List<T>> commitRecorder; // 在importBatch的事务中记录已完成的(子)批次，可以为null
+    private int retryCount; // 拆分重试额外调用importBatch的次数
 
     /**
-     * 构造函数。
+     * 构造函数，不拆分重试。
      *
      * @param batchData      当前批次的数据 (POJO列表)
      * @param importJobId    导入任务ID
@@ -32,9 +52,44 @@ public class ExcelImportBatchTask<T> implements Callable<List<Map<String, String
      */
     public ExcelImportBatchTask(List<T> batchData, String importJobId,
                                 BatchImportStrategy<T> importStrategy) {
+        this(batchData, importJobId, importStrategy, 0, 1);
+    }
+
+    /**
+     * 构造函数。
+     *
+     * @param batchData         当前批次的数据 (POJO列表)
+     * @param importJobId       导入任务ID
+     * @param importStrategy    导入策略实例
+     * @param maxRetryDepth     批次失败时的最大拆分深度，0表示不拆分重试
+     * @param minRetryChunkSize 不大于该行数的子批次不再拆分
+     */
+    public ExcelImportBatchTask(List<T> batchData, String importJobId, BatchImportStrategy<T> importStrategy,
+                                int maxRetryDepth, int minRetryChunkSize) {
+        this(batchData, importJobId, importStrategy, maxRetryDepth, minRetryChunkSize, null, null);
+    }
+
+    /**
+     * 构造函数，在事务中记录每个提交的(子)批次。
+     *
+     * @param batchData           当前批次的数据 (POJO列表)
+     * @param importJobId         导入任务ID
+     * @param importStrategy      导入策略实例
+     * @param maxRetryDepth       批次失败时的最大拆分深度，0表示不拆分重试
+     * @param minRetryChunkSize   不大于该行数的子批次不再拆分
+     * @param transactionTemplate 包裹importBatch的事务模板
+     * @param commitRecorder      在同一个事务中记录已完成的(子)批次，参数为传给importBatch的列表
+     */
+    public ExcelImportBatchTask(List<T> batchData, String importJobId, BatchImportStrategy<T> importStrategy,
+                                int maxRetryDepth, int minRetryChunkSize, TransactionTemplate transactionTemplate,
+                                Consumer<List<T>> commitRecorder) {
         this.batchData = batchData;
         this.importJobId = importJobId;
         this.importStrategy = importStrategy;
+        this.maxRetryDepth = Math.max(0, maxRetryDepth);
+        this.minRetryChunkSize = Math.max(1, minRetryChunkSize);
+        this.transactionTemplate = transactionTemplate;
+        this.commitRecorder = commitRecorder;
     }
 
     @Override
@@ -42,14 +97,83 @@ public class ExcelImportBatchTask<T> implements Callable<List<Map<String, String
 
         List<Map<String, String>> failedRecords = new ArrayList<>(); // 收集当前批次导入失败的记录
 
-        // 使用TransactionTemplate显式管理事务，确保批次导入的原子性
         log.info(String.format("任务ID: %s - 开始处理批次数据 (大小: %d)", importJobId, batchData.size()));
         // 委托给具体的导入策略执行导入逻辑
-        List<Map<String, String>> currentBatchFailed = importStrategy.importBatch(batchData);
-        if (currentBatchFailed != null) {
-            failedRecords.addAll(currentBatchFailed);
+        importChunk(batchData, 0, failedRecords);
+        if (retryCount > 0) {
+            log.info(String.format("任务ID: %s - 批次拆分重试完成，额外执行 %d 次，失败记录数: %d",
+                    importJobId, retryCount, failedRecords.size()));
         }
         log.info(String.format("任务ID: %s - 批次处理完成，失败记录数: %d", importJobId, failedRecords.size()));
         return failedRecords; // 返回当前批次的失败记录
     }
-}
\ No newline at end of file
+
+    /**
+     * @return 拆分重试额外调用importBatch的次数
+     */
+    public int getRetryCount() {
+        return retryCount;
+    }
+
+    /**
+     * 导入一个(子)批次，失败时拆分重试。
+     * @param chunk 待导入的数据
+     * @param depth 当前拆分深度，原始批次为0
+     * @param failedRecords 收集失败记录
+     */
+    private void importChunk(List<T> chunk, int depth, List<Map<String, String>> failedRecords) throws Exception {
+        try {
+            List<Map<String, String>> currentBatchFailed = importInTransaction(chunk);
+            if (currentBatchFailed != null) {
+                failedRecords.addAll(currentBatchFailed);
+            }
+        } catch (Exception e) {
+            if ((depth == 0 && maxRetryDepth == 0) || !isDataError(e)) {
+                throw e;
+            }
+            if (depth >= maxRetryDepth || chunk.size() <= minRetryChunkSize) {
+                String reason = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                log.warn(String.format("任务ID: %s - %d 行无法继续拆分，记为失败: %s", importJobId, chunk.size(), reason));
+                for (T item : chunk) {
+                    failedRecords.add(importStrategy.failedRecord(item, reason));
+                }
+                return;
+            }
+            int middle = chunk.size() / 2;
+            retryCount += 2;
+            importChunk(chunk.subList(0, middle), depth + 1, failedRecords);
+            importChunk(chunk.subList(middle, chunk.size()), depth + 1, failedRecords);
+        }
+    }
+
+    /**
+     * 调用importBatch；设置了事务模板时在同一个事务中记录该(子)批次已完成。
+     */
+    private List<Map<String, String>> importInTransaction(List<T> chunk) {
+        if (transactionTemplate == null) {
+            return importStrategy.importBatch(chunk);
+        }
+        return transactionTemplate.execute(status -> {
+            List<Map<String, String>> failed = importStrategy.importBatch(chunk);
+            if (commitRecorder != null) {
+                commitRecorder.accept(chunk);
+            }
+            return failed;
+        });
+    }
+
+    /**
+     * 判断异常是否由批次中的数据引起，只有这类异常拆分后才可能让其余行成功。
+     * 非瞬时的数据访问异常(例如违反约束、数据过长)属于数据错误；瞬时异常(超时、死锁)、资源故障(连接失败)、
+     * 权限不足、SQL或API用法错误，以及事务无法开始等非数据访问异常都不是。
+     * @param e importBatch抛出的异常
+     * @return 是否为数据错误
+     */
+    public static boolean isDataError(Exception e) {
+        return e instanceof NonTransientDataAccessException
+                && !(e instanceof NonTransientDataAccessResourceException)
+                && !(e instanceof PermissionDeniedDataAccessException)
+                && !(e instanceof InvalidDataAccessResourceUsageException)
+                && !(e instanceof InvalidDataAccessApiUsageException);
+    }
+}
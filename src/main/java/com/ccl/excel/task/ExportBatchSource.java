@@ -0,0 +1,32 @@
+package com.ccl.excel.task;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 导出数据源：按最终写入Excel的顺序逐批提供已渲染好的行。
+ * 具体实现负责在后台线程中并行查询并通过{@link ExportRowRenderer}渲染，保证返回顺序正确、同时缓存的批次数有界。
+ */
+public interface ExportBatchSource extends AutoCloseable {
+
+    /**
+     * 获取下一批已渲染的行，必要时等待后台查询完成。
+     *
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     * @return 下一批行，写入后应归还给渲染器；所有数据都已返回时为null
+     * @throws java.util.concurrent.TimeoutException 如果等待超时
+     * @throws Exception 如果后台查询失败或等待被中断
+     */
+    RenderedBatch next(long timeout, TimeUnit unit) throws Exception;
+
+    /**
+     * @return 已查询完成、等待写入的批次数
+     */
+    int getBufferedBatches();
+
+    /**
+     * 停止调度新的后台查询。已经开始的查询会自然结束，其结果被丢弃。
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,103 @@
+package com.ccl.excel.task;
+
+import com.ccl.excel.constant.ExportStatus;
+import com.ccl.excel.pojo.ExportJobStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 导出任务的上下文：记录已写入的行数和任务状态，供导出任务状态接口查询。
+ * 已写行数由写入线程(并行生成工作表时为多个生成线程)无锁累加，状态接口通过{@link #snapshot()}读取，
+ * 不加锁也不访问数据库。
+ */
+public class ExportJobContext {
+
+    private final String taskId; // 导出任务ID
+    private final String exportName; // 导出任务的名称
+    private final LocalDateTime startTime; // 开始时间
+    private final AtomicLong rowsWritten = new AtomicLong(); // 已写入的行数
+    private volatile Long totalRecords; // 总记录数，游标模式或尚未统计时为null
+    private volatile ExportStatus status = ExportStatus.PENDING; // 任务状态
+    private volatile LocalDateTime endTime; // 结束时间，未结束时为null
+    private volatile String filePath; // 导出文件路径
+    private volatile String message; // 失败原因
+
+    public ExportJobContext(String taskId, String exportName, LocalDateTime startTime) {
+        this.taskId = taskId;
+        this.exportName = exportName;
+        this.startTime = startTime != null ? startTime : LocalDateTime.now();
+    }
+
+    /**
+     * 标记任务开始执行。
+     * @param totalRecords 总记录数，未知时为null
+     */
+    public void start(Long totalRecords) {
+        this.totalRecords = totalRecords;
+        this.status = ExportStatus.IN_PROGRESS;
+    }
+
+    /**
+     * 标记任务结束。只有第一次调用生效，之后的调用被忽略。
+     * @param status 最终状态
+     * @param filePath 导出文件路径，没有时为null
+     * @param message 失败原因，没有时为null
+     * @return 本次调用是否生效
+     */
+    public synchronized boolean finish(ExportStatus status, String filePath, String message) {
+        if (endTime != null) {
+            return false;
+        }
+        this.filePath = filePath;
+        this.message = message;
+        this.status = status;
+        this.endTime = LocalDateTime.now();
+        return true;
+    }
+
+    /**
+     * @return 任务是否已结束
+     */
+    public boolean isFinished() {
+        return endTime != null;
+    }
+
+    /**
+     * @return 已写入行数的计数器，由写入线程累加
+     */
+    public AtomicLong rowsWrittenCounter() {
+        return rowsWritten;
+    }
+
+    /**
+     * 读取当前进度。
+     * @return 进度快照
+     */
+    public ExportJobStatus snapshot() {
+        LocalDateTime end = endTime;
+        ExportJobStatus snapshot = new ExportJobStatus();
+        snapshot.setTaskId(taskId);
+        snapshot.setExportName(exportName);
+        snapshot.setStatus(status.name());
+        snapshot.setStartTime(startTime);
+        snapshot.setEndTime(end);
+        snapshot.setElapsedMillis(Duration.between(startTime, end != null ? end : LocalDateTime.now()).toMillis());
+        snapshot.setTotalRecords(totalRecords);
+        snapshot.setRowsWritten(rowsWritten.get());
+        snapshot.setFilePath(filePath);
+        snapshot.setMessage(message);
+        return snapshot;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    @Override
+    public String toString() {
+        return "ExportJobContext{taskId='" + taskId + "', status=" + status + ", totalRecords=" + totalRecords
+                + ", rowsWritten=" + rowsWritten.get() + '}';
+    }
+}
@@ -0,0 +1,59 @@
+package com.ccl.excel.task;
+
+import com.ccl.excel.strategy.BatchExportStrategy;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 导出行渲染器：把一批实体通过{@link BatchExportStrategy#renderRow}转换成单元格数组。
+ * 在查询线程上调用，使日期、金额等格式化工作随查询并行进行，写入线程只做序列化。
+ * 渲染结果{@link RenderedBatch}写完后归还到池中复用，池为空时新建、池满时丢弃，不会阻塞。
+ * 线程安全。
+ *
+ * @param <T> 导出数据对应的实体类型
+ */
+public class ExportRowRenderer<T> {
+
+    private final BatchExportStrategy<T> strategy; // 导出策略
+    private final int columns; // 表头列数
+    private final BlockingQueue<RenderedBatch> pool; // 空闲的批次
+
+    /**
+     * 构造函数。
+     * @param strategy 导出策略
+     * @param columns 表头列数，新建行数组的长度
+     * @param poolCapacity 池中最多保留的空闲批次数，与同时在途的批次数相当即可
+     */
+    public ExportRowRenderer(BatchExportStrategy<T> strategy, int columns, int poolCapacity) {
+        this.strategy = strategy;
+        this.columns = Math.max(columns, 1);
+        this.pool = new ArrayBlockingQueue<>(Math.max(poolCapacity, 1));
+    }
+
+    /**
+     * 渲染一批实体。
+     * @param data 实体列表
+     * @return 渲染结果，写入后应通过{@link #release}归还
+     */
+    public RenderedBatch render(List<T> data) {
+        RenderedBatch batch = pool.poll();
+        if (batch == null) {
+            batch = new RenderedBatch(data.size());
+        }
+        batch.reset(data.size());
+        for (int i = 0; i < data.size(); i++) {
+            batch.setRow(i, strategy.renderRow(data.get(i), batch.cells(i, columns)));
+        }
+        return batch;
+    }
+
+    /**
+     * 归还已写入的批次。
+     * @param batch 渲染结果
+     */
+    public void release(RenderedBatch batch) {
+        pool.offer(batch);
+    }
+}
@@ -0,0 +1,56 @@
+package com.ccl.excel.task;
+
+import com.ccl.excel.utils.ColumnBinding;
+import com.ccl.excel.utils.ExcelRow;
+
+import java.util.List;
+
+/**
+ * 导入流水线中流转的一个批次。
+ * 持有解析得到的原始行及其所属工作表的列绑定，由工作线程转换为POJO后入库；
+ * 原始行在批次处理完成后归还到行对象池。
+ * 批次覆盖的行区间从上一个批次之后开始，同一工作表的各批次首尾相接，批次提交时整个区间在同一个事务中记入检查点。
+ */
+public class ImportBatch {
+
+    private final List<ExcelRow> rows; // 解析得到的原始行
+    private final ColumnBinding columns; // 所属工作表的列绑定，策略不需要列绑定时为null
+    private final int sheetIndex; // 所属工作表的索引
+    private final int firstRow; // 覆盖的起始行号(含)，包括之前被跳过的行
+    private final int lastRow; // 覆盖的结束行号(含)，即最后一行的行号
+
+    public ImportBatch(List<ExcelRow> rows, ColumnBinding columns, int sheetIndex, int firstRow) {
+        this.rows = rows;
+        this.columns = columns;
+        this.sheetIndex = sheetIndex;
+        this.firstRow = firstRow;
+        this.lastRow = rows.get(rows.size() - 1).getRowNum();
+    }
+
+    public List<ExcelRow> getRows() {
+        return rows;
+    }
+
+    public ColumnBinding getColumns() {
+        return columns;
+    }
+
+    public int getSheetIndex() {
+        return sheetIndex;
+    }
+
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    public int getLastRow() {
+        return lastRow;
+    }
+
+    /**
+     * @return 批次中的行数
+     */
+    public int size() {
+        return rows.size();
+    }
+}
@@ -0,0 +1,140 @@
+package com.ccl.excel.task;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * 导入任务的检查点：记录每个工作表中已经处理完成(已提交或已记为失败)的行。
+ * <p>
+ * 每个工作表记录连续完成到的最大行号，以及在它之后乱序完成的行区间，相邻或重叠的区间合并，
+ * 前面的行完成后再合并进连续部分。
+ * 导入过程中每个批次在写入数据的事务中插入一条区间(t_import_checkpoint)，恢复时把这些区间合并为检查点，
+ * 以文本形式保存在导入记录中，例如"0:1200,1401-1600;2:800"，表示工作表0连续完成到第1200行，
+ * 另外完成了1401~1600行；工作表2连续完成到第800行。行号与解析时的行号一致(0-based，第0行是表头)。
+ * <p>
+ * 线程安全。
+ */
+public class ImportCheckpoint {
+
+    private final TreeMap<Integer, SheetProgress> sheets = new TreeMap<>(); // 按工作表索引
+
+    /**
+     * 从导入记录中保存的文本恢复检查点。
+     * @param text 检查点文本，为空时返回空检查点
+     * @return 检查点
+     * @throws IllegalArgumentException 如果文本格式不正确
+     */
+    public static ImportCheckpoint parse(String text) {
+        ImportCheckpoint checkpoint = new ImportCheckpoint();
+        if (text == null || text.trim().isEmpty()) {
+            return checkpoint;
+        }
+        try {
+            for (String sheet : text.trim().split(";")) {
+                int colon = sheet.indexOf(':');
+                int sheetIndex = Integer.parseInt(sheet.substring(0, colon));
+                String[] parts = sheet.substring(colon + 1).split(",");
+                SheetProgress progress = checkpoint.progress(sheetIndex);
+                progress.through = Integer.parseInt(parts[0]);
+                for (int i = 1; i < parts.length; i++) {
+                    int dash = parts[i].indexOf('-');
+                    progress.mark(Integer.parseInt(parts[i].substring(0, dash)),
+                            Integer.parseInt(parts[i].substring(dash + 1)));
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("导入检查点格式不正确: " + text, e);
+        }
+        return checkpoint;
+    }
+
+    /**
+     * 记录一个工作表中一段行处理完成。
+     * @param sheetIndex 工作表索引
+     * @param fromRow 起始行号(含)
+     * @param toRow 结束行号(含)
+     */
+    public synchronized void markCommitted(int sheetIndex, int fromRow, int toRow) {
+        progress(sheetIndex).mark(fromRow, toRow);
+    }
+
+    /**
+     * 获取一个工作表当前已完成行的快照，用于恢复导入时跳过这些行。
+     * @param sheetIndex 工作表索引
+     * @return 判断行号是否已完成的谓词，该工作表没有已完成的行时为null
+     */
+    public synchronized IntPredicate committedRows(int sheetIndex) {
+        SheetProgress progress = sheets.get(sheetIndex);
+        if (progress == null || (progress.through <= 0 && progress.ranges.isEmpty())) {
+            return null;
+        }
+        int through = progress.through;
+        TreeMap<Integer, Integer> ranges = new TreeMap<>(progress.ranges);
+        return row -> {
+            if (row <= through) {
+                return true;
+            }
+            Map.Entry<Integer, Integer> range = ranges.floorEntry(row);
+            return range != null && range.getValue() >= row;
+        };
+    }
+
+    /**
+     * @return 保存到导入记录中的文本
+     */
+    public synchronized String format() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Integer, SheetProgress> sheet : sheets.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(';');
+            }
+            sb.append(sheet.getKey()).append(':').append(sheet.getValue().through);
+            for (Map.Entry<Integer, Integer> range : sheet.getValue().ranges.entrySet()) {
+                sb.append(',').append(range.getKey()).append('-').append(range.getValue());
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+
+    private SheetProgress progress(int sheetIndex) {
+        return sheets.computeIfAbsent(sheetIndex, i -> new SheetProgress());
+    }
+
+    /**
+     * 单个工作表的进度。
+     */
+    private static final class SheetProgress {
+        private int through; // 连续完成到的最大行号，表头(第0行)不需要导入，初始为0
+        private final TreeMap<Integer, Integer> ranges = new TreeMap<>(); // 乱序完成的区间：起始行 -> 结束行
+
+        private void mark(int from, int to) {
+            if (to <= through) {
+                return;
+            }
+            from = Math.max(from, through + 1);
+            // 与相邻或重叠的区间合并
+            Map.Entry<Integer, Integer> lower = ranges.floorEntry(from);
+            if (lower != null && lower.getValue() >= from - 1) {
+                from = lower.getKey();
+                to = Math.max(to, lower.getValue());
+                ranges.remove(lower.getKey());
+            }
+            Map.Entry<Integer, Integer> higher;
+            while ((higher = ranges.ceilingEntry(from)) != null && higher.getKey() <= to + 1) {
+                to = Math.max(to, higher.getValue());
+                ranges.remove(higher.getKey());
+            }
+            if (from <= through + 1) {
+                through = to;
+            } else {
+                ranges.put(from, to);
+            }
+        }
+    }
+}
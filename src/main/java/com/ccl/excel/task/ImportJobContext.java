@@ -0,0 +1,180 @@
+package com.ccl.excel.task;
+
+import com.ccl.excel.constant.ImportStatus;
+import com.ccl.excel.pojo.BulkWriteResult;
+import com.ccl.excel.pojo.ImportJobStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 导入任务的上下文：汇总各工作线程的行进度和写入结果。
+ * 导入切面在工作线程处理批次期间把上下文绑定到当前线程，批量写入服务在事务提交后通过{@link #current()}记录结果，
+ * 回滚的批次不会被计入。计数器使用LongAdder，多个解析线程和工作线程并发累加时不互相竞争，
+ * 状态接口通过{@link #snapshot()}读取进度，不加锁也不访问数据库。
+ */
+public class ImportJobContext {
+
+    private static final ThreadLocal<ImportJobContext> CURRENT = new ThreadLocal<>();
+
+    private final String importJobId; // 导入任务ID
+    private final LocalDateTime startTime; // 开始时间
+    private final LongAdder rowsParsed = new LongAdder(); // 已解析并提交到流水线的行数
+    private final LongAdder rowsConverted = new LongAdder(); // 已转换的行数
+    private final LongAdder rowsCommitted = new LongAdder(); // 已成功入库的行数
+    private final LongAdder rowsFailed = new LongAdder(); // 失败的行数(包括重复的行)
+    private final LongAdder inserted = new LongAdder(); // 新插入的行数
+    private final LongAdder updated = new LongAdder(); // 已存在且被更新的行数
+    private final LongAdder unchanged = new LongAdder(); // 已存在且内容相同的行数
+    private final LongAdder retries = new LongAdder(); // 批次拆分重试额外执行importBatch的次数
+    private volatile ImportStatus status = ImportStatus.IN_PROGRESS; // 任务状态
+    private volatile LocalDateTime endTime; // 结束时间，未结束时为null
+    private volatile String failedReportPath; // 失败报告路径
+    private volatile String message; // 失败原因
+
+    public ImportJobContext(String importJobId, LocalDateTime startTime) {
+        this.importJobId = importJobId;
+        this.startTime = startTime != null ? startTime : LocalDateTime.now();
+    }
+
+    /**
+     * @return 绑定到当前线程的导入任务上下文，不在导入任务中时为null
+     */
+    public static ImportJobContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 把上下文绑定到当前线程。
+     * @param context 导入任务上下文，null表示解除绑定
+     * @return 之前绑定的上下文，处理结束后应通过本方法恢复
+     */
+    public static ImportJobContext bind(ImportJobContext context) {
+        ImportJobContext previous = CURRENT.get();
+        if (context == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(context);
+        }
+        return previous;
+    }
+
+    /**
+     * 累加一次写入的结果。
+     * @param result 写入结果
+     */
+    public void record(BulkWriteResult result) {
+        inserted.add(result.getInserted());
+        updated.add(result.getUpdated());
+        unchanged.add(result.getUnchanged());
+    }
+
+    /**
+     * 累加批次拆分重试额外执行importBatch的次数。
+     */
+    public void recordRetries(int count) {
+        retries.add(count);
+    }
+
+    /**
+     * 累加解析并提交到流水线的行数。
+     */
+    public void recordParsed(int rows) {
+        rowsParsed.add(rows);
+    }
+
+    /**
+     * 累加已转换的行数。
+     */
+    public void recordConverted(int rows) {
+        rowsConverted.add(rows);
+    }
+
+    /**
+     * 累加一个批次的处理结果。
+     * @param committed 成功入库的行数
+     * @param failed 失败的行数
+     */
+    public void recordBatch(int committed, int failed) {
+        rowsCommitted.add(committed);
+        rowsFailed.add(failed);
+    }
+
+    /**
+     * 标记任务结束。只有第一次调用生效，之后的调用被忽略。
+     * @param status 最终状态
+     * @param failedReportPath 失败报告路径，没有时为null
+     * @param message 失败原因，没有时为null
+     * @return 本次调用是否生效
+     */
+    public synchronized boolean finish(ImportStatus status, String failedReportPath, String message) {
+        if (endTime != null) {
+            return false;
+        }
+        this.failedReportPath = failedReportPath;
+        this.message = message;
+        this.status = status;
+        this.endTime = LocalDateTime.now();
+        return true;
+    }
+
+    /**
+     * @return 任务是否已结束
+     */
+    public boolean isFinished() {
+        return endTime != null;
+    }
+
+    /**
+     * 读取当前进度。计数器各自求和，并发更新时各项之间可能相差正在处理的批次。
+     * @return 进度快照
+     */
+    public ImportJobStatus snapshot() {
+        LocalDateTime end = endTime;
+        ImportJobStatus snapshot = new ImportJobStatus();
+        snapshot.setImportJobId(importJobId);
+        snapshot.setStatus(status.name());
+        snapshot.setStartTime(startTime);
+        snapshot.setEndTime(end);
+        snapshot.setElapsedMillis(Duration.between(startTime, end != null ? end : LocalDateTime.now()).toMillis());
+        snapshot.setRowsParsed(rowsParsed.sum());
+        snapshot.setRowsConverted(rowsConverted.sum());
+        snapshot.setRowsCommitted(rowsCommitted.sum());
+        snapshot.setRowsFailed(rowsFailed.sum());
+        snapshot.setInsertedCount(getInserted());
+        snapshot.setUpdatedCount(getUpdated());
+        snapshot.setUnchangedCount(getUnchanged());
+        snapshot.setFailedReportPath(failedReportPath);
+        snapshot.setMessage(message);
+        return snapshot;
+    }
+
+    public String getImportJobId() {
+        return importJobId;
+    }
+
+    public long getInserted() {
+        return inserted.sum();
+    }
+
+    public long getUpdated() {
+        return updated.sum();
+    }
+
+    public long getUnchanged() {
+        return unchanged.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ImportJobContext{importJobId='" + importJobId + "', status=" + status
+                + ", parsed=" + rowsParsed.sum() + ", committed=" + rowsCommitted.sum() + ", failed=" + rowsFailed.sum()
+                + ", inserted=" + getInserted()
+                + ", updated=" + getUpdated() + ", unchanged=" + getUnchanged() + ", retries=" + getRetries() + '}';
+    }
+}
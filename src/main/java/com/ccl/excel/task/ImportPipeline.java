@@ -0,0 +1,213 @@
+package com.ccl.excel.task;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 有界的导入流水线：解析线程 -> 有界批次队列 -> N个导入工作线程。
+ * 解析线程只提交原始行，行转换和入库都由工作线程完成，转换随工作线程数并行，不占用解析线程。
+ * <p>
+ * 队列满时解析线程阻塞在{@link #submit}上，因此无论文件多大，同时在内存中的批次数都不会超过
+ * "队列容量 + 工作线程数"。工作线程不会常驻等待队列：有批次入队且活跃工作线程不足N个时才向线程池提交一个
+ * 排空任务，队列为空时排空任务即退出；退出时又有批次入队则由同一个线程继续处理，不重新提交。
+ * <p>
+ * 转换和入库只在线程池的线程上执行，不会由解析线程执行。线程池饱和拒绝排空任务时撤销这次计数，
+ * 批次留在队列中：解析线程在下一次提交时、或阻塞在已满的队列上时定期重新提交排空任务，
+ * {@link #finish()}在没有工作线程时同样等待排空任务提交成功，批次不会滞留。
+ *
+ * @param <B> 批次数据类型
+ */
+@Slf4j
+public class ImportPipeline<B> {
+
+    private static final long WORKER_RETRY_MILLIS = 100; // 没有工作线程时重新提交排空任务的间隔
+
+    private final String importJobId; // 导入任务ID
+    private final BlockingQueue<Slot<B>> queue; // 有界批次队列
+    private final int workerCount; // 最大并发工作线程数
+    private final Executor executor; // 执行排空任务的线程池
+    private final Consumer<B> batchHandler; // 单个批次的处理逻辑
+    private final ImportPipelineMetrics metrics = new ImportPipelineMetrics();
+    private final AtomicInteger activeWorkers = new AtomicInteger(); // 当前活跃的排空任务数
+    private final AtomicLong pendingBatches = new AtomicLong(); // 已提交但尚未处理完成的批次数
+    private final AtomicReference<Throwable> firstError = new AtomicReference<>(); // 批次处理中未被捕获的第一个异常
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private volatile boolean producerFinished; // 解析线程是否已提交完所有批次
+
+    /**
+     * 构造函数。
+     * @param importJobId 导入任务ID
+     * @param maxInFlightBatches 队列中最多等待的批次数
+     * @param workerCount 最大并发工作线程数
+     * @param executor 执行导入任务的线程池，饱和时应抛出RejectedExecutionException
+     * @param batchHandler 单个批次的处理逻辑，应自行处理业务异常
+     */
+    public ImportPipeline(String importJobId, int maxInFlightBatches, int workerCount,
+                          Executor executor, Consumer<B> batchHandler) {
+        this.importJobId = importJobId;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, maxInFlightBatches));
+        this.workerCount = Math.max(1, workerCount);
+        this.executor = executor;
+        this.batchHandler = batchHandler;
+    }
+
+    /**
+     * 提交一个批次。队列已满时阻塞，直到有工作线程取走批次；阻塞期间没有工作线程时定期重新提交排空任务。
+     * 多工作表导入时由多个解析线程并发调用。
+     * @param batch 批次数据
+     * @param rows 批次中的行数，用于统计
+     * @return 因队列已满被阻塞的时间(纳秒)
+     * @throws InterruptedException 如果等待时被中断
+     */
+    public long submit(B batch, int rows) throws InterruptedException {
+        pendingBatches.incrementAndGet();
+        Slot<B> slot = new Slot<>(batch, rows);
+        boolean blocked = false;
+        long blockedNanos = 0;
+        if (!queue.offer(slot)) {
+            blocked = true;
+            long start = System.nanoTime();
+            while (!queue.offer(slot, WORKER_RETRY_MILLIS, TimeUnit.MILLISECONDS)) {
+                startWorkerIfNeeded();
+            }
+            blockedNanos = System.nanoTime() - start;
+        }
+        metrics.recordParsed(rows, blockedNanos, blocked);
+        metrics.recordQueueDepth(queue.size());
+        startWorkerIfNeeded();
+        return blockedNanos;
+    }
+
+    /**
+     * 通知流水线解析已经结束，不会再提交新的批次。
+     */
+    public void finish() {
+        producerFinished = true;
+        metrics.markParseEnd();
+        // 最后的排空任务可能因线程池饱和被拒绝，等到有工作线程接手剩余的批次
+        while (activeWorkers.get() == 0 && !queue.isEmpty()) {
+            startWorkerIfNeeded();
+            if (activeWorkers.get() == 0) {
+                try {
+                    Thread.sleep(WORKER_RETRY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        completeIfDone();
+    }
+
+    /**
+     * @return 所有批次处理完成时完成的Future；存在未捕获的批次异常时以该异常完成
+     */
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    public ImportPipelineMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return 当前队列深度
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void startWorkerIfNeeded() {
+        if (queue.isEmpty() || !tryAcquireWorker()) {
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // 线程池饱和：撤销计数，批次留在队列中，稍后由解析线程重新提交
+            activeWorkers.decrementAndGet();
+            metrics.recordWorkerRejected();
+            log.debug("导入任务 [" + importJobId + "] 排空任务被线程池拒绝，稍后重试");
+        }
+    }
+
+    /**
+     * 活跃工作线程不足N个时占用一个名额。
+     * @return 是否占用成功
+     */
+    private boolean tryAcquireWorker() {
+        while (true) {
+            int active = activeWorkers.get();
+            if (active >= workerCount) {
+                return false;
+            }
+            if (activeWorkers.compareAndSet(active, active + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 排空任务：持续处理队列中的批次，队列为空时退出。
+     * 先释放名额再检查队列：如果退出前又有批次入队，要么提交方看到名额已释放而提交新的排空任务，
+     * 要么当前线程看到队列非空而重新占用名额继续处理。
+     */
+    private void drain() {
+        do {
+            Slot<B> slot;
+            while ((slot = queue.poll()) != null) {
+                handle(slot);
+            }
+            activeWorkers.decrementAndGet();
+        } while (!queue.isEmpty() && tryAcquireWorker());
+    }
+
+    private void handle(Slot<B> slot) {
+        long start = System.nanoTime();
+        try {
+            batchHandler.accept(slot.batch);
+        } catch (Throwable t) {
+            log.error("导入任务 [" + importJobId + "] 批次处理出现未捕获异常: " + t.getMessage(), t);
+            firstError.compareAndSet(null, t);
+        } finally {
+            metrics.recordImported(slot.rows, System.nanoTime() - start);
+            pendingBatches.decrementAndGet();
+            completeIfDone();
+        }
+    }
+
+    private void completeIfDone() {
+        if (producerFinished && pendingBatches.get() == 0 && !completion.isDone()) {
+            metrics.markImportEnd();
+            Throwable error = firstError.get();
+            if (error != null) {
+                completion.completeExceptionally(error);
+            } else {
+                completion.complete(null);
+            }
+        }
+    }
+
+    /**
+     * 队列中的元素：批次数据及其行数。
+     */
+    private static final class Slot<B> {
+        private final B batch;
+        private final int rows;
+
+        private Slot(B batch, int rows) {
+            this.batch = batch;
+            this.rows = rows;
+        }
+    }
+}
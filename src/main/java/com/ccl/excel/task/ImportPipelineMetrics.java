@@ -0,0 +1,129 @@
+package com.ccl.excel.task;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 导入流水线各阶段的统计数据。
+ * 解析阶段：已提交的行数/批次数、因队列已满被阻塞的次数和时长；
+ * 队列：当前深度和最大深度；
+ * 导入阶段：已完成的行数/批次数、工作线程累计处理时长。
+ * 所有计数器都可以被解析线程和工作线程并发更新。
+ */
+public class ImportPipelineMetrics {
+
+    private final long startNanos = System.nanoTime(); // 流水线创建时间
+    private final LongAdder rowsParsed = new LongAdder(); // 解析阶段提交的行数
+    private final LongAdder batchesParsed = new LongAdder(); // 解析阶段提交的批次数
+    private final LongAdder producerBlockedCount = new LongAdder(); // 解析线程因队列已满被阻塞的次数
+    private final LongAdder producerBlockedNanos = new LongAdder(); // 解析线程被阻塞的累计时长
+    private final AtomicInteger maxQueueDepth = new AtomicInteger(); // 队列的最大深度
+    private final LongAdder rowsImported = new LongAdder(); // 导入阶段处理完成的行数
+    private final LongAdder batchesImported = new LongAdder(); // 导入阶段处理完成的批次数
+    private final LongAdder workerBusyNanos = new LongAdder(); // 工作线程处理批次的累计时长
+    private final LongAdder workerRejectedCount = new LongAdder(); // 排空任务被线程池拒绝的次数
+    private volatile long parseEndNanos; // 解析结束时间，0表示尚未结束
+    private volatile long importEndNanos; // 导入结束时间，0表示尚未结束
+
+    void recordParsed(int rows, long blockedNanos, boolean blocked) {
+        rowsParsed.add(rows);
+        batchesParsed.increment();
+        if (blocked) {
+            producerBlockedCount.increment();
+            producerBlockedNanos.add(blockedNanos);
+        }
+    }
+
+    void recordQueueDepth(int depth) {
+        int current;
+        while (depth > (current = maxQueueDepth.get())) {
+            if (maxQueueDepth.compareAndSet(current, depth)) {
+                return;
+            }
+        }
+    }
+
+    void recordImported(int rows, long busyNanos) {
+        rowsImported.add(rows);
+        batchesImported.increment();
+        workerBusyNanos.add(busyNanos);
+    }
+
+    void recordWorkerRejected() {
+        workerRejectedCount.increment();
+    }
+
+    void markParseEnd() {
+        parseEndNanos = System.nanoTime();
+    }
+
+    void markImportEnd() {
+        importEndNanos = System.nanoTime();
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed.sum();
+    }
+
+    public long getBatchesParsed() {
+        return batchesParsed.sum();
+    }
+
+    public long getProducerBlockedCount() {
+        return producerBlockedCount.sum();
+    }
+
+    public long getProducerBlockedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(producerBlockedNanos.sum());
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    public long getRowsImported() {
+        return rowsImported.sum();
+    }
+
+    public long getBatchesImported() {
+        return batchesImported.sum();
+    }
+
+    public long getWorkerRejectedCount() {
+        return workerRejectedCount.sum();
+    }
+
+    public long getWorkerBusyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(workerBusyNanos.sum());
+    }
+
+    /**
+     * @return 解析阶段吞吐量(行/秒)，解析未结束时按当前时间计算
+     */
+    public double getParseRowsPerSecond() {
+        return perSecond(getRowsParsed(), parseEndNanos);
+    }
+
+    /**
+     * @return 导入阶段吞吐量(行/秒)，导入未结束时按当前时间计算
+     */
+    public double getImportRowsPerSecond() {
+        return perSecond(getRowsImported(), importEndNanos);
+    }
+
+    private double perSecond(long rows, long endNanos) {
+        long elapsed = (endNanos == 0 ? System.nanoTime() : endNanos) - startNanos;
+        return elapsed <= 0 ? 0 : rows * 1_000_000_000.0 / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("解析 %d 行/%d 批 (%.0f 行/秒)，解析线程阻塞 %d 次共 %d ms，队列最大深度 %d，"
+                        + "导入 %d 行/%d 批 (%.0f 行/秒)，工作线程累计耗时 %d ms，排空任务被拒绝 %d 次",
+                getRowsParsed(), getBatchesParsed(), getParseRowsPerSecond(),
+                getProducerBlockedCount(), getProducerBlockedMillis(), getMaxQueueDepth(),
+                getRowsImported(), getBatchesImported(), getImportRowsPerSecond(), getWorkerBusyMillis(),
+                getWorkerRejectedCount());
+    }
+}
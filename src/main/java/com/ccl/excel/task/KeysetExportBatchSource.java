@@ -0,0 +1,195 @@
+package com.ccl.excel.task;
+
+import com.ccl.excel.execption.ExcelExportException;
+import com.ccl.excel.strategy.KeyRange;
+import com.ccl.excel.strategy.KeysetExportStrategy;
+import com.ccl.excel.strategy.KeysetPage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 基于键值分页的导出数据源。
+ * <p>
+ * 全部数据被预先切分成若干个按键值排列的区间，每个区间由一个预取器沿"WHERE key > 延续键"逐页向后查询，
+ * 各区间之间并行，查询到的页在预取线程上直接渲染成单元格数组。每个区间最多预取prefetchDepth页，写入线程按区间顺序依次取完每个区间，
+ * 因此输出顺序与键值顺序一致，内存中最多缓存"区间数 × prefetchDepth"页。
+ * <p>
+ * 预取任务从不阻塞等待：缓存已满时不再调度，写入线程取走一页后再补调度。
+ * 即使线程池饱和触发CallerRunsPolicy，由写入线程自己执行查询，也不会互相等待而死锁。
+ *
+ * @param <T> 导出数据对应的实体类型
+ * @param <K> 分页键的类型
+ */
+@Slf4j
+public class KeysetExportBatchSource<T, K> implements ExportBatchSource {
+
+    private final String taskId; // 导出任务ID
+    private final KeysetExportStrategy<T, K> strategy; // 导出策略
+    private final ExportRowRenderer<T> renderer; // 行渲染器
+    private final int batchSize; // 每页数量
+    private final int prefetchDepth; // 每个区间最多预取的页数
+    private final Executor executor; // 执行查询的线程池
+    private final Object[] methodArgs; // 原始方法的参数
+    private final List<RangeFetcher> fetchers; // 按键值顺序排列的区间预取器
+    private int current; // 当前正在读取的区间下标，仅由写入线程访问
+
+    /**
+     * 构造函数，创建后立即开始预取各区间的数据。
+     * @param taskId 导出任务ID
+     * @param strategy 导出策略
+     * @param renderer 行渲染器
+     * @param ranges 按键值升序排列、互不重叠的区间
+     * @param batchSize 每页数量
+     * @param prefetchDepth 每个区间最多预取的页数
+     * @param executor 执行查询的线程池
+     * @param methodArgs 原始方法的参数
+     */
+    public KeysetExportBatchSource(String taskId, KeysetExportStrategy<T, K> strategy, ExportRowRenderer<T> renderer,
+                                   List<KeyRange<K>> ranges, int batchSize, int prefetchDepth, Executor executor,
+                                   Object... methodArgs) {
+        this.taskId = taskId;
+        this.strategy = strategy;
+        this.renderer = renderer;
+        this.batchSize = batchSize;
+        this.prefetchDepth = Math.max(1, prefetchDepth);
+        this.executor = executor;
+        this.methodArgs = methodArgs;
+        this.fetchers = new ArrayList<>(ranges.size());
+        for (KeyRange<K> range : ranges) {
+            fetchers.add(new RangeFetcher(range));
+        }
+        log.info("任务 {} 按键值分页导出，区间: {}", taskId, ranges);
+        for (RangeFetcher fetcher : fetchers) {
+            fetcher.scheduleFetch();
+        }
+    }
+
+    @Override
+    public RenderedBatch next(long timeout, TimeUnit unit) throws Exception {
+        while (current < fetchers.size()) {
+            RenderedBatch batch = fetchers.get(current).take(timeout, unit);
+            if (batch != null) {
+                return batch;
+            }
+            current++;
+        }
+        return null;
+    }
+
+    @Override
+    public int getBufferedBatches() {
+        int buffered = 0;
+        for (RangeFetcher fetcher : fetchers) {
+            buffered += fetcher.bufferedPages();
+        }
+        return buffered;
+    }
+
+    @Override
+    public void close() {
+        for (RangeFetcher fetcher : fetchers) {
+            fetcher.cancel();
+        }
+    }
+
+    /**
+     * 单个区间的预取器。查询在线程池中串行进行，每次从上一页的延续键继续。
+     */
+    private class RangeFetcher {
+
+        private final KeyRange<K> range; // 负责的区间
+        private final Deque<RenderedBatch> buffer = new ArrayDeque<>(); // 已查询并渲染、待写入的页
+        private K nextKey; // 下一次查询的延续键
+        private boolean fetching; // 是否有查询正在进行
+        private boolean exhausted; // 区间是否已读完
+        private boolean cancelled; // 是否已停止调度
+        private Throwable error; // 查询异常
+
+        RangeFetcher(KeyRange<K> range) {
+            this.range = range;
+            this.nextKey = range.getLowerExclusive();
+        }
+
+        /**
+         * 取出下一页，必要时等待。
+         * @return 下一页数据；区间已读完时为null
+         */
+        RenderedBatch take(long timeout, TimeUnit unit) throws Exception {
+            scheduleFetch();
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            RenderedBatch batch;
+            synchronized (this) {
+                while (buffer.isEmpty() && !exhausted && error == null) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new TimeoutException("等待区间 " + range + " 的数据超时");
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+                if (error != null) {
+                    throw new ExcelExportException("查询区间 " + range + " 的数据失败: " + error.getMessage(), error);
+                }
+                batch = buffer.poll();
+            }
+            // 取走一页后缓存有了空位，继续预取
+            scheduleFetch();
+            return batch;
+        }
+
+        void scheduleFetch() {
+            synchronized (this) {
+                if (fetching || exhausted || cancelled || error != null || buffer.size() >= prefetchDepth) {
+                    return;
+                }
+                fetching = true;
+            }
+            executor.execute(this::fetch);
+        }
+
+        private void fetch() {
+            K afterKey;
+            synchronized (this) {
+                afterKey = nextKey;
+            }
+            try {
+                KeysetPage<T, K> page = strategy.fetchAfter(afterKey, range.getUpperInclusive(), batchSize, methodArgs);
+                List<T> data = page.getData();
+                // 渲染在锁外进行，不阻塞写入线程取其他页
+                RenderedBatch rendered = data.isEmpty() ? null : renderer.render(data);
+                synchronized (this) {
+                    if (rendered != null) {
+                        buffer.add(rendered);
+                        nextKey = page.getNextKey();
+                    }
+                    exhausted = data.size() < batchSize;
+                    fetching = false;
+                    notifyAll();
+                }
+            } catch (Throwable t) {
+                log.error("任务 {} 查询区间 {} 异常", taskId, range, t);
+                synchronized (this) {
+                    error = t;
+                    fetching = false;
+                    notifyAll();
+                }
+                return;
+            }
+            scheduleFetch();
+        }
+
+        synchronized int bufferedPages() {
+            return buffer.size();
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.ccl.excel.task;
+
+import com.ccl.excel.execption.ExcelExportException;
+import com.ccl.excel.strategy.BatchExportStrategy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 基于偏移量分页的导出数据源，按页号顺序返回数据。
+ * <p>
+ * 各页在线程池中并行查询并渲染成单元格数组，完成顺序不确定。查询结果放入按页号索引的重排窗口，写入线程总是等待下一个页号，
+ * 因此写入顺序与页号顺序一致，短页(例如查询期间数据被删除)也不会在工作表中留下空行。
+ * 同一时刻最多只有windowSize个页处于查询中或等待写入：第p页被取走后才调度第p+windowSize页，内存有界。
+ * <p>
+ * 查询任务只写入自己的窗口槽位，从不阻塞等待；即使线程池饱和触发CallerRunsPolicy，
+ * 由写入线程自己执行查询，也不会互相等待而死锁。
+ *
+ * @param <T> 导出数据对应的实体类型
+ */
+@Slf4j
+public class OffsetExportBatchSource<T> implements ExportBatchSource {
+
+    private final String taskId; // 导出任务ID
+    private final BatchExportStrategy<T> strategy; // 导出策略
+    private final ExportRowRenderer<T> renderer; // 行渲染器
+    private final long startOffset; // 起始偏移量(包含)
+    private final long endOffset; // 结束偏移量(不包含)
+    private final int pages; // 总页数
+    private final int batchSize; // 每页数量
+    private final Executor executor; // 执行查询的线程池
+    private final Object[] methodArgs; // 原始方法的参数
+    private final PageResult[] window; // 重排窗口，第p页放在 p % windowSize 槽位
+    private int nextPage; // 下一个要返回的页号，仅由写入线程访问
+    private boolean cancelled; // 是否已停止调度
+
+    /**
+     * 构造函数，创建后立即调度窗口内的前windowSize页。
+     * @param taskId 导出任务ID
+     * @param strategy 导出策略
+     * @param renderer 行渲染器
+     * @param total 数据总数
+     * @param batchSize 每页数量
+     * @param windowSize 同时查询或等待写入的最大页数
+     * @param executor 执行查询的线程池
+     * @param methodArgs 原始方法的参数
+     */
+    public OffsetExportBatchSource(String taskId, BatchExportStrategy<T> strategy, ExportRowRenderer<T> renderer,
+                                   long total, int batchSize, int windowSize, Executor executor, Object... methodArgs) {
+        this(taskId, strategy, renderer, 0, total, batchSize, windowSize, executor, methodArgs);
+    }
+
+    /**
+     * 构造函数，只读取[startOffset, endOffset)范围内的数据，用于把一次导出拆分成多个工作表并行生成。
+     * 最后一页的查询数量会截断到endOffset，不会读到下一个范围的数据。
+     * @param taskId 导出任务ID
+     * @param strategy 导出策略
+     * @param renderer 行渲染器
+     * @param startOffset 起始偏移量(包含)
+     * @param endOffset 结束偏移量(不包含)
+     * @param batchSize 每页数量
+     * @param windowSize 同时查询或等待写入的最大页数
+     * @param executor 执行查询的线程池
+     * @param methodArgs 原始方法的参数
+     */
+    public OffsetExportBatchSource(String taskId, BatchExportStrategy<T> strategy, ExportRowRenderer<T> renderer,
+                                   long startOffset, long endOffset, int batchSize, int windowSize, Executor executor,
+                                   Object... methodArgs) {
+        this.taskId = taskId;
+        this.strategy = strategy;
+        this.renderer = renderer;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.pages = (int) Math.ceil((double) Math.max(0, endOffset - startOffset) / batchSize);
+        this.batchSize = batchSize;
+        this.executor = executor;
+        this.methodArgs = methodArgs;
+        this.window = new PageResult[Math.max(1, windowSize)];
+        for (int page = 0; page < Math.min(window.length, pages); page++) {
+            schedule(page);
+        }
+    }
+
+    @Override
+    public RenderedBatch next(long timeout, TimeUnit unit) throws Exception {
+        if (nextPage >= pages) {
+            return null;
+        }
+        int slot = nextPage % window.length;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        PageResult result;
+        synchronized (this) {
+            while (window[slot] == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new TimeoutException("等待第 " + nextPage + " 页数据超时");
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            result = window[slot];
+            window[slot] = null;
+        }
+        if (result.error != null) {
+            throw new ExcelExportException("查询第 " + nextPage + " 页数据失败: " + result.error.getMessage(), result.error);
+        }
+        // 当前页已取走，窗口向后滑动一页
+        int following = nextPage + window.length;
+        nextPage++;
+        if (following < pages) {
+            schedule(following);
+        }
+        return result.data;
+    }
+
+    @Override
+    public synchronized int getBufferedBatches() {
+        int buffered = 0;
+        for (PageResult result : window) {
+            if (result != null) {
+                buffered++;
+            }
+        }
+        return buffered;
+    }
+
+    @Override
+    public synchronized void close() {
+        cancelled = true;
+    }
+
+    private void schedule(int page) {
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+        }
+        executor.execute(() -> fetch(page));
+    }
+
+    private void fetch(int page) {
+        PageResult result;
+        try {
+            long offset = startOffset + (long) page * batchSize;
+            int limit = (int) Math.min(batchSize, endOffset - offset);
+            result = new PageResult(renderer.render(strategy.fetchDataSegment(offset, limit, methodArgs)), null);
+        } catch (Throwable t) {
+            log.error("任务 {} 查询第 {} 页异常", taskId, page, t);
+            result = new PageResult(null, t);
+        }
+        synchronized (this) {
+            window[page % window.length] = result;
+            notifyAll();
+        }
+    }
+
+    /**
+     * 单页的查询结果。
+     */
+    private static final class PageResult {
+        private final RenderedBatch data;
+        private final Throwable error;
+
+        private PageResult(RenderedBatch data, Throwable error) {
+            this.data = data;
+            this.error = error;
+        }
+    }
+}
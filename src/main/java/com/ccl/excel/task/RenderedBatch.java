@@ -0,0 +1,59 @@
+package com.ccl.excel.task;
+
+import java.util.Arrays;
+
+/**
+ * 一批已渲染好的导出行，每行是按列排列的单元格数组。
+ * 由{@link ExportRowRenderer}在查询线程上填充，写入线程按顺序序列化后归还，行数组随批次一起复用。
+ */
+public class RenderedBatch {
+
+    private String[][] rows; // 行数组，容量不小于size
+    private int size; // 本批的行数
+
+    RenderedBatch(int capacity) {
+        this.rows = new String[Math.max(capacity, 1)][];
+    }
+
+    /**
+     * @return 本批的行数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 获取第index行的单元格。数组随批次复用，归还后不能再访问。
+     * @param index 行下标
+     * @return 单元格数组，空单元格为null
+     */
+    public String[] getRow(int index) {
+        return rows[index];
+    }
+
+    /**
+     * 重置批次以容纳size行，保留已分配的行数组。
+     */
+    void reset(int size) {
+        if (size > rows.length) {
+            rows = Arrays.copyOf(rows, size);
+        }
+        this.size = size;
+    }
+
+    /**
+     * 获取第index行可复用的单元格数组，不存在或长度不足时新建。
+     */
+    String[] cells(int index, int columns) {
+        String[] cells = rows[index];
+        if (cells == null || cells.length < columns) {
+            cells = new String[columns];
+            rows[index] = cells;
+        }
+        return cells;
+    }
+
+    void setRow(int index, String[] cells) {
+        rows[index] = cells;
+    }
+}
@@ -0,0 +1,115 @@
+package com.ccl.excel.utils;
+
+import com.ccl.excel.execption.ExcelImportException;
+import org.springframework.context.MessageSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 导入列绑定：把策略需要的列解析为工作表中的列索引。
+ * <p>
+ * 每个导入任务在请求线程上按请求的Locale把列的多语言key解析为列名({@link #resolveNames})，
+ * 每个工作表读到表头后再按列名解析出列索引({@link #bind})，缺少必需的列时立即失败，
+ * 缺少的可选列绑定为-1，读取时按空单元格处理。
+ * 之后的每一行都通过{@link #get(ExcelRow, int)}按列索引直接取值，不再查询MessageSource或按列名查找。
+ * 绑定创建后不可变，可以在多个线程间共享。
+ */
+public final class ColumnBinding {
+
+    private final String[] names; // 按绑定序号排列的列名
+    private final int[] indexes; // 按绑定序号排列的列索引
+
+    private ColumnBinding(String[] names, int[] indexes) {
+        this.names = names;
+        this.indexes = indexes;
+    }
+
+    /**
+     * 按Locale把列的多语言key解析为列名，找不到对应消息的key直接作为列名。
+     * @param messageSource 消息源
+     * @param keys 列的多语言key
+     * @param locale 请求的Locale
+     * @return 与keys一一对应的列名
+     */
+    public static String[] resolveNames(MessageSource messageSource, String[] keys, Locale locale) {
+        String[] names = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            names[i] = messageSource.getMessage(keys[i], null, keys[i], locale);
+        }
+        return names;
+    }
+
+    /**
+     * 按表头解析各列的列索引，所有列都是必需的。
+     * @param header 工作表表头，工作表没有表头时为null
+     * @param names 列名，绑定序号即数组下标
+     * @return 列绑定
+     * @throws ExcelImportException 如果表头中缺少任何一列
+     */
+    public static ColumnBinding bind(ExcelHeader header, String[] names) {
+        return bind(header, names, null);
+    }
+
+    /**
+     * 按表头解析各列的列索引。表头中缺少的可选列绑定为-1。
+     * @param header 工作表表头，工作表没有表头时为null
+     * @param names 列名，绑定序号即数组下标
+     * @param required 与names一一对应，标记各列是否必需；为null时所有列都是必需的
+     * @return 列绑定
+     * @throws ExcelImportException 如果表头中缺少必需的列
+     */
+    public static ColumnBinding bind(ExcelHeader header, String[] names, boolean[] required) {
+        int[] indexes = new int[names.length];
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            indexes[i] = header == null ? -1 : header.indexOf(names[i]);
+            if (indexes[i] < 0 && (required == null || required[i])) {
+                missing.add(names[i]);
+            }
+        }
+        if (header == null && !missing.isEmpty()) {
+            throw new ExcelImportException("工作表缺少表头行，无法绑定列: " + String.join(", ", missing));
+        }
+        if (!missing.isEmpty()) {
+            throw new ExcelImportException("工作表 [" + header.getSheetName() + "] 缺少必需的列: " + String.join(", ", missing));
+        }
+        return new ColumnBinding(names.clone(), indexes);
+    }
+
+    /**
+     * 读取一行中已绑定列的值。
+     * @param row 行数据
+     * @param column 绑定序号，即绑定时列名数组的下标
+     * @return 单元格值，单元格为空或该列未绑定(工作表中缺少的可选列)时返回null
+     */
+    public String get(ExcelRow row, int column) {
+        int index = indexes[column];
+        return index < 0 ? null : row.get(index);
+    }
+
+    /**
+     * @param column 绑定序号
+     * @return 该列在工作表中的列索引 (0-based)，工作表中缺少该列时为-1
+     */
+    public int indexOf(int column) {
+        return indexes[column];
+    }
+
+    /**
+     * @return 绑定的列数
+     */
+    public int size() {
+        return indexes.length;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ColumnBinding{");
+        for (int i = 0; i < names.length; i++) {
+            sb.append(i == 0 ? "" : ", ").append(names[i]).append('=').append(indexes[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,178 @@
+package com.ccl.excel.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 失败记录的流式写入器。
+ * 各导入工作线程产生失败记录后立即追加到这里，数据通过SXSSFWorkbook滚动写入磁盘临时文件，
+ * 内存中只保留最近的少量行，因此无论失败记录有多少，生成错误报告的内存占用都是常量。
+ * 支持设置记录上限和抽样比例：超出上限或未被抽中的记录只计数、不写入报告。
+ * 追加方法是线程安全的。
+ */
+@Slf4j
+public class ErrorReportSink implements Closeable {
+
+    private static final int WINDOW_SIZE = 100; // 内存中保留的行数
+    private static final int MAX_ROWS = 1_048_575; // xlsx单个工作表除表头外的最大行数
+    private static final int MAX_COLUMN_CHARS = 60; // 列宽按内容估算时的上限(字符数)
+
+    private final List<String> headers; // 报告列头
+    private final int maxRows; // 工作表能容纳的记录行数
+    private final long maxRecords; // 最多写入报告的记录数，<=0表示不限制
+    private final int sampleRate; // 抽样比例，每N条失败记录写入1条
+    private final int[] columnChars; // 每列出现过的最大显示宽度，用于代替autoSizeColumn
+    private SXSSFWorkbook workbook; // 首次写入时才创建
+    private SXSSFSheet sheet;
+    private long failedCount; // 收到的失败记录总数
+    private int recordedCount; // 实际写入报告的记录数
+
+    /**
+     * 构造函数。
+     * @param headers 报告的列头，按顺序排列
+     * @param maxRecords 最多写入报告的记录数，<=0表示不限制
+     * @param sampleRate 抽样比例，1表示全部写入，N表示每N条写入1条
+     */
+    public ErrorReportSink(List<String> headers, long maxRecords, int sampleRate) {
+        this(headers, maxRecords, sampleRate, MAX_ROWS);
+    }
+
+    /**
+     * 指定工作表容量的构造函数，测试中用较小的容量验证写满工作表的情况。
+     */
+    ErrorReportSink(List<String> headers, long maxRecords, int sampleRate, int maxRows) {
+        this.headers = headers;
+        this.maxRows = maxRows;
+        this.maxRecords = maxRecords;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.columnChars = new int[headers.size()];
+    }
+
+    /**
+     * 追加一条失败记录。
+     * @param record 失败记录，键为列头
+     */
+    public synchronized void append(Map<String, String> record) {
+        long sequence = failedCount++;
+        if (sequence % sampleRate != 0 || recordedCount >= maxRows
+                || (maxRecords > 0 && recordedCount >= maxRecords)) {
+            return;
+        }
+        if (workbook == null) {
+            createWorkbook();
+        }
+        Row row = sheet.createRow(++recordedCount);
+        for (int i = 0; i < headers.size(); i++) {
+            String value = record.getOrDefault(headers.get(i), "");
+            if (value == null) {
+                value = "";
+            }
+            row.createCell(i).setCellValue(value);
+            columnChars[i] = Math.max(columnChars[i], displayWidth(value));
+        }
+    }
+
+    /**
+     * 追加一批失败记录。
+     * @param records 失败记录集合
+     */
+    public synchronized void appendAll(Collection<Map<String, String>> records) {
+        for (Map<String, String> record : records) {
+            append(record);
+        }
+    }
+
+    /**
+     * @return 收到的失败记录总数(包括未写入报告的)
+     */
+    public synchronized long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * @return 实际写入报告的记录数
+     */
+    public synchronized int getRecordedCount() {
+        return recordedCount;
+    }
+
+    /**
+     * 生成错误报告文件。没有写入任何记录时不生成文件。
+     * @param filePath 生成文件的完整路径
+     * @return 是否生成了文件
+     * @throws IOException 如果写入文件失败
+     */
+    public synchronized boolean writeTo(String filePath) throws IOException {
+        if (workbook == null) {
+            log.info("没有失败记录，无需生成错误报告。");
+            return false;
+        }
+        if (recordedCount < failedCount && recordedCount < maxRows) {
+            // 记录被截断或抽样时，在末尾注明；工作表已写满时没有位置再写说明行
+            Row noteRow = sheet.createRow(recordedCount + 1);
+            noteRow.createCell(0).setCellValue("共 " + failedCount + " 条失败记录，报告中包含 " + recordedCount + " 条");
+        }
+        for (int i = 0; i < columnChars.length; i++) {
+            int chars = Math.min(Math.max(columnChars[i], displayWidth(headers.get(i))) + 2, MAX_COLUMN_CHARS);
+            sheet.setColumnWidth(i, chars * 256);
+        }
+        try (FileOutputStream fileOut = new FileOutputStream(filePath)) {
+            workbook.write(fileOut);
+            log.info("错误报告Excel文件已生成: " + filePath + "，失败记录数: " + failedCount + "，写入记录数: " + recordedCount);
+        }
+        return true;
+    }
+
+    /**
+     * 释放工作簿及其磁盘临时文件。
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (workbook != null) {
+            workbook.dispose();
+            workbook.close();
+            workbook = null;
+        }
+    }
+
+    private void createWorkbook() {
+        workbook = new SXSSFWorkbook(WINDOW_SIZE);
+        workbook.setCompressTempFiles(true);
+        sheet = workbook.createSheet("导入失败报告");
+
+        CellStyle headerStyle = workbook.createCellStyle();
+        Font headerFont = workbook.createFont();
+        headerFont.setBold(true);
+        headerStyle.setFont(headerFont);
+
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < headers.size(); i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(headers.get(i));
+            cell.setCellStyle(headerStyle);
+        }
+    }
+
+    /**
+     * 估算字符串的显示宽度，中日韩等全角字符按2个字符计算。
+     */
+    private static int displayWidth(String value) {
+        int width = 0;
+        for (int i = 0; i < value.length() && width < MAX_COLUMN_CHARS; i++) {
+            width += value.charAt(i) > 0x2E80 ? 2 : 1;
+        }
+        return width;
+    }
+}
@@ -0,0 +1,25 @@
+package com.ccl.excel.utils;
+
+/**
+ * 单元格与字段值之间的转换器。
+ * 实现必须是无状态且线程安全的，同一个实例会被所有导入、导出线程共享。
+ *
+ * @param <T> 字段类型
+ */
+public interface ExcelCellConverter<T> {
+
+    /**
+     * 把单元格文本转换为字段值。
+     * @param cell 单元格文本，不为null也不为空白
+     * @return 字段值
+     * @throws IllegalArgumentException 如果单元格格式不正确
+     */
+    T read(String cell);
+
+    /**
+     * 把字段值转换为单元格文本。
+     * @param value 字段值，不为null
+     * @return 单元格文本
+     */
+    String write(T value);
+}
@@ -0,0 +1,113 @@
+package com.ccl.excel.utils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 内置的单元格转换器，按字段类型选择。
+ */
+public final class ExcelCellConverters {
+
+    private static final Map<Class<?>, ExcelCellConverter<?>> BUILT_IN = new HashMap<>();
+
+    static {
+        register(String.class, new Simple<String>() {
+            @Override
+            public String read(String cell) {
+                return cell;
+            }
+        });
+        ExcelCellConverter<Integer> integer = new Simple<Integer>() {
+            @Override
+            public Integer read(String cell) {
+                return Integer.valueOf(cell.trim());
+            }
+        };
+        register(Integer.class, integer);
+        register(int.class, integer);
+        ExcelCellConverter<Long> longValue = new Simple<Long>() {
+            @Override
+            public Long read(String cell) {
+                return Long.valueOf(cell.trim());
+            }
+        };
+        register(Long.class, longValue);
+        register(long.class, longValue);
+        ExcelCellConverter<Double> doubleValue = new Simple<Double>() {
+            @Override
+            public Double read(String cell) {
+                return Double.valueOf(cell.trim());
+            }
+        };
+        register(Double.class, doubleValue);
+        register(double.class, doubleValue);
+        ExcelCellConverter<Boolean> booleanValue = new Simple<Boolean>() {
+            @Override
+            public Boolean read(String cell) {
+                String value = cell.trim();
+                if ("true".equalsIgnoreCase(value) || "1".equals(value) || "是".equals(value)) {
+                    return Boolean.TRUE;
+                }
+                if ("false".equalsIgnoreCase(value) || "0".equals(value) || "否".equals(value)) {
+                    return Boolean.FALSE;
+                }
+                throw new IllegalArgumentException("无法识别的布尔值: " + cell);
+            }
+        };
+        register(Boolean.class, booleanValue);
+        register(boolean.class, booleanValue);
+        register(BigDecimal.class, new ExcelCellConverter<BigDecimal>() {
+            @Override
+            public BigDecimal read(String cell) {
+                return new BigDecimal(cell.trim());
+            }
+
+            @Override
+            public String write(BigDecimal value) {
+                return value.toPlainString();
+            }
+        });
+        register(LocalDate.class, new Simple<LocalDate>() {
+            @Override
+            public LocalDate read(String cell) {
+                return LocalDate.parse(cell.trim());
+            }
+        });
+        register(LocalDateTime.class, new Simple<LocalDateTime>() {
+            @Override
+            public LocalDateTime read(String cell) {
+                return LocalDateTime.parse(cell.trim());
+            }
+        });
+    }
+
+    private ExcelCellConverters() {
+    }
+
+    /**
+     * 获取字段类型对应的内置转换器。
+     * @param type 字段类型
+     * @return 转换器，不支持的类型返回null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ExcelCellConverter<T> forType(Class<T> type) {
+        return (ExcelCellConverter<T>) BUILT_IN.get(type);
+    }
+
+    private static <T> void register(Class<T> type, ExcelCellConverter<? super T> converter) {
+        BUILT_IN.put(type, converter);
+    }
+
+    /**
+     * 写入时使用toString的转换器。
+     */
+    private abstract static class Simple<T> implements ExcelCellConverter<T> {
+        @Override
+        public String write(T value) {
+            return value.toString();
+        }
+    }
+}
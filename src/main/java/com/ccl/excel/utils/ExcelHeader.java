@@ -0,0 +1,79 @@
+package com.ccl.excel.utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 工作表的表头信息，每个工作表只创建一次，由该工作表的所有行共享。
+ * 保存列名数组以及"列名 -> 列索引"的索引，行数据按列索引存取。
+ */
+public class ExcelHeader {
+
+    private final String sheetName; // 所属工作表名称
+    private final String[] names; // 按列索引排列的列名，未填写的列为null
+    private final Map<String, Integer> indexByName; // 列名 -> 列索引
+
+    public ExcelHeader(String[] names) {
+        this(null, names);
+    }
+
+    public ExcelHeader(String sheetName, String[] names) {
+        this.sheetName = sheetName;
+        this.names = names;
+        this.indexByName = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            // 列名重复时以第一次出现的列为准
+            if (names[i] != null) {
+                indexByName.putIfAbsent(names[i], i);
+            }
+        }
+    }
+
+    /**
+     * 根据列名获取列索引。
+     * @param name 列名
+     * @return 列索引 (0-based)，不存在时返回-1
+     */
+    public int indexOf(String name) {
+        Integer index = indexByName.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * 获取指定列的列名。
+     * @param index 列索引
+     * @return 列名，超出范围或未填写时返回null
+     */
+    public String getName(int index) {
+        return index >= 0 && index < names.length ? names[index] : null;
+    }
+
+    /**
+     * @return 所属工作表名称，未知时为null
+     */
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    /**
+     * @return 表头的列数
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @return 按列索引排列的列名列表(只读)
+     */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(names);
+    }
+}
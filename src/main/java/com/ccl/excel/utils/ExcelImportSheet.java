@@ -0,0 +1,46 @@
+package com.ccl.excel.utils;
+
+import org.apache.poi.openxml4j.opc.PackagePart;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 导入数据源中被选中的一个工作表。
+ * 只持有工作表在Package中的部件，每次调用{@link #openStream()}都会得到一个独立的输入流，
+ * 因此多个工作表可以在不同线程上同时解析。
+ */
+public class ExcelImportSheet {
+
+    private final int index; // 工作表在工作簿中的索引 (0-based)
+    private final String name; // 工作表名称
+    private final PackagePart part; // 工作表部件
+
+    ExcelImportSheet(int index, String name, PackagePart part) {
+        this.index = index;
+        this.name = name;
+        this.part = part;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 打开工作表XML的输入流，使用完毕后必须关闭。
+     * @return 输入流
+     * @throws IOException 如果读取失败
+     */
+    public InputStream openStream() throws IOException {
+        return part.getInputStream();
+    }
+
+    @Override
+    public String toString() {
+        return "ExcelImportSheet{index=" + index + ", name='" + name + "'}";
+    }
+}
@@ -0,0 +1,179 @@
+package com.ccl.excel.utils;
+
+import com.ccl.excel.constant.SharedStringsMode;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Excel导入数据源。
+ * 以只读方式打开导入任务保留的上传文件，整个导入只打开唯一的一个OPCPackage：
+ * ZIP条目按需随机读取，不会把整个文件解压缓冲到堆内存中。
+ * 共享字符串表和工作表流都基于这同一个Package，整个导入过程只解析一次文件。
+ * 共享字符串表的加载方式由{@link SharedStringsMode}决定。
+ * 三种共享字符串表的读取都是线程安全的，可以被多个工作表的解析线程共享。
+ * 关闭时保留文件，供中断的导入任务恢复时再次读取。
+ */
+@Slf4j
+public class ExcelImportSource implements AutoCloseable {
+
+    private static final int MAPPED_CACHE_SIZE = 50000; // MAPPED模式下缓存的字符串条数
+
+    private final OPCPackage pkg; // 只读打开的Package
+    private final XSSFReader xssfReader; // 基于pkg的读取器
+    private final SharedStringsMode sharedStringsMode; // 共享字符串表加载方式
+    private final long mappedThresholdBytes; // AUTO模式下切换到MAPPED的SST大小阈值
+    private SharedStrings sharedStrings; // 共享字符串表，按需加载
+
+    private ExcelImportSource(File file, SharedStringsMode sharedStringsMode, long mappedThresholdBytes) throws Exception {
+        this.sharedStringsMode = sharedStringsMode;
+        this.mappedThresholdBytes = mappedThresholdBytes;
+        this.pkg = OPCPackage.open(file, PackageAccess.READ);
+        try {
+            this.xssfReader = new XSSFReader(pkg);
+        } catch (Exception e) {
+            pkg.revert();
+            throw e;
+        }
+    }
+
+    /**
+     * 打开已经落盘的Excel文件，关闭时不删除该文件。
+     * @param file Excel文件
+     * @param sharedStringsMode 共享字符串表加载方式
+     * @param mappedThresholdBytes AUTO模式下，SST部件(解压后)超过该字节数时使用MAPPED
+     * @return 导入数据源，使用完毕后必须关闭
+     * @throws Exception 如果打开文件失败
+     */
+    public static ExcelImportSource open(File file, SharedStringsMode sharedStringsMode,
+                                         long mappedThresholdBytes) throws Exception {
+        return new ExcelImportSource(file, sharedStringsMode, mappedThresholdBytes);
+    }
+
+    /**
+     * 按选择条件列出要导入的工作表，结果按工作表在工作簿中的顺序排列。
+     * allSheets为false且未指定名称和索引时，只返回第一个工作表。
+     * @param allSheets 是否选择所有工作表
+     * @param sheetNames 按名称选择的工作表
+     * @param sheetIndexes 按索引(0-based)选择的工作表
+     * @return 选中的工作表
+     * @throws Exception 如果读取工作簿失败
+     * @throws IllegalArgumentException 如果指定的工作表不存在
+     */
+    public List<ExcelImportSheet> selectSheets(boolean allSheets, String[] sheetNames, int[] sheetIndexes) throws Exception {
+        List<ExcelImportSheet> sheets = new ArrayList<>();
+        XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+        while (iterator.hasNext()) {
+            // 这里只需要工作表名称和部件，流由解析线程各自重新打开
+            iterator.next().close();
+            sheets.add(new ExcelImportSheet(sheets.size(), iterator.getSheetName(), iterator.getSheetPart()));
+        }
+        if (sheets.isEmpty()) {
+            throw new IllegalArgumentException("Excel文件中没有工作表");
+        }
+        if (allSheets) {
+            return sheets;
+        }
+        if (sheetNames.length == 0 && sheetIndexes.length == 0) {
+            return sheets.subList(0, 1);
+        }
+
+        Set<Integer> selected = new LinkedHashSet<>();
+        for (String sheetName : sheetNames) {
+            int found = -1;
+            for (ExcelImportSheet sheet : sheets) {
+                if (sheet.getName().equals(sheetName)) {
+                    found = sheet.getIndex();
+                    break;
+                }
+            }
+            if (found < 0) {
+                throw new IllegalArgumentException("工作表不存在: " + sheetName);
+            }
+            selected.add(found);
+        }
+        for (int sheetIndex : sheetIndexes) {
+            if (sheetIndex < 0 || sheetIndex >= sheets.size()) {
+                throw new IllegalArgumentException("工作表索引超出范围: " + sheetIndex + "，工作表数: " + sheets.size());
+            }
+            selected.add(sheetIndex);
+        }
+        Integer[] indexes = selected.toArray(new Integer[0]);
+        Arrays.sort(indexes);
+        List<ExcelImportSheet> result = new ArrayList<>(indexes.length);
+        for (Integer index : indexes) {
+            result.add(sheets.get(index));
+        }
+        return result;
+    }
+
+    /**
+     * 获取共享字符串表，首次调用时按配置的方式加载。
+     * @return 共享字符串表
+     * @throws Exception 如果读取失败
+     */
+    public SharedStrings getSharedStrings() throws Exception {
+        if (sharedStrings == null) {
+            sharedStrings = loadSharedStrings();
+        }
+        return sharedStrings;
+    }
+
+    private SharedStrings loadSharedStrings() throws Exception {
+        List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+        PackagePart sstPart = parts.isEmpty() ? null : parts.get(0);
+        SharedStringsMode mode = sharedStringsMode;
+        if (mode == SharedStringsMode.AUTO) {
+            long sstSize = sstPart == null ? 0 : sstPart.getSize();
+            mode = sstSize > mappedThresholdBytes ? SharedStringsMode.MAPPED : SharedStringsMode.READ_ONLY;
+            log.info("共享字符串表大小: " + sstSize + " 字节，自动选择加载方式: " + mode);
+        }
+        if (sstPart == null && mode != SharedStringsMode.READ_ONLY) {
+            // 没有SST部件时，只读表会返回一个空表
+            mode = SharedStringsMode.READ_ONLY;
+        }
+        switch (mode) {
+            case IN_MEMORY:
+                return xssfReader.getSharedStringsTable();
+            case MAPPED:
+                try (InputStream is = sstPart.getInputStream()) {
+                    return new MappedSharedStrings(is, MAPPED_CACHE_SIZE);
+                }
+            case READ_ONLY:
+            default:
+                // 与MAPPED和IN_MEMORY一致，不包含rPh注音文本，单元格的值不随自动选择的加载方式变化
+                return new ReadOnlySharedStringsTable(pkg, false);
+        }
+    }
+
+    /**
+     * 关闭共享字符串表和Package，文件本身保留。
+     * 以只读方式打开，因此使用revert()关闭，不会回写文件。
+     */
+    @Override
+    public void close() {
+        if (sharedStrings instanceof Closeable) {
+            try {
+                ((Closeable) sharedStrings).close();
+            } catch (IOException e) {
+                log.warn("关闭共享字符串表失败: " + e.getMessage());
+            }
+        }
+        pkg.revert();
+    }
+}
@@ -1,7 +1,6 @@
 package com.ccl.excel.utils;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.xssf.eventusermodel.XSSFReader;
 import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
 import org.apache.poi.xssf.model.SharedStrings;
@@ -12,105 +11,158 @@ import org.xml.sax.helpers.XMLReaderFactory;
 
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.IntPredicate;
 
 /**
  * SAX事件模型下的Excel读取监听器，用于高效处理大型.xlsx文件。
  * 实现XSSFSheetXMLHandler.SheetContentsHandler接口，逐行解析数据并按批次处理。
+ * 行数据使用从{@link ExcelRowPool}中复用的{@link ExcelRow}，批次列表直接移交给消费者，不做额外复制。
+ * 监听器保存的是单个工作表的解析状态，每个工作表需要使用独立的实例；
+ * 多个实例可以共享同一个行对象池、共享字符串表和线程安全的消费者，在不同线程上并行解析。
+ * 恢复导入时可以通过{@link #setSkippedRows(IntPredicate)}跳过已完成的行：这些行的单元格不读取，也不占用行对象。
  */
 @Slf4j
 public class ExcelReadListener implements XSSFSheetXMLHandler.SheetContentsHandler {
 
     private final int batchSize; // 批处理大小
-    private final Consumer<List<Map<String, String>>> batchConsumer; // 批处理数据消费者
-    private List<Map<String, String>> currentBatch; // 当前批次的数据
-    private Map<String, String> currentRow; // 当前行的数据
-    private int currentRowNum; // 当前行号
-    private List<String> header; // 表头信息
+    private final Consumer<List<ExcelRow>> batchConsumer; // 批处理数据消费者
+    private final Consumer<ExcelHeader> headerConsumer; // 表头消费者，读到表头时调用
+    private final ExcelRowPool rowPool; // 行对象池
+    private List<ExcelRow> currentBatch; // 当前批次的数据
+    private ExcelRow currentRow; // 当前行的数据
+    private ExcelHeader header; // 表头信息
+    private String sheetName; // 正在解析的工作表名称
+    private IntPredicate skippedRows; // 需要跳过的数据行，为null时不跳过
 
     /**
      * 构造函数。
      * @param batchSize 批处理大小
-     * @param batchConsumer 批处理数据消费者，当收集到一批数据时调用
+     * @param rowPool 行对象池，消费者处理完一个批次后应把行归还到该池
+     * @param batchConsumer 批处理数据消费者，当收集到一批数据时调用，批次列表的所有权随之转移
      */
-    public ExcelReadListener(int batchSize, Consumer<List<Map<String, String>>> batchConsumer) {
+    public ExcelReadListener(int batchSize, ExcelRowPool rowPool, Consumer<List<ExcelRow>> batchConsumer) {
+        this(batchSize, rowPool, header -> { }, batchConsumer);
+    }
+
+    /**
+     * 构造函数。
+     * @param batchSize 批处理大小
+     * @param rowPool 行对象池，消费者处理完一个批次后应把行归还到该池
+     * @param headerConsumer 表头消费者，在第一个批次之前调用；抛出异常时解析立即终止
+     * @param batchConsumer 批处理数据消费者，当收集到一批数据时调用，批次列表的所有权随之转移
+     */
+    public ExcelReadListener(int batchSize, ExcelRowPool rowPool, Consumer<ExcelHeader> headerConsumer,
+                             Consumer<List<ExcelRow>> batchConsumer) {
         this.batchSize = batchSize;
+        this.rowPool = rowPool;
+        this.headerConsumer = headerConsumer;
         this.batchConsumer = batchConsumer;
         this.currentBatch = new ArrayList<>(batchSize); // 预分配容量
-        this.currentRowNum = -1; // 从-1开始，因为第一行是表头
     }
 
     /**
      * 处理Excel文件。
-     * @param xlsxFileStream Excel文件的输入流
+     * 工作表流与共享字符串表来自同一个已打开的Package，不会重复解析文件。
+     * @param xssfReader 已打开Package的读取器
      * @param sharedStringsTable 共享字符串表
      * @throws Exception 如果处理过程中发生错误
      */
-    public void process(InputStream xlsxFileStream, SharedStrings sharedStringsTable) throws Exception {
-        OPCPackage pkg = OPCPackage.open(xlsxFileStream);
-        XSSFReader xssfReader = new XSSFReader(pkg);
-        XMLReader parser = XMLReaderFactory.createXMLReader("org.apache.xerces.parsers.SAXParser");
+    public void process(XSSFReader xssfReader, SharedStrings sharedStringsTable) throws Exception {
+        // 获取第一个工作表的输入流并解析
+        XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+        try (InputStream sheet = sheets.next()) {
+            process(sheet, sheets.getSheetName(), sharedStringsTable);
+        }
+    }
 
-        // 获取第一个工作表的输入流
-        InputStream sheet2 = xssfReader.getSheetsData().next();
-        InputSource sheetSource = new InputSource(sheet2);
+    /**
+     * 解析一个工作表，解析出的行都会标记所属工作表名称。
+     * @param sheet 工作表XML输入流，由调用方负责关闭
+     * @param sheetName 工作表名称
+     * @param sharedStringsTable 共享字符串表
+     * @throws Exception 如果处理过程中发生错误
+     */
+    public void process(InputStream sheet, String sheetName, SharedStrings sharedStringsTable) throws Exception {
+        this.sheetName = sheetName;
+        XMLReader parser = XMLReaderFactory.createXMLReader("org.apache.xerces.parsers.SAXParser");
 
         // 创建SheetContentsHandler，并将其与XMLReader关联
         XSSFSheetXMLHandler handler = new XSSFSheetXMLHandler(null, sharedStringsTable, this, false);
         parser.setContentHandler(handler);
-
-        // 解析工作表
-        parser.parse(sheetSource);
-
-        sheet2.close();
-        pkg.close();
+        parser.parse(new InputSource(sheet));
 
         // 处理剩余的不足一个批次的数据
         if (!currentBatch.isEmpty()) {
-            batchConsumer.accept(new ArrayList<>(currentBatch)); // 传递副本
-            currentBatch.clear();
+            emitBatch();
         }
     }
 
+    /**
+     * 设置需要跳过的数据行，表头行总会读取。
+     * @param skippedRows 按行号(0-based)判断是否跳过，为null时不跳过
+     */
+    public void setSkippedRows(IntPredicate skippedRows) {
+        this.skippedRows = skippedRows;
+    }
+
+    /**
+     * @return 表头信息，尚未读到表头时为null
+     */
+    public ExcelHeader getHeader() {
+        return header;
+    }
+
     @Override
     public void startRow(int rowNum) {
-        this.currentRowNum = rowNum;
-        this.currentRow = new LinkedHashMap<>(); // 使用LinkedHashMap保持列顺序
+        if (rowNum > 0 && skippedRows != null && skippedRows.test(rowNum)) {
+            return;
+        }
+        this.currentRow = rowPool.acquire(header, rowNum);
     }
 
     @Override
     public void endRow(int rowNum) {
+        if (currentRow == null) { // 跳过的行
+            return;
+        }
         if (rowNum == 0) { // 第一行是表头
-            this.header = new ArrayList<>(currentRow.values());
-            log.info("Excel表头: " + header);
+            this.header = new ExcelHeader(sheetName, currentRow.toArray());
+            rowPool.release(currentRow);
+            log.info("Excel表头 [" + sheetName + "]: " + header);
+            headerConsumer.accept(header);
         } else {
             // 将当前行数据添加到批次中
-            currentBatch.add(new LinkedHashMap<>(currentRow)); // 传递副本
+            currentBatch.add(currentRow);
             if (currentBatch.size() >= batchSize) {
-                batchConsumer.accept(new ArrayList<>(currentBatch)); // 传递副本
-                currentBatch.clear();
+                emitBatch();
             }
         }
+        currentRow = null;
     }
 
     @Override
     public void cell(String cellReference, String formattedValue, XSSFComment comment) {
         // 获取列索引，例如 A1 -> 0, B1 -> 1
+        if (currentRow == null) { // 跳过的行
+            return;
+        }
         int colIndex = getColumnIndex(cellReference);
         if (colIndex >= 0) {
-            if (currentRowNum == 0) { // 表头行，存储列名
-                currentRow.put(String.valueOf(colIndex), formattedValue);
-            } else if (header != null && colIndex < header.size()) { // 数据行，使用表头作为键
-                currentRow.put(header.get(colIndex), formattedValue);
-            } else { // 如果没有表头或者列索引超出表头范围，使用列索引作为键
-                currentRow.put(String.valueOf(colIndex), formattedValue);
-            }
+            currentRow.set(colIndex, formattedValue);
         }
     }
 
+    /**
+     * 把当前批次移交给消费者，并为下一批次创建新列表。
+     */
+    private void emitBatch() {
+        List<ExcelRow> batch = currentBatch;
+        currentBatch = new ArrayList<>(batchSize);
+        batchConsumer.accept(batch);
+    }
+
 //    @Override
 //    public void headerFooter(String text, boolean is  Header, String tagName) {
 //        // 不处理页眉页脚
@@ -121,12 +173,15 @@ public class ExcelReadListener implements XSSFSheetXMLHandler.SheetContentsHandl
      * @param cellReference 单元格引用字符串
      * @return 列索引 (0-based)
      */
-    private int getColumnIndex(String cellReference) {
-        String colRef = cellReference.replaceAll("\\d", ""); // 移除数字部分
+    static int getColumnIndex(String cellReference) {
         int colIndex = -1;
-        for (char c : colRef.toCharArray()) {
+        for (int i = 0; i < cellReference.length(); i++) {
+            char c = cellReference.charAt(i);
+            if (c < 'A' || c > 'Z') { // 遇到行号部分即结束
+                break;
+            }
             colIndex = (colIndex + 1) * 26 + (c - 'A');
         }
         return colIndex;
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,7 @@
 package com.ccl.excel.utils;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
@@ -17,6 +14,8 @@ public class ExcelReportGenerator {
 
     /**
      * 生成包含失败记录的Excel文件。
+     * 内部使用{@link ErrorReportSink}流式写入，导入过程中应直接使用ErrorReportSink边产生边写入，
+     * 避免先把所有失败记录收集到内存中。
      * @param failedRecords 失败的记录列表，每个Map代表一行数据
      * @param filePath 生成文件的完整路径
      * @param headers 报告的列头，按顺序排列
@@ -29,43 +28,9 @@ public class ExcelReportGenerator {
             return;
         }
 
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("导入失败报告");
-
-        // 创建表头
-        Row headerRow = sheet.createRow(0);
-        int colNum = 0;
-        for (String header : headers) {
-            Cell cell = headerRow.createCell(colNum++);
-            cell.setCellValue(header);
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-            cell.setCellStyle(headerStyle);
-        }
-
-        // 填充数据
-        int rowNum = 1;
-        for (Map<String, String> rowData : failedRecords) {
-            Row row = sheet.createRow(rowNum++);
-            colNum = 0;
-            for (String header : headers) {
-                Cell cell = row.createCell(colNum++);
-                cell.setCellValue(rowData.getOrDefault(header, ""));
-            }
-        }
-
-        // 自动调整列宽
-        for (int i = 0; i < headers.size(); i++) {
-            sheet.autoSizeColumn(i);
-        }
-
-        try (FileOutputStream fileOut = new FileOutputStream(filePath)) {
-            workbook.write(fileOut);
-            log.info("错误报告Excel文件已生成: " + filePath);
-        } finally {
-            workbook.close();
+        try (ErrorReportSink sink = new ErrorReportSink(headers, 0, 1)) {
+            sink.appendAll(failedRecords);
+            sink.writeTo(filePath);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,120 @@
+package com.ccl.excel.utils;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 从Excel读取的一行数据。
+ * 单元格按列索引存放在扁平的String数组中，列名通过同一工作表共享的{@link ExcelHeader}解析，
+ * 不再为每一行创建Map和Entry对象。行对象由{@link ExcelRowPool}复用，
+ * 归还到池中之后不能再被访问，使用方如需保留数据必须自行复制。
+ */
+public class ExcelRow {
+
+    private ExcelHeader header; // 所属工作表的表头
+    private String[] cells; // 按列索引存放的单元格值
+    private int width; // 已写入的最大列索引+1
+    private int rowNum; // 在工作表中的行号 (0-based)
+
+    ExcelRow(int initialWidth) {
+        this.cells = new String[Math.max(initialWidth, 1)];
+    }
+
+    /**
+     * 重置行对象以便复用。
+     * @param header 表头，表头行本身为null
+     * @param rowNum 行号
+     */
+    void reset(ExcelHeader header, int rowNum) {
+        Arrays.fill(cells, 0, width, null);
+        this.header = header;
+        this.rowNum = rowNum;
+        this.width = 0;
+    }
+
+    /**
+     * 写入单元格值，必要时扩容。
+     * @param index 列索引
+     * @param value 单元格值
+     */
+    void set(int index, String value) {
+        if (index >= cells.length) {
+            cells = Arrays.copyOf(cells, Math.max(index + 1, cells.length * 2));
+        }
+        cells[index] = value;
+        if (index >= width) {
+            width = index + 1;
+        }
+    }
+
+    /**
+     * 按列索引读取单元格值。
+     * @param index 列索引 (0-based)
+     * @return 单元格值，单元格为空或索引越界时返回null
+     */
+    public String get(int index) {
+        return index >= 0 && index < width ? cells[index] : null;
+    }
+
+    /**
+     * 按列名读取单元格值。
+     * 需要反复读取同一列时，应先通过{@link ExcelHeader#indexOf(String)}解析出列索引再调用{@link #get(int)}。
+     * @param name 列名
+     * @return 单元格值，列不存在时返回null
+     */
+    public String get(String name) {
+        return header == null ? null : get(header.indexOf(name));
+    }
+
+    public ExcelHeader getHeader() {
+        return header;
+    }
+
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    /**
+     * @return 所属工作表名称，表头行为null
+     */
+    public String getSheetName() {
+        return header == null ? null : header.getSheetName();
+    }
+
+    /**
+     * @return 已写入的列数
+     */
+    public int size() {
+        return width;
+    }
+
+    /**
+     * 转换为"列名 -> 值"的Map，兼容基于Map的旧接口。
+     * 超出表头范围的列以列索引字符串作为键。
+     * @return 保持列顺序的Map副本
+     */
+    public Map<String, String> toMap() {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < width; i++) {
+            if (cells[i] == null) {
+                continue;
+            }
+            String name = header == null ? null : header.getName(i);
+            map.put(name != null ? name : String.valueOf(i), cells[i]);
+        }
+        return map;
+    }
+
+    /**
+     * @return 已写入列的值数组副本
+     */
+    String[] toArray() {
+        return Arrays.copyOf(cells, width);
+    }
+
+    @Override
+    public String toString() {
+        return "ExcelRow{rowNum=" + rowNum + ", cells=" + Arrays.toString(toArray()) + '}';
+    }
+}
@@ -0,0 +1,332 @@
+package com.ccl.excel.utils;
+
+import com.ccl.excel.annotion.ExcelColumn;
+import com.ccl.excel.pojo.ExcelImportEntity;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 根据{@link ExcelColumn}注解生成的行映射器，负责导入行转换、导出行渲染和错误报告三种用途。
+ * <p>
+ * 创建时通过{@link LambdaMetafactory}为构造函数以及每个字段的getter、setter生成函数对象，
+ * 之后每行的读写都是普通的接口调用，没有反射，也不会逐行查询MessageSource：
+ * 列头按Locale解析一次后缓存。映射器不可变，可以在多个线程间共享。
+ *
+ * @param <T> POJO类型
+ */
+public final class ExcelRowMapper<T> {
+
+    private final Class<T> type; // POJO类型
+    private final Supplier<T> constructor; // 无参构造函数
+    private final Column[] columns; // 全部列，按列顺序排列
+    private final Column[] importColumns; // 导入列，下标即列绑定中的序号
+    private final MessageSource messageSource; // 解析多语言列头
+    private final Map<Locale, String[]> headersByLocale = new ConcurrentHashMap<>(); // 按Locale缓存的列头
+
+    private ExcelRowMapper(Class<T> type, Supplier<T> constructor, Column[] columns, MessageSource messageSource) {
+        this.type = type;
+        this.constructor = constructor;
+        this.columns = columns;
+        this.importColumns = Arrays.stream(columns).filter(column -> column.importable).toArray(Column[]::new);
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * 为POJO类型生成行映射器。
+     * @param type POJO类型，需要有公共的无参构造函数，带注解的字段需要有公共的getter和setter
+     * @param messageSource 解析多语言列头的消息源
+     * @param converterFactory 创建自定义转换器的工厂
+     * @return 行映射器
+     * @throws IllegalStateException 如果类型中没有带注解的字段或无法生成访问器
+     */
+    public static <T> ExcelRowMapper<T> create(Class<T> type, MessageSource messageSource,
+                                               Function<Class<? extends ExcelCellConverter>, ExcelCellConverter<?>> converterFactory) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            List<Field> declared = new ArrayList<>();
+            for (Field field : c.getDeclaredFields()) {
+                if (field.isAnnotationPresent(ExcelColumn.class)) {
+                    declared.add(field);
+                }
+            }
+            fields.addAll(0, declared); // 父类的字段排在前面
+        }
+        if (fields.isEmpty()) {
+            throw new IllegalStateException(type.getName() + " 中没有带 @ExcelColumn 注解的字段");
+        }
+        // 指定了顺序的列按顺序排列，未指定的按声明顺序排在后面(稳定排序)
+        fields.sort(Comparator.comparingInt(field -> {
+            int index = field.getAnnotation(ExcelColumn.class).index();
+            return index < 0 ? Integer.MAX_VALUE : index;
+        }));
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Column[] columns = new Column[fields.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = createColumn(lookup, type, fields.get(i), i, converterFactory);
+        }
+        try {
+            MethodHandle handle = lookup.findConstructor(type, MethodType.methodType(void.class));
+            Supplier<T> constructor = lambda(lookup, Supplier.class, "get", MethodType.methodType(Object.class),
+                    handle, MethodType.methodType(type));
+            return new ExcelRowMapper<>(type, constructor, columns, messageSource);
+        } catch (Throwable e) {
+            throw new IllegalStateException("无法为 " + type.getName() + " 生成构造函数: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return 导入列的多语言key，下标即列绑定中的序号，可直接作为{@code BatchImportStrategy#getColumnKeys()}的返回值
+     */
+    public String[] getColumnKeys() {
+        String[] keys = new String[importColumns.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = importColumns[i].key;
+        }
+        return keys;
+    }
+
+    /**
+     * @return 与{@link #getColumnKeys()}一一对应，标记各列是否必需(即{@link ExcelColumn#required()})，
+     * 可直接作为{@code BatchImportStrategy#getRequiredColumns()}的返回值
+     */
+    public boolean[] getRequiredColumns() {
+        boolean[] required = new boolean[importColumns.length];
+        for (int i = 0; i < required.length; i++) {
+            required[i] = importColumns[i].required;
+        }
+        return required;
+    }
+
+    /**
+     * 按当前线程的Locale获取全部列的列头。
+     * @return 按列顺序排列的列头
+     */
+    public List<String> getHeaders() {
+        return Collections.unmodifiableList(Arrays.asList(headers()));
+    }
+
+    /**
+     * 按已绑定的列把一行数据转换为POJO。
+     * 空单元格不赋值(字符串字段除外)，必填列为空或单元格格式不正确时，
+     * 错误信息写入{@link ExcelImportEntity#setImportError}，其余列照常转换。
+     * @param row 行数据
+     * @param binding 本工作表的列绑定，按{@link #getColumnKeys()}绑定
+     * @return 转换后的POJO
+     */
+    public T read(ExcelRow row, ColumnBinding binding) {
+        T item = constructor.get();
+        StringBuilder errors = null;
+        for (int i = 0; i < importColumns.length; i++) {
+            Column column = importColumns[i];
+            String cell = binding.get(row, i);
+            if (cell == null || cell.trim().isEmpty()) {
+                if (column.string) {
+                    column.setter.accept(item, cell);
+                }
+                if (column.required) {
+                    errors = appendError(errors, column, "不能为空; ");
+                }
+                continue;
+            }
+            try {
+                column.setter.accept(item, column.converter.read(cell));
+            } catch (RuntimeException e) {
+                errors = appendError(errors, column, "格式不正确; ");
+            }
+        }
+        if (errors != null && item instanceof ExcelImportEntity) {
+            ((ExcelImportEntity) item).setImportError(errors.toString().trim());
+        }
+        return item;
+    }
+
+    /**
+     * 把POJO渲染到复用的单元格数组中，用于导出。
+     * @param item POJO
+     * @param cells 可复用的单元格数组
+     * @return 填充好的单元格数组，列数超过cells长度时返回新数组
+     */
+    public String[] render(T item, String[] cells) {
+        if (cells.length < columns.length) {
+            cells = new String[columns.length];
+        }
+        for (int i = 0; i < columns.length; i++) {
+            cells[i] = columns[i].write(item);
+        }
+        Arrays.fill(cells, columns.length, cells.length, null);
+        return cells;
+    }
+
+    /**
+     * @param item POJO
+     * @return 按列顺序排列的单元格文本，空值为空字符串
+     */
+    public List<String> toRow(T item) {
+        List<String> row = new ArrayList<>(columns.length);
+        for (Column column : columns) {
+            String value = column.write(item);
+            row.add(value != null ? value : "");
+        }
+        return row;
+    }
+
+    /**
+     * 按当前线程的Locale获取错误报告的列头：工作表、行号、全部列、失败原因。
+     * @return 错误报告列头
+     */
+    public List<String> getErrorHeaders() {
+        List<String> headers = new ArrayList<>(columns.length + 3);
+        headers.add(ExcelImportEntity.SHEET_COLUMN);
+        headers.add(ExcelImportEntity.ROW_COLUMN);
+        headers.addAll(Arrays.asList(headers()));
+        headers.add(ExcelImportEntity.ERROR_COLUMN);
+        return headers;
+    }
+
+    /**
+     * 把POJO转换为错误报告的一条记录，键与{@link #getErrorHeaders()}一致。
+     * @param item POJO
+     * @return 失败记录
+     */
+    public Map<String, String> toErrorMap(T item) {
+        String[] headers = headers();
+        Map<String, String> map = new LinkedHashMap<>();
+        ExcelImportEntity entity = item instanceof ExcelImportEntity ? (ExcelImportEntity) item : null;
+        if (entity != null) {
+            map.put(ExcelImportEntity.SHEET_COLUMN, entity.getSheetName());
+            map.put(ExcelImportEntity.ROW_COLUMN, entity.getRowNum() != null ? entity.getRowNum().toString() : "");
+        }
+        for (int i = 0; i < columns.length; i++) {
+            String value = columns[i].write(item);
+            map.put(headers[i], value != null ? value : "");
+        }
+        if (entity != null) {
+            map.put(ExcelImportEntity.ERROR_COLUMN, entity.getImportError() != null ? entity.getImportError() : "");
+        }
+        return map;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * 当前线程Locale下的列头，每个Locale只解析一次。
+     */
+    private String[] headers() {
+        return headersByLocale.computeIfAbsent(LocaleContextHolder.getLocale(), locale -> {
+            String[] headers = new String[columns.length];
+            for (int i = 0; i < headers.length; i++) {
+                headers[i] = messageSource.getMessage(columns[i].key, null, columns[i].key, locale);
+            }
+            return headers;
+        });
+    }
+
+    private StringBuilder appendError(StringBuilder errors, Column column, String message) {
+        if (errors == null) {
+            errors = new StringBuilder();
+        }
+        return errors.append(headers()[column.position]).append(message);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Column createColumn(MethodHandles.Lookup lookup, Class<?> type, Field field, int position,
+                                       Function<Class<? extends ExcelCellConverter>, ExcelCellConverter<?>> converterFactory) {
+        ExcelColumn annotation = field.getAnnotation(ExcelColumn.class);
+        String name = type.getSimpleName() + "." + field.getName();
+        PropertyDescriptor property = BeanUtils.getPropertyDescriptor(type, field.getName());
+        if (property == null || property.getReadMethod() == null || property.getWriteMethod() == null) {
+            throw new IllegalStateException(name + " 缺少公共的getter或setter");
+        }
+        Class<?> fieldType = property.getPropertyType();
+        ExcelCellConverter<?> converter = annotation.converter() == ExcelCellConverter.class
+                ? ExcelCellConverters.forType(fieldType) : converterFactory.apply(annotation.converter());
+        if (converter == null) {
+            throw new IllegalStateException(name + " 的类型 " + fieldType.getName() + " 没有内置转换器，请通过 converter 指定");
+        }
+        Class<?> boxedType = ClassUtils.resolvePrimitiveIfNecessary(fieldType);
+        try {
+            MethodHandle getter = lookup.unreflect(property.getReadMethod());
+            MethodHandle setter = lookup.unreflect(property.getWriteMethod());
+            Function<Object, Object> getterFunction = lambda(lookup, Function.class, "apply",
+                    MethodType.methodType(Object.class, Object.class), getter,
+                    MethodType.methodType(boxedType, property.getReadMethod().getDeclaringClass()));
+            BiConsumer<Object, Object> setterFunction = lambda(lookup, BiConsumer.class, "accept",
+                    MethodType.methodType(void.class, Object.class, Object.class), setter,
+                    MethodType.methodType(void.class, property.getWriteMethod().getDeclaringClass(), boxedType));
+            return new Column(annotation, position, fieldType == String.class, getterFunction, setterFunction,
+                    (ExcelCellConverter<Object>) converter);
+        } catch (Throwable e) {
+            throw new IllegalStateException("无法为 " + name + " 生成访问器: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 通过LambdaMetafactory把方法句柄包装为函数式接口的实例。
+     */
+    @SuppressWarnings("unchecked")
+    private static <F> F lambda(MethodHandles.Lookup lookup, Class<? super F> functionType, String methodName,
+                                MethodType erasedType, MethodHandle implementation, MethodType instantiatedType) throws Throwable {
+        CallSite site = LambdaMetafactory.metafactory(lookup, methodName, MethodType.methodType(functionType),
+                erasedType, implementation, instantiatedType);
+        return (F) site.getTarget().invoke();
+    }
+
+    /**
+     * 一列的访问器和转换器。
+     */
+    private static final class Column {
+        private final String key; // 列头的多语言key
+        private final int position; // 在全部列中的下标
+        private final boolean required; // 导入时是否必填
+        private final boolean importable; // 是否从导入文件中读取
+        private final boolean string; // 字段是否为字符串，空单元格也原样赋值
+        private final Function<Object, Object> getter;
+        private final BiConsumer<Object, Object> setter;
+        private final ExcelCellConverter<Object> converter;
+
+        private Column(ExcelColumn annotation, int position, boolean string, Function<Object, Object> getter,
+                       BiConsumer<Object, Object> setter, ExcelCellConverter<Object> converter) {
+            this.key = annotation.header();
+            this.position = position;
+            this.required = annotation.required();
+            this.importable = annotation.importable();
+            this.string = string;
+            this.getter = getter;
+            this.setter = setter;
+            this.converter = converter;
+        }
+
+        /**
+         * @return 字段值对应的单元格文本，字段为null时返回null
+         */
+        private String write(Object item) {
+            Object value = getter.apply(item);
+            return value == null ? null : converter.write(value);
+        }
+    }
+}
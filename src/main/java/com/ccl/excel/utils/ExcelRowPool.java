@@ -0,0 +1,59 @@
+package com.ccl.excel.utils;
+
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * {@link ExcelRow}对象池。
+ * 解析线程从池中取行，批处理任务完成后由工作线程归还。池为空时直接新建，池满时丢弃多余的行，
+ * 因此池本身不会阻塞解析，只是把行对象的分配次数降到"同时在途的行数"这一量级。
+ */
+public class ExcelRowPool {
+
+    private final BlockingQueue<ExcelRow> pool; // 空闲的行对象
+    private final int rowWidth; // 新建行的初始列数
+
+    /**
+     * 构造函数。
+     * @param capacity 池中最多保留的空闲行数
+     * @param rowWidth 新建行的初始列数
+     */
+    public ExcelRowPool(int capacity, int rowWidth) {
+        this.pool = new ArrayBlockingQueue<>(Math.max(capacity, 1));
+        this.rowWidth = rowWidth;
+    }
+
+    /**
+     * 取出一个已重置的行对象。
+     * @param header 表头，读取表头行时为null
+     * @param rowNum 行号
+     * @return 行对象
+     */
+    public ExcelRow acquire(ExcelHeader header, int rowNum) {
+        ExcelRow row = pool.poll();
+        if (row == null) {
+            row = new ExcelRow(header == null ? rowWidth : header.size());
+        }
+        row.reset(header, rowNum);
+        return row;
+    }
+
+    /**
+     * 归还一个行对象。
+     * @param row 行对象
+     */
+    public void release(ExcelRow row) {
+        pool.offer(row);
+    }
+
+    /**
+     * 归还一批行对象。
+     * @param rows 行对象集合
+     */
+    public void releaseAll(Collection<ExcelRow> rows) {
+        for (ExcelRow row : rows) {
+            pool.offer(row);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.ccl.excel.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 导出时写入单个工作表的写入器。
+ * 表头写在第一行，数据行依次追加在其后；{@link #finish()}把完整的xlsx写到目标输出流，
+ * {@link #close()}释放写入器占用的资源，但不关闭目标输出流。
+ */
+public interface ExcelSheetWriter extends Closeable {
+
+    /**
+     * 写入表头行。
+     *
+     * @param headers 表头列表
+     * @throws IOException 如果写入失败
+     */
+    void writeHeaders(List<String> headers) throws IOException;
+
+    /**
+     * 追加一行数据。
+     *
+     * @param rowData 行数据列表，每个字符串对应一个单元格
+     * @throws IOException 如果写入失败
+     */
+    void writeRow(List<String> rowData) throws IOException;
+
+    /**
+     * 追加一行已渲染好的数据。数组可能来自复用的缓冲区，写入器不得保留对它的引用。
+     *
+     * @param cells 单元格数组，空单元格为null
+     * @throws IOException 如果写入失败
+     */
+    void writeRow(String[] cells) throws IOException;
+
+    /**
+     * 完成写入，输出完整的xlsx文件。
+     *
+     * @throws IOException 如果写入失败
+     */
+    void finish() throws IOException;
+}
@@ -1,5 +1,6 @@
 package com.ccl.excel.utils;
 
+import com.ccl.excel.constant.ExcelWriterType;
 import com.ccl.excel.execption.ExcelExportException;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.streaming.SXSSFSheet;
@@ -8,6 +9,7 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -15,6 +17,13 @@ import java.util.List;
  */
 public class ExcelUtil {
 
+    /**
+     * xlsx单个工作表最多1048576行，除去表头后的最大数据行数。
+     */
+    public static final int MAX_ROWS_PER_SHEET = 1_048_575;
+
+    private static final int MAX_SHEET_NAME_LENGTH = 31; // 工作表名称的最大长度
+
     /**
      * 创建 SXSSFWorkbook 实例。
      *
@@ -27,6 +36,54 @@ public class ExcelUtil {
         return workbook;
     }
 
+    /**
+     * 创建工作表写入器。
+     *
+     * @param type      写入器类型
+     * @param out       目标输出流，由调用方负责关闭
+     * @param sheetName 工作表名称
+     * @return 工作表写入器
+     * @throws IOException 如果写入失败
+     */
+    public static ExcelSheetWriter createSheetWriter(ExcelWriterType type, OutputStream out, String sheetName) throws IOException {
+        return createSheetWriter(type, out, sheetName, MAX_ROWS_PER_SHEET);
+    }
+
+    /**
+     * 创建工作表写入器，数据行超过上限时自动换到下一个工作表。
+     *
+     * @param type            写入器类型
+     * @param out             目标输出流，由调用方负责关闭
+     * @param sheetName       第一个工作表的名称
+     * @param maxRowsPerSheet 每个工作表最多的数据行数(不含表头)
+     * @return 工作表写入器
+     * @throws IOException 如果写入失败
+     */
+    public static ExcelSheetWriter createSheetWriter(ExcelWriterType type, OutputStream out, String sheetName,
+                                                     int maxRowsPerSheet) throws IOException {
+        if (type == ExcelWriterType.STREAMING) {
+            return new StreamingExcelSheetWriter(out, sheetName, maxRowsPerSheet);
+        }
+        return new SxssfExcelSheetWriter(out, sheetName, maxRowsPerSheet);
+    }
+
+    /**
+     * 获取换页后工作表的名称：第一个工作表使用原名称，之后依次为"名称_2"、"名称_3"...
+     * 名称过长时截断前缀，保证不超过31个字符。
+     *
+     * @param sheetName 第一个工作表的名称
+     * @param index     工作表序号 (0-based)
+     * @return 工作表名称
+     */
+    public static String rolloverSheetName(String sheetName, int index) {
+        if (index == 0) {
+            return sheetName;
+        }
+        String suffix = "_" + (index + 1);
+        int prefixLength = Math.min(sheetName.length(), MAX_SHEET_NAME_LENGTH - suffix.length());
+        return sheetName.substring(0, prefixLength) + suffix;
+    }
+
     /**
      * 创建并写入 Excel 表头。
      *
@@ -69,6 +126,25 @@ public class ExcelUtil {
         }
     }
 
+    /**
+     * 写入已渲染好的数据行到 Excel，空单元格不创建。
+     *
+     * @param sheet SXSSFSheet 实例
+     * @param rowNum 行号
+     * @param cells 单元格数组
+     */
+    public static void writeRow(SXSSFSheet sheet, int rowNum, String[] cells) {
+        if (cells == null || cells.length == 0) {
+            return;
+        }
+        Row dataRow = sheet.createRow(rowNum);
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != null) {
+                dataRow.createCell(i).setCellValue(cells[i]);
+            }
+        }
+    }
+
     /**
      * 将 SXSSFWorkbook 写入字节数组。
      *
@@ -0,0 +1,138 @@
+package com.ccl.excel.utils;
+
+/**
+ * 按64位指纹记录键的并发集合，用于导入任务内跨批次去重。
+ * <p>
+ * 不保存键本身，只保存键的64位哈希指纹：指纹存放在基本类型long数组的开放寻址(线性探测)表中，没有任何包装对象。
+ * 装载因子在0.375~0.75之间，每个键占约11~21字节(视扩容时机)：100万个键16MB，300万个键32MB，
+ * 1000万个键128MB，超过约300万个键后不再是几十MB的量级。
+ * 不同的键指纹相同的概率约为 n²/2^65，1000万个键时约百万分之三，发生时后到的行会被误判为重复。
+ * 改为32位指纹可以减半内存，但1000万个键时会有上万次误判；而只保存余数、由槽位隐含商的做法在线性探测下需要
+ * 额外记录每个指纹的原始槽位才能扩容，因此这里保留64位指纹。
+ * <p>
+ * 集合按指纹的高位分成多个分段，每个分段各自加锁、各自扩容，多个工作线程并发添加时很少互相等待。
+ */
+public class KeyFingerprintSet {
+
+    private static final int STRIPE_BITS = 6; // 分段数为2^6=64，由指纹的高6位选择
+    private static final int INITIAL_CAPACITY = 1024; // 每个分段的初始槽数，必须是2的幂
+
+    private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+
+    public KeyFingerprintSet() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * 添加一个键。
+     * @param key 键
+     * @return 键(的指纹)之前不存在时返回true
+     */
+    public boolean add(CharSequence key) {
+        return addFingerprint(fingerprint(key));
+    }
+
+    /**
+     * 添加一个指纹。0表示空槽，按1处理。
+     * @param fingerprint 指纹
+     * @return 指纹之前不存在时返回true
+     */
+    boolean addFingerprint(long fingerprint) {
+        if (fingerprint == 0) {
+            fingerprint = 1;
+        }
+        return stripes[(int) (fingerprint >>> (64 - STRIPE_BITS))].add(fingerprint);
+    }
+
+    /**
+     * @return 已添加的不同指纹数
+     */
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return 各分段指纹表占用的字节数
+     */
+    public long memoryBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            bytes += stripe.capacity() * 8L;
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "KeyFingerprintSet{size=" + size() + ", memoryBytes=" + memoryBytes() + '}';
+    }
+
+    /**
+     * 计算键的64位指纹：逐个UTF-16字符做FNV-1a，再用MurmurHash3的fmix64打散各位。
+     */
+    static long fingerprint(CharSequence key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 一个分段：线性探测的long开放寻址表，装载因子超过0.75时容量翻倍。
+     */
+    private static final class Stripe {
+        private long[] table = new long[INITIAL_CAPACITY];
+        private int size;
+
+        private synchronized boolean add(long fingerprint) {
+            if (insert(table, fingerprint)) {
+                if (++size * 4 > table.length * 3) {
+                    long[] grown = new long[table.length * 2];
+                    for (long existing : table) {
+                        if (existing != 0) {
+                            insert(grown, existing);
+                        }
+                    }
+                    table = grown;
+                }
+                return true;
+            }
+            return false;
+        }
+
+        private synchronized int size() {
+            return size;
+        }
+
+        private synchronized int capacity() {
+            return table.length;
+        }
+
+        private static boolean insert(long[] table, long fingerprint) {
+            int mask = table.length - 1;
+            for (int i = (int) fingerprint & mask; ; i = (i + 1) & mask) {
+                long existing = table[i];
+                if (existing == 0) {
+                    table[i] = fingerprint;
+                    return true;
+                }
+                if (existing == fingerprint) {
+                    return false;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.ccl.excel.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * 基于内存映射文件的只读共享字符串表。
+ * 解析SST时把每个字符串以"长度+UTF-8字节"的形式顺序写入临时文件，堆内只保留每个字符串的偏移量(8字节)，
+ * 读取时从映射区解码，并通过一个有界的Caffeine缓存加速热点字符串的访问。
+ * 适用于包含数百万个唯一字符串的超大文件。读取方法是线程安全的，可以被多个工作表解析线程共享。
+ */
+@Slf4j
+public class MappedSharedStrings implements SharedStrings, Closeable {
+
+    private static final int SEGMENT_SHIFT = 30; // 每个映射段1GB
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+    private final File file; // 存放字符串的临时文件
+    private final MappedByteBuffer[] segments; // 按段映射的文件内容
+    private final long[] offsets; // 第i个字符串在文件中的偏移量
+    private final int uniqueCount; // 唯一字符串数量
+    private final int count; // 文件中引用字符串的次数
+    private final Cache<Integer, String> cache; // 热点字符串缓存，并发读取无需加锁
+
+    /**
+     * 解析SST部件并构建映射索引。
+     * @param sstStream SST部件的输入流
+     * @param cacheSize 缓存的最大条目数
+     * @throws Exception 如果解析或写入临时文件失败
+     */
+    public MappedSharedStrings(InputStream sstStream, final int cacheSize) throws Exception {
+        this.file = File.createTempFile("excel_sst_", ".bin");
+        try {
+            SstHandler handler;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+                handler = new SstHandler(out);
+                // 使用POI的安全配置(禁用DTD和外部实体)，避免上传文件中的XXE攻击
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(handler);
+                parser.parse(new InputSource(sstStream));
+            }
+            this.offsets = Arrays.copyOf(handler.offsets, handler.size);
+            this.uniqueCount = handler.size;
+            this.count = handler.count > 0 ? handler.count : handler.size;
+            this.segments = map(file, handler.position);
+        } catch (Exception e) {
+            Files.deleteIfExists(file.toPath());
+            throw e;
+        }
+        this.cache = Caffeine.newBuilder()
+                .initialCapacity(Math.min(cacheSize, 1 << 16))
+                .maximumSize(cacheSize)
+                .build();
+        log.info("共享字符串表已映射到临时文件: " + file.getAbsolutePath() + "，唯一字符串数: " + uniqueCount);
+    }
+
+    private static MappedByteBuffer[] map(File file, long length) throws IOException {
+        int segmentCount = (int) ((length + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+        MappedByteBuffer[] result = new MappedByteBuffer[segmentCount];
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            for (int i = 0; i < segmentCount; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                result[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, length - start));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 读取指定下标的字符串，优先命中缓存。
+     * @param idx 字符串下标
+     * @return 字符串内容
+     */
+    public String getString(int idx) {
+        if (idx < 0 || idx >= uniqueCount) {
+            throw new IllegalArgumentException("共享字符串下标越界: " + idx);
+        }
+        return cache.get(idx, this::read);
+    }
+
+    private String read(int idx) {
+        long offset = offsets[idx];
+        // duplicate()得到独立的position，多线程读取互不影响
+        ByteBuffer segment = segments[(int) (offset >>> SEGMENT_SHIFT)].duplicate();
+        int position = (int) (offset & (SEGMENT_SIZE - 1));
+        int length = segment.getInt(position);
+        byte[] bytes = new byte[length];
+        segment.position(position + 4);
+        segment.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public RichTextString getItemAt(int idx) {
+        return new XSSFRichTextString(getString(idx));
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public int getUniqueCount() {
+        return uniqueCount;
+    }
+
+    /**
+     * 删除临时文件。映射区会在被GC回收时释放。
+     */
+    @Override
+    public void close() throws IOException {
+        cache.invalidateAll();
+        Files.deleteIfExists(file.toPath());
+    }
+
+    /**
+     * SST的SAX处理器：拼接每个si下所有t元素的文本(忽略rPh注音)，写入临时文件并记录偏移量。
+     */
+    private static class SstHandler extends DefaultHandler {
+
+        private final DataOutputStream out;
+        private final StringBuilder text = new StringBuilder();
+        private long[] offsets = new long[1024];
+        private int size;
+        private int count;
+        private long position;
+        private boolean inText;
+        private boolean inPhonetic;
+
+        SstHandler(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "sst":
+                    String countAttr = attributes.getValue("count");
+                    if (countAttr != null) {
+                        count = Integer.parseInt(countAttr);
+                    }
+                    String uniqueAttr = attributes.getValue("uniqueCount");
+                    if (uniqueAttr != null) {
+                        offsets = new long[Math.max(1, Integer.parseInt(uniqueAttr))];
+                    }
+                    break;
+                case "si":
+                    text.setLength(0);
+                    break;
+                case "rPh":
+                    inPhonetic = true;
+                    break;
+                case "t":
+                    inText = !inPhonetic;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "si":
+                    append(text.toString());
+                    break;
+                case "rPh":
+                    inPhonetic = false;
+                    break;
+                case "t":
+                    inText = false;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inText) {
+                text.append(ch, start, length);
+            }
+        }
+
+        private void append(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            int recordLength = 4 + bytes.length;
+            try {
+                // 保证单个字符串不跨越映射段边界
+                long segmentRemaining = SEGMENT_SIZE - (position & (SEGMENT_SIZE - 1));
+                if (recordLength > segmentRemaining) {
+                    byte[] padding = new byte[8192];
+                    for (long left = segmentRemaining; left > 0; left -= padding.length) {
+                        out.write(padding, 0, (int) Math.min(left, padding.length));
+                    }
+                    position += segmentRemaining;
+                }
+                if (size == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, size + (size >> 1) + 1);
+                }
+                offsets[size++] = position;
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                position += recordLength;
+            } catch (IOException e) {
+                throw new IllegalStateException("写入共享字符串临时文件失败", e);
+            }
+        }
+    }
+}
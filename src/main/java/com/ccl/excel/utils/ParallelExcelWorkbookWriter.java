@@ -0,0 +1,202 @@
+package com.ccl.excel.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * 多工作表并行生成的xlsx写入器。
+ * <p>
+ * 每个工作表由各自的线程通过{@link #openSheet(int)}得到的写入器填充：工作表XML序列化后直接压缩成
+ * 原始deflate数据写入独立的临时部件文件，同时计算CRC和大小。{@link #finish(OutputStream)}按工作表顺序
+ * 把各部件作为已压缩的条目原样拷贝进最终的包，不再解压或重新压缩，最后补上固定的包结构文件。
+ * 序列化和压缩这两步最耗CPU的工作因此可以随工作表数在多个核心上并行。
+ * <p>
+ * 不同工作表的写入器可以在不同线程上同时使用；单个工作表的写入器非线程安全。
+ * {@link #finish(OutputStream)}必须在所有工作表写入器完成后调用。
+ */
+@Slf4j
+public class ParallelExcelWorkbookWriter implements Closeable {
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024; // 部件文件读写的缓冲区大小
+
+    private final String sheetName; // 第一个工作表的名称，也是后续工作表名称的前缀
+    private final SheetPart[] parts; // 按工作表顺序排列的部件
+
+    /**
+     * 构造函数。
+     * @param sheetName 第一个工作表的名称，之后的工作表依次为"名称_2"、"名称_3"...
+     * @param sheetCount 工作表数
+     */
+    public ParallelExcelWorkbookWriter(String sheetName, int sheetCount) {
+        this.sheetName = sheetName;
+        this.parts = new SheetPart[sheetCount];
+    }
+
+    /**
+     * 创建指定工作表的写入器，写入器的{@link ExcelSheetWriter#finish()}只结束该工作表的部件。
+     * @param index 工作表序号 (0-based)
+     * @return 工作表写入器
+     * @throws IOException 如果创建临时部件文件失败
+     */
+    public ExcelSheetWriter openSheet(int index) throws IOException {
+        SheetPart part = new SheetPart(File.createTempFile("excel_sheet_", ".part"));
+        synchronized (parts) {
+            parts[index] = part;
+        }
+        return part;
+    }
+
+    /**
+     * @return 工作表数
+     */
+    public int getSheetCount() {
+        return parts.length;
+    }
+
+    /**
+     * 把各工作表部件组装成完整的xlsx写入目标输出流。不关闭目标输出流。
+     * @param out 目标输出流
+     * @throws IOException 如果写入失败或有工作表尚未完成
+     */
+    public void finish(OutputStream out) throws IOException {
+        List<String> sheetNames = new ArrayList<>(parts.length);
+        ZipArchiveOutputStream zip = new ZipArchiveOutputStream(new BufferedOutputStream(out, STREAM_BUFFER_SIZE));
+        synchronized (parts) {
+            for (int i = 0; i < parts.length; i++) {
+                SheetPart part = parts[i];
+                if (part == null || !part.finished) {
+                    throw new IOException("工作表 " + (i + 1) + " 尚未写入完成");
+                }
+                ZipArchiveEntry entry = new ZipArchiveEntry(SpreadsheetPackage.sheetPart(i));
+                entry.setMethod(ZipEntry.DEFLATED);
+                entry.setCrc(part.crc);
+                entry.setSize(part.size);
+                entry.setCompressedSize(part.compressedSize);
+                try (InputStream in = new BufferedInputStream(Files.newInputStream(part.file.toPath()), STREAM_BUFFER_SIZE)) {
+                    zip.addRawArchiveEntry(entry, in);
+                }
+                sheetNames.add(ExcelUtil.rolloverSheetName(sheetName, i));
+            }
+        }
+        writeEntry(zip, SpreadsheetPackage.CONTENT_TYPES, SpreadsheetPackage.contentTypes(parts.length));
+        writeEntry(zip, SpreadsheetPackage.ROOT_RELS, SpreadsheetPackage.rootRels());
+        writeEntry(zip, SpreadsheetPackage.WORKBOOK, SpreadsheetPackage.workbook(sheetNames));
+        writeEntry(zip, SpreadsheetPackage.WORKBOOK_RELS, SpreadsheetPackage.workbookRels(parts.length));
+        writeEntry(zip, SpreadsheetPackage.STYLES, SpreadsheetPackage.styles());
+        zip.finish();
+        zip.flush();
+    }
+
+    /**
+     * 释放所有工作表部件，删除临时文件。
+     */
+    @Override
+    public void close() {
+        synchronized (parts) {
+            for (SheetPart part : parts) {
+                if (part != null) {
+                    part.close();
+                    try {
+                        Files.deleteIfExists(part.file.toPath());
+                    } catch (IOException e) {
+                        log.warn("删除工作表临时部件失败: " + part.file.getAbsolutePath());
+                    }
+                }
+            }
+        }
+    }
+
+    private static void writeEntry(ZipArchiveOutputStream zip, String name, String content) throws IOException {
+        zip.putArchiveEntry(new ZipArchiveEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeArchiveEntry();
+    }
+
+    /**
+     * 单个工作表的部件：XML -> UTF-8 -> CRC -> 原始deflate -> 临时文件。
+     */
+    private static final class SheetPart implements ExcelSheetWriter {
+
+        private final File file; // 临时部件文件
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true); // 不带zlib头的原始deflate
+        private final OutputStream fileOut;
+        private final DeflaterOutputStream deflaterOut;
+        private final CheckedOutputStream checkedOut; // 对压缩前的数据计算CRC
+        private final SheetXmlWriter sheetXml;
+        private volatile boolean finished;
+        private long crc; // 压缩前数据的CRC32
+        private long size; // 压缩前的字节数
+        private long compressedSize; // 压缩后的字节数
+        private boolean closed;
+
+        private SheetPart(File file) throws IOException {
+            this.file = file;
+            this.fileOut = new BufferedOutputStream(new FileOutputStream(file), STREAM_BUFFER_SIZE);
+            this.deflaterOut = new DeflaterOutputStream(fileOut, deflater, STREAM_BUFFER_SIZE);
+            this.checkedOut = new CheckedOutputStream(deflaterOut, new CRC32());
+            this.sheetXml = new SheetXmlWriter(new OutputStreamWriter(checkedOut, StandardCharsets.UTF_8));
+            sheetXml.startSheet();
+        }
+
+        @Override
+        public void writeHeaders(List<String> headers) throws IOException {
+            sheetXml.writeHeaders(headers);
+        }
+
+        @Override
+        public void writeRow(List<String> rowData) throws IOException {
+            sheetXml.writeRow(rowData);
+        }
+
+        @Override
+        public void writeRow(String[] cells) throws IOException {
+            sheetXml.writeRow(cells);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            sheetXml.endSheet();
+            deflaterOut.finish();
+            fileOut.flush();
+            crc = checkedOut.getChecksum().getValue();
+            size = deflater.getBytesRead();
+            compressedSize = deflater.getBytesWritten();
+            close();
+            finished = true;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                fileOut.close();
+            } catch (IOException e) {
+                log.warn("关闭工作表临时部件失败: " + e.getMessage());
+            }
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.ccl.excel.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 把行数据序列化为工作表XML(SpreadsheetML)的写入器，单元格使用内联字符串。
+ * <p>
+ * 行和单元格的XML直接拼接到复用的字符缓冲区，列名按列下标缓存，行号逐位写入，
+ * 写入过程中不为每个单元格创建任何对象。同一个实例可以依次写入多个工作表，非线程安全。
+ */
+class SheetXmlWriter {
+
+    private static final int BUFFER_SIZE = 32 * 1024; // 字符缓冲区大小
+
+    private static final String ROW_START = "<row r=\"";
+    private static final String ROW_END = "</row>";
+    private static final String TAG_END = "\">";
+    private static final String CELL_START = "<c r=\"";
+    private static final String HEADER_CELL = "\" s=\"1\" t=\"inlineStr\"><is><t"; // s=1为表头样式(加粗、居中)
+    private static final String DATA_CELL = "\" t=\"inlineStr\"><is><t";
+    private static final String PRESERVE_SPACE = " xml:space=\"preserve\"";
+    private static final String CELL_END = "</t></is></c>";
+
+    private final Writer writer; // 字符输出
+    private final char[] buffer = new char[BUFFER_SIZE]; // 待编码的XML字符
+    private int position; // 缓冲区中已写入的字符数
+    private char[][] columnNames = new char[16][]; // 按列下标缓存的列名
+    private int rowNum; // 当前工作表最近写入的行号(从1开始)，0表示尚未写入
+
+    SheetXmlWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * 开始一个新的工作表，行号从1重新开始。
+     */
+    void startSheet() throws IOException {
+        rowNum = 0;
+        append(SpreadsheetPackage.SHEET_START);
+    }
+
+    /**
+     * 结束当前工作表，并把缓冲的字符全部写出到字符输出。
+     */
+    void endSheet() throws IOException {
+        append(SpreadsheetPackage.SHEET_END);
+        flush();
+    }
+
+    void writeHeaders(List<String> headers) throws IOException {
+        if (headers == null || headers.isEmpty()) {
+            rowNum = Math.max(rowNum, 1);
+            return;
+        }
+        startRow();
+        for (int i = 0; i < headers.size(); i++) {
+            writeCell(i, headers.get(i), HEADER_CELL);
+        }
+        append(ROW_END);
+    }
+
+    void writeRow(List<String> rowData) throws IOException {
+        if (rowData == null || rowData.isEmpty()) {
+            rowNum++;
+            return;
+        }
+        startRow();
+        for (int i = 0; i < rowData.size(); i++) {
+            writeCell(i, rowData.get(i), DATA_CELL);
+        }
+        append(ROW_END);
+    }
+
+    void writeRow(String[] cells) throws IOException {
+        if (cells == null || cells.length == 0) {
+            rowNum++;
+            return;
+        }
+        startRow();
+        for (int i = 0; i < cells.length; i++) {
+            writeCell(i, cells[i], DATA_CELL);
+        }
+        append(ROW_END);
+    }
+
+    /**
+     * 把缓冲的字符写出到字符输出并刷新。
+     */
+    void flush() throws IOException {
+        flushBuffer();
+        writer.flush();
+    }
+
+    private void startRow() throws IOException {
+        rowNum++;
+        append(ROW_START);
+        appendInt(rowNum);
+        append(TAG_END);
+    }
+
+    /**
+     * 写入当前行的一个单元格，空值不写。
+     */
+    private void writeCell(int index, String value, String cellType) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        append(CELL_START);
+        append(columnName(index));
+        appendInt(rowNum);
+        append(cellType);
+        if (value.charAt(0) <= ' ' || value.charAt(value.length() - 1) <= ' ') {
+            append(PRESERVE_SPACE);
+        }
+        append('>');
+        appendEscaped(value);
+        append(CELL_END);
+    }
+
+    /**
+     * 获取列名，例如 0 -> A，26 -> AA。首次用到某列时计算并缓存。
+     */
+    private char[] columnName(int index) {
+        if (index >= columnNames.length) {
+            columnNames = Arrays.copyOf(columnNames, Math.max(index + 1, columnNames.length * 2));
+        }
+        char[] name = columnNames[index];
+        if (name == null) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = index + 1; i > 0; i = (i - 1) / 26) {
+                sb.insert(0, (char) ('A' + (i - 1) % 26));
+            }
+            name = sb.toString().toCharArray();
+            columnNames[index] = name;
+        }
+        return name;
+    }
+
+    private void append(char c) throws IOException {
+        if (position == BUFFER_SIZE) {
+            flushBuffer();
+        }
+        buffer[position++] = c;
+    }
+
+    private void append(String value) throws IOException {
+        int length = value.length();
+        if (position + length > BUFFER_SIZE) {
+            flushBuffer();
+            if (length > BUFFER_SIZE) {
+                writer.write(value);
+                return;
+            }
+        }
+        value.getChars(0, length, buffer, position);
+        position += length;
+    }
+
+    private void append(char[] value) throws IOException {
+        if (position + value.length > BUFFER_SIZE) {
+            flushBuffer();
+        }
+        System.arraycopy(value, 0, buffer, position, value.length);
+        position += value.length;
+    }
+
+    /**
+     * 逐位写入非负整数，不创建字符串。
+     */
+    private void appendInt(int value) throws IOException {
+        if (position + 10 > BUFFER_SIZE) {
+            flushBuffer();
+        }
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    /**
+     * 写入XML转义后的文本，并去掉XML 1.0中不允许出现的控制字符。
+     */
+    private void appendEscaped(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&': append("&amp;"); break;
+                case '<': append("&lt;"); break;
+                case '>': append("&gt;"); break;
+                case '"': append("&quot;"); break;
+                default:
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        append(c);
+                    }
+            }
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            writer.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.ccl.excel.utils;
+
+import java.util.List;
+
+/**
+ * 直接生成xlsx时使用的固定包结构文件：内容类型、关系、工作簿和样式。
+ * 工作表部件按顺序命名为 xl/worksheets/sheet1.xml、sheet2.xml ...，样式中s=1为表头样式(加粗、居中)。
+ */
+final class SpreadsheetPackage {
+
+    static final String CONTENT_TYPES = "[Content_Types].xml";
+    static final String ROOT_RELS = "_rels/.rels";
+    static final String WORKBOOK = "xl/workbook.xml";
+    static final String WORKBOOK_RELS = "xl/_rels/workbook.xml.rels";
+    static final String STYLES = "xl/styles.xml";
+
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    static final String SHEET_START = XML_DECLARATION
+            + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>";
+    static final String SHEET_END = "</sheetData></worksheet>";
+
+    private SpreadsheetPackage() {
+    }
+
+    /**
+     * @param index 工作表序号 (0-based)
+     * @return 工作表部件在包中的名称
+     */
+    static String sheetPart(int index) {
+        return "xl/worksheets/sheet" + (index + 1) + ".xml";
+    }
+
+    static String contentTypes(int sheetCount) {
+        StringBuilder sb = new StringBuilder(XML_DECLARATION)
+                .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .append("<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>");
+        for (int i = 0; i < sheetCount; i++) {
+            sb.append("<Override PartName=\"/").append(sheetPart(i))
+                    .append("\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        return sb.append("<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>")
+                .append("</Types>").toString();
+    }
+
+    static String rootRels() {
+        return XML_DECLARATION
+                + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                + "</Relationships>";
+    }
+
+    /**
+     * 工作表i的关系ID为rId(i+1)，样式的关系ID排在所有工作表之后。
+     */
+    static String workbook(List<String> sheetNames) {
+        StringBuilder sb = new StringBuilder(XML_DECLARATION)
+                .append("<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" ")
+                .append("xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\"><sheets>");
+        for (int i = 0; i < sheetNames.size(); i++) {
+            sb.append("<sheet name=\"").append(escape(sheetNames.get(i))).append("\" sheetId=\"").append(i + 1)
+                    .append("\" r:id=\"rId").append(i + 1).append("\"/>");
+        }
+        return sb.append("</sheets></workbook>").toString();
+    }
+
+    static String workbookRels(int sheetCount) {
+        StringBuilder sb = new StringBuilder(XML_DECLARATION)
+                .append("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+        for (int i = 0; i < sheetCount; i++) {
+            sb.append("<Relationship Id=\"rId").append(i + 1)
+                    .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet")
+                    .append(i + 1).append(".xml\"/>");
+        }
+        return sb.append("<Relationship Id=\"rId").append(sheetCount + 1)
+                .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\" Target=\"styles.xml\"/>")
+                .append("</Relationships>").toString();
+    }
+
+    static String styles() {
+        return XML_DECLARATION
+                + "<styleSheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+                + "<fonts count=\"2\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font>"
+                + "<font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+                + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill><fill><patternFill patternType=\"gray125\"/></fill></fills>"
+                + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+                + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+                + "<cellXfs count=\"2\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+                + "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\" applyAlignment=\"1\">"
+                + "<alignment horizontal=\"center\"/></xf></cellXfs>"
+                + "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+                + "</styleSheet>";
+    }
+
+    /**
+     * XML转义，用于固定结构文件中的工作表名称。
+     */
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,133 @@
+package com.ccl.excel.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 直接输出SpreadsheetML的工作表写入器。
+ * 工作表XML边生成边压缩写入目标输出流，单元格使用内联字符串，不经过POI对象模型，也没有临时文件。
+ * 写入HTTP响应时，客户端在第一批行生成后即可开始接收数据。
+ * 其余固定的包结构文件(工作簿、关系、样式、内容类型)在{@link #finish()}时写入。
+ * <p>
+ * 当前工作表的数据行达到上限时自动换到下一个工作表(名称依次为 Sheet1_2、Sheet1_3 ...)，并重复写入表头。
+ */
+public class StreamingExcelSheetWriter implements ExcelSheetWriter {
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024; // 压缩后输出的缓冲区大小
+
+    private final OutputStream stream; // 压缩数据的缓冲输出
+    private final ZipOutputStream zip;
+    private final Writer writer; // 当前zip条目的字符输出
+    private final SheetXmlWriter sheetXml; // 工作表XML序列化
+    private final String sheetName; // 第一个工作表的名称，也是后续工作表名称的前缀
+    private final int maxRowsPerSheet; // 每个工作表最多的数据行数(不含表头)
+    private final List<String> sheetNames = new ArrayList<>(); // 已创建的工作表名称
+    private List<String> headers; // 表头，换工作表时重复写入
+    private int rowsInSheet; // 当前工作表已写入的数据行数
+    private boolean finished;
+
+    public StreamingExcelSheetWriter(OutputStream out, String sheetName) throws IOException {
+        this(out, sheetName, ExcelUtil.MAX_ROWS_PER_SHEET);
+    }
+
+    public StreamingExcelSheetWriter(OutputStream out, String sheetName, int maxRowsPerSheet) throws IOException {
+        this.stream = new BufferedOutputStream(out, STREAM_BUFFER_SIZE);
+        this.zip = new ZipOutputStream(stream, StandardCharsets.UTF_8);
+        this.writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+        this.sheetXml = new SheetXmlWriter(writer);
+        this.sheetName = sheetName;
+        this.maxRowsPerSheet = Math.max(1, Math.min(maxRowsPerSheet, ExcelUtil.MAX_ROWS_PER_SHEET));
+        startSheet();
+    }
+
+    @Override
+    public void writeHeaders(List<String> headers) throws IOException {
+        this.headers = headers;
+        sheetXml.writeHeaders(headers);
+    }
+
+    @Override
+    public void writeRow(List<String> rowData) throws IOException {
+        rolloverIfFull();
+        sheetXml.writeRow(rowData);
+        rowsInSheet++;
+    }
+
+    @Override
+    public void writeRow(String[] cells) throws IOException {
+        rolloverIfFull();
+        sheetXml.writeRow(cells);
+        rowsInSheet++;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        endSheet();
+        writeEntry(SpreadsheetPackage.CONTENT_TYPES, SpreadsheetPackage.contentTypes(sheetNames.size()));
+        writeEntry(SpreadsheetPackage.ROOT_RELS, SpreadsheetPackage.rootRels());
+        writeEntry(SpreadsheetPackage.WORKBOOK, SpreadsheetPackage.workbook(sheetNames));
+        writeEntry(SpreadsheetPackage.WORKBOOK_RELS, SpreadsheetPackage.workbookRels(sheetNames.size()));
+        writeEntry(SpreadsheetPackage.STYLES, SpreadsheetPackage.styles());
+        zip.finish();
+        stream.flush();
+        finished = true;
+    }
+
+    /**
+     * 结束zip输出。未调用{@link #finish()}时输出的文件是不完整的。不关闭目标输出流。
+     */
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            sheetXml.flush();
+            zip.finish();
+            stream.flush();
+            finished = true;
+        }
+    }
+
+    /**
+     * @return 已创建的工作表数
+     */
+    public int getSheetCount() {
+        return sheetNames.size();
+    }
+
+    /**
+     * 当前工作表已满时换到下一个工作表，并重复写入表头。
+     */
+    private void rolloverIfFull() throws IOException {
+        if (rowsInSheet == maxRowsPerSheet) {
+            endSheet();
+            startSheet();
+            sheetXml.writeHeaders(headers);
+        }
+    }
+
+    private void startSheet() throws IOException {
+        zip.putNextEntry(new ZipEntry(SpreadsheetPackage.sheetPart(sheetNames.size())));
+        sheetNames.add(ExcelUtil.rolloverSheetName(sheetName, sheetNames.size()));
+        sheetXml.startSheet();
+        rowsInSheet = 0;
+    }
+
+    private void endSheet() throws IOException {
+        sheetXml.endSheet();
+        zip.closeEntry();
+    }
+
+    private void writeEntry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        writer.write(content);
+        writer.flush();
+        zip.closeEntry();
+    }
+}
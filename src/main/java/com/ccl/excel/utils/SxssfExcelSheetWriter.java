@@ -0,0 +1,76 @@
+package com.ccl.excel.utils;
+
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * 基于 SXSSFWorkbook 的工作表写入器。
+ * 行数据先滚动写入磁盘临时文件，{@link #finish()}时再整体打包输出，适合写入文件。
+ * 当前工作表的数据行达到上限时自动新建下一个工作表，并重复写入表头。
+ */
+public class SxssfExcelSheetWriter implements ExcelSheetWriter {
+
+    private final OutputStream out; // 目标输出流
+    private final SXSSFWorkbook workbook;
+    private final String sheetName; // 第一个工作表的名称
+    private final int maxRowsPerSheet; // 每个工作表最多的数据行数(不含表头)
+    private SXSSFSheet sheet; // 当前工作表
+    private List<String> headers; // 表头，换工作表时重复写入
+    private int rowNum = 1; // 下一个数据行的行号，第0行为表头
+
+    public SxssfExcelSheetWriter(OutputStream out, String sheetName) {
+        this(out, sheetName, ExcelUtil.MAX_ROWS_PER_SHEET);
+    }
+
+    public SxssfExcelSheetWriter(OutputStream out, String sheetName, int maxRowsPerSheet) {
+        this.out = out;
+        this.workbook = ExcelUtil.createWorkbook();
+        this.sheetName = sheetName;
+        this.maxRowsPerSheet = Math.max(1, Math.min(maxRowsPerSheet, ExcelUtil.MAX_ROWS_PER_SHEET));
+        this.sheet = workbook.createSheet(sheetName);
+    }
+
+    @Override
+    public void writeHeaders(List<String> headers) {
+        this.headers = headers;
+        ExcelUtil.writeHeaders(sheet, headers);
+    }
+
+    @Override
+    public void writeRow(List<String> rowData) {
+        rolloverIfFull();
+        ExcelUtil.writeRow(sheet, rowNum++, rowData);
+    }
+
+    @Override
+    public void writeRow(String[] cells) {
+        rolloverIfFull();
+        ExcelUtil.writeRow(sheet, rowNum++, cells);
+    }
+
+    /**
+     * 当前工作表已满时新建下一个工作表，并重复写入表头。
+     */
+    private void rolloverIfFull() {
+        if (rowNum > maxRowsPerSheet) {
+            sheet = workbook.createSheet(ExcelUtil.rolloverSheetName(sheetName, workbook.getNumberOfSheets()));
+            ExcelUtil.writeHeaders(sheet, headers);
+            rowNum = 1;
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        workbook.write(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.dispose(); // 释放临时文件
+        workbook.close();
+    }
+}
@@ -6,7 +6,24 @@ create table `t_import_record`
     `start_time`    datetime     NOT NULL,
     `end_time`      datetime     DEFAULT NULL,
     `status`        tinyint      NOT NULL,
-    `failed_report_path` varchar(255) DEFAULT NULL
+    `failed_report_path` varchar(255) DEFAULT NULL,
+    `inserted_count`     bigint       DEFAULT NULL,
+    `updated_count`      bigint       DEFAULT NULL,
+    `unchanged_count`    bigint       DEFAULT NULL,
+    `import_method`      varchar(255) DEFAULT NULL,
+    `source_path`        varchar(500) DEFAULT NULL,
+    `checkpoint`         text         DEFAULT NULL
+);
+
+-- 导入检查点区间：与写入数据在同一个事务中插入，恢复导入时合并到t_import_record.checkpoint
+create table `t_import_checkpoint`
+(
+    `id`            bigint      AUTO_INCREMENT PRIMARY KEY,
+    `import_job_id` varchar(64) NOT NULL,
+    `sheet_index`   int         NOT NULL,
+    `first_row`     int         NOT NULL,
+    `last_row`      int         NOT NULL,
+    KEY `idx_import_job_id` (`import_job_id`)
 );
 
 CREATE TABLE `t_export_task_log`
@@ -21,6 +38,8 @@ CREATE TABLE `t_export_task_log`
     `file_path`        VARCHAR(500) NULL COMMENT '导出 Excel 文件的路径',
     `error_message`    TEXT NULL COMMENT '错误信息',
     `request_params`   TEXT NULL COMMENT '原始请求参数的 JSON 字符串',
+    `elapsed_millis`   BIGINT NULL COMMENT '导出耗时(毫秒)',
+    `rows_per_second`  DOUBLE NULL COMMENT '导出吞吐量(行/秒)',
     PRIMARY KEY (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='Excel 导出任务日志表';
 
@@ -30,7 +49,8 @@ create TABLE `t_user`
     `id`    varchar(64) Primary key,
     `name`  varchar(32) default '' comment '名称',
     `age`   int         default 0 comment '年龄',
-    `email` varchar(32) default '' comment '邮箱'
+    `email` varchar(32) default '' comment '邮箱',
+    UNIQUE KEY `uk_email` (`email`)
 );
 
 create TABLE `t_product`
@@ -0,0 +1,188 @@
+package com.ccl.excel.task;
+
+import com.ccl.excel.pojo.ExcelImportEntity;
+import com.ccl.excel.strategy.BatchImportStrategy;
+import com.ccl.excel.utils.ColumnBinding;
+import com.ccl.excel.utils.ExcelRow;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExcelImportBatchTaskTests {
+
+    @Test
+    void dataErrorsAreSplitDownToTheBadRows() throws Exception {
+        FakeStrategy strategy = new FakeStrategy(chunk -> chunk.contains("3") || chunk.contains("6")
+                ? new DataIntegrityViolationException("Duplicate entry") : null);
+        ExcelImportBatchTask<String> task = new ExcelImportBatchTask<>(items(8), "t", strategy, 10, 1);
+
+        List<Map<String, String>> failed = task.call();
+
+        assertEquals(Arrays.asList("3", "6"), failed.stream().map(r -> r.get("ID")).collect(Collectors.toList()));
+        assertEquals("Duplicate entry", failed.get(0).get(ExcelImportEntity.ERROR_COLUMN));
+        assertEquals(new HashSet<>(Arrays.asList("0", "1", "2", "4", "5", "7")), strategy.imported);
+        // 8 -> 4+4 -> 2+2+2+2 -> 其中两个2行的子批次再拆为单行
+        assertEquals(10, task.getRetryCount());
+        assertEquals(11, strategy.calls);
+    }
+
+    @Test
+    void chunksAtTheDepthLimitAreRecordedAsFailed() throws Exception {
+        FakeStrategy strategy = new FakeStrategy(chunk -> chunk.contains("0")
+                ? new DataIntegrityViolationException("Data too long") : null);
+        ExcelImportBatchTask<String> task = new ExcelImportBatchTask<>(items(8), "t", strategy, 1, 1);
+
+        List<Map<String, String>> failed = task.call();
+
+        assertEquals(4, failed.size());
+        assertEquals(new HashSet<>(Arrays.asList("4", "5", "6", "7")), strategy.imported);
+        assertEquals(2, task.getRetryCount());
+    }
+
+    @Test
+    void transientErrorsAreRethrownWithoutSplitting() {
+        QueryTimeoutException timeout = new QueryTimeoutException("timeout");
+        FakeStrategy strategy = new FakeStrategy(chunk -> timeout);
+        ExcelImportBatchTask<String> task = new ExcelImportBatchTask<>(items(8), "t", strategy, 10, 1);
+
+        assertSame(timeout, assertThrows(QueryTimeoutException.class, task::call));
+        assertEquals(1, strategy.calls);
+        assertEquals(0, task.getRetryCount());
+    }
+
+    @Test
+    void resourceFailureDuringSplitIsRethrown() {
+        // 第一次因数据错误拆分，拆分后数据库不可用：不能把剩余的行记为失败
+        FakeStrategy strategy = new FakeStrategy(chunk -> chunk.size() == 8
+                ? new DataIntegrityViolationException("Duplicate entry")
+                : new DataAccessResourceFailureException("Communications link failure"));
+        ExcelImportBatchTask<String> task = new ExcelImportBatchTask<>(items(8), "t", strategy, 10, 1);
+
+        assertThrows(DataAccessResourceFailureException.class, task::call);
+        assertEquals(2, strategy.calls);
+        assertTrue(strategy.imported.isEmpty());
+    }
+
+    @Test
+    void otherExceptionsAreNotDataErrors() {
+        assertTrue(ExcelImportBatchTask.isDataError(new DataIntegrityViolationException("x")));
+        assertFalse(ExcelImportBatchTask.isDataError(new DataAccessResourceFailureException("x")));
+        assertFalse(ExcelImportBatchTask.isDataError(new QueryTimeoutException("x")));
+        assertFalse(ExcelImportBatchTask.isDataError(new IllegalStateException("x")));
+    }
+
+    @Test
+    void committedChunksAreRecordedInTheirOwnTransaction() throws Exception {
+        FakeStrategy strategy = new FakeStrategy(chunk -> chunk.contains("3") || chunk.contains("6")
+                ? new DataIntegrityViolationException("Duplicate entry") : null);
+        RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+        List<List<String>> recorded = new ArrayList<>();
+        ExcelImportBatchTask<String> task = new ExcelImportBatchTask<>(items(8), "t", strategy, 10, 1,
+                new TransactionTemplate(transactionManager), chunk -> recorded.add(new ArrayList<>(chunk)));
+
+        task.call();
+
+        assertEquals(Arrays.asList(Arrays.asList("0", "1"), Collections.singletonList("2"), Arrays.asList("4", "5"),
+                Collections.singletonList("7")), recorded);
+        assertEquals(4, transactionManager.commits);
+        assertEquals(7, transactionManager.rollbacks);
+    }
+
+    @Test
+    void withoutRetryTheExceptionIsRethrown() {
+        FakeStrategy strategy = new FakeStrategy(chunk -> new DataIntegrityViolationException("Duplicate entry"));
+        ExcelImportBatchTask<String> task = new ExcelImportBatchTask<>(items(4), "t", strategy);
+
+        assertThrows(DataIntegrityViolationException.class, task::call);
+        assertEquals(1, strategy.calls);
+    }
+
+    private static List<String> items(int count) {
+        return IntStream.range(0, count).mapToObj(String::valueOf).collect(Collectors.toList());
+    }
+
+    private static final class RecordingTransactionManager implements PlatformTransactionManager {
+        private int commits;
+        private int rollbacks;
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            commits++;
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            rollbacks++;
+        }
+    }
+
+    /**
+     * importBatch按给定规则抛出异常(整个子批次回滚)，否则记录导入成功的行。
+     */
+    private static final class FakeStrategy implements BatchImportStrategy<String> {
+        private final Function<List<String>, RuntimeException> failure;
+        private final Set<String> imported = new HashSet<>();
+        private int calls;
+
+        private FakeStrategy(Function<List<String>, RuntimeException> failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public String convertRow(ExcelRow row, ColumnBinding columns) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Map<String, String>> importBatch(List<String> data) {
+            calls++;
+            RuntimeException e = failure.apply(data);
+            if (e != null) {
+                throw e;
+            }
+            imported.addAll(data);
+            return new ArrayList<>();
+        }
+
+        @Override
+        public List<String> getErrorHeaders() {
+            return Collections.singletonList("ID");
+        }
+
+        @Override
+        public Map<String, String> t2Map(String item) {
+            Map<String, String> record = new HashMap<>();
+            record.put("ID", item);
+            return record;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.ccl.excel.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportCheckpointTests {
+
+    @Test
+    void outOfOrderBatchesMergeIntoThroughOnceTheGapCloses() {
+        ImportCheckpoint checkpoint = new ImportCheckpoint();
+        checkpoint.markCommitted(0, 401, 600);
+        checkpoint.markCommitted(0, 201, 400);
+        assertEquals("0:0,201-600", checkpoint.format());
+
+        checkpoint.markCommitted(0, 1, 200);
+        assertEquals("0:600", checkpoint.format());
+    }
+
+    @Test
+    void overlappingAndAdjacentRangesAreMerged() {
+        ImportCheckpoint checkpoint = new ImportCheckpoint();
+        checkpoint.markCommitted(0, 101, 200);
+        checkpoint.markCommitted(0, 301, 400);
+        checkpoint.markCommitted(0, 150, 320); // 与两个区间都重叠
+        assertEquals("0:0,101-400", checkpoint.format());
+
+        checkpoint.markCommitted(0, 401, 500); // 与区间相邻
+        checkpoint.markCommitted(0, 601, 700);
+        assertEquals("0:0,101-500,601-700", checkpoint.format());
+
+        checkpoint.markCommitted(0, 1, 100);
+        assertEquals("0:500,601-700", checkpoint.format());
+
+        checkpoint.markCommitted(0, 300, 450); // 已完成的行不改变进度
+        assertEquals("0:500,601-700", checkpoint.format());
+    }
+
+    @Test
+    void formatAndParseRoundTrip() {
+        ImportCheckpoint checkpoint = new ImportCheckpoint();
+        checkpoint.markCommitted(2, 1, 800);
+        checkpoint.markCommitted(0, 1, 1200);
+        checkpoint.markCommitted(0, 1401, 1600);
+        checkpoint.markCommitted(0, 1801, 1900);
+        String text = checkpoint.format();
+        assertEquals("0:1200,1401-1600,1801-1900;2:800", text);
+
+        ImportCheckpoint parsed = ImportCheckpoint.parse(text);
+        assertEquals(text, parsed.format());
+        parsed.markCommitted(0, 1201, 1400);
+        assertEquals("0:1600,1801-1900;2:800", parsed.format());
+
+        assertEquals("", ImportCheckpoint.parse(null).format());
+        assertEquals("", ImportCheckpoint.parse("  ").format());
+    }
+
+    @Test
+    void malformedTextIsRejected() {
+        for (String text : new String[]{"0", "a:10", "0:10,20", "0:10,x-30", "0:10;;1:5", ":10"}) {
+            assertThrows(IllegalArgumentException.class, () -> ImportCheckpoint.parse(text), text);
+        }
+    }
+
+    @Test
+    void committedRowsMatchesRangeBoundaries() {
+        ImportCheckpoint checkpoint = ImportCheckpoint.parse("0:200,401-600");
+        IntPredicate committed = checkpoint.committedRows(0);
+        assertTrue(committed.test(0));
+        assertTrue(committed.test(200));
+        assertFalse(committed.test(201));
+        assertFalse(committed.test(400));
+        assertTrue(committed.test(401));
+        assertTrue(committed.test(600));
+        assertFalse(committed.test(601));
+
+        assertNull(checkpoint.committedRows(1));
+        assertNull(ImportCheckpoint.parse("1:0").committedRows(1));
+
+        // 快照不受之后的进度影响
+        checkpoint.markCommitted(0, 201, 400);
+        assertFalse(committed.test(300));
+        assertTrue(checkpoint.committedRows(0).test(300));
+    }
+}
@@ -0,0 +1,87 @@
+package com.ccl.excel.task;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportPipelineTests {
+
+    private final ExecutorService workers = Executors.newCachedThreadPool();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void shutdown() {
+        workers.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void rejectedWorkersAreRetriedWhileTheParserBlocks() throws Exception {
+        SaturatedExecutor executor = new SaturatedExecutor(workers);
+        List<Thread> handlerThreads = new CopyOnWriteArrayList<>();
+        ImportPipeline<Integer> pipeline = new ImportPipeline<>("t", 1, 1, executor,
+                batch -> handlerThreads.add(Thread.currentThread()));
+
+        pipeline.submit(1, 1); // 排空任务被拒绝，批次留在队列中
+        assertEquals(0, handlerThreads.size());
+        scheduler.schedule(() -> executor.saturated = false, 300, TimeUnit.MILLISECONDS);
+        pipeline.submit(2, 1); // 队列已满，阻塞到排空任务重新提交成功
+        pipeline.finish();
+        pipeline.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, handlerThreads.size());
+        assertFalse(handlerThreads.contains(Thread.currentThread()));
+        assertTrue(executor.rejected.get() >= 2);
+        assertTrue(pipeline.getMetrics().getWorkerRejectedCount() >= 2);
+    }
+
+    @Test
+    void finishWaitsUntilTheRemainingBatchesHaveAWorker() throws Exception {
+        SaturatedExecutor executor = new SaturatedExecutor(workers);
+        AtomicInteger handled = new AtomicInteger();
+        ImportPipeline<Integer> pipeline = new ImportPipeline<>("t", 4, 2, executor, batch -> handled.incrementAndGet());
+
+        pipeline.submit(1, 1);
+        pipeline.submit(2, 1);
+        scheduler.schedule(() -> executor.saturated = false, 300, TimeUnit.MILLISECONDS);
+        pipeline.finish();
+        pipeline.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, handled.get());
+    }
+
+    /**
+     * 饱和时像AbortPolicy一样拒绝任务，否则交给真实的线程池执行。
+     */
+    private static final class SaturatedExecutor implements Executor {
+        private final Executor delegate;
+        private final AtomicInteger rejected = new AtomicInteger();
+        private volatile boolean saturated = true;
+
+        private SaturatedExecutor(Executor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (saturated) {
+                rejected.incrementAndGet();
+                throw new RejectedExecutionException("saturated");
+            }
+            delegate.execute(command);
+        }
+    }
+}
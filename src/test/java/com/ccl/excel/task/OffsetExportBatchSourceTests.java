@@ -0,0 +1,125 @@
+package com.ccl.excel.task;
+
+import com.ccl.excel.strategy.BatchExportStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class OffsetExportBatchSourceTests {
+
+    @Test
+    void pagesCompletingOutOfOrderAreReturnedInPageOrder() throws Exception {
+        // 10行、每页3行：4页，最后一页只有1行
+        ManualExecutor executor = new ManualExecutor();
+        OffsetExportBatchSource<Long> source = new OffsetExportBatchSource<>("t", new RangeStrategy(-1), renderer(),
+                10, 3, 3, executor);
+
+        List<String> written = drainNewestFirst(source, executor);
+
+        assertEquals(rows(0, 10), written);
+        assertEquals(4, executor.executed);
+    }
+
+    @Test
+    void emptyFinalPageEndsTheStream() throws Exception {
+        // 导出过程中最后一页的数据被删除，该页返回空列表
+        ManualExecutor executor = new ManualExecutor();
+        OffsetExportBatchSource<Long> source = new OffsetExportBatchSource<>("t", new RangeStrategy(9), renderer(),
+                12, 3, 2, executor);
+
+        List<String> written = drainNewestFirst(source, executor);
+
+        assertEquals(rows(0, 9), written);
+        assertEquals(4, executor.executed);
+    }
+
+    /**
+     * 每次取下一批之前，把已调度的查询按调度顺序的倒序执行，使后面的页总是先完成。
+     */
+    private static List<String> drainNewestFirst(OffsetExportBatchSource<Long> source, ManualExecutor executor)
+            throws Exception {
+        List<String> written = new ArrayList<>();
+        while (true) {
+            executor.runNewestFirst();
+            RenderedBatch batch = source.next(1, TimeUnit.SECONDS);
+            if (batch == null) {
+                break;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                written.add(batch.getRow(i)[0]);
+            }
+        }
+        assertNull(source.next(1, TimeUnit.SECONDS));
+        assertEquals(0, executor.pending.size());
+        return written;
+    }
+
+    private static ExportRowRenderer<Long> renderer() {
+        return new ExportRowRenderer<>(new RangeStrategy(-1), 1, 0);
+    }
+
+    private static List<String> rows(long from, long to) {
+        return LongStream.range(from, to).mapToObj(String::valueOf).collect(Collectors.toList());
+    }
+
+    /**
+     * 第i行的值为i；cutoff不小于0时，偏移量不小于cutoff的行视为已删除。
+     */
+    private static final class RangeStrategy implements BatchExportStrategy<Long> {
+        private final long cutoff;
+
+        private RangeStrategy(long cutoff) {
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        public long getTotalCount(Object... methodArgs) {
+            return 0;
+        }
+
+        @Override
+        public List<Long> fetchDataSegment(long offset, long limit, Object... methodArgs) {
+            long end = cutoff < 0 ? offset + limit : Math.min(offset + limit, cutoff);
+            return LongStream.range(offset, Math.max(offset, end)).boxed().collect(Collectors.toList());
+        }
+
+        @Override
+        public List<String> getHeaders() {
+            return Collections.singletonList("ID");
+        }
+
+        @Override
+        public List<String> convertToRow(Long data) {
+            return Collections.singletonList(String.valueOf(data));
+        }
+    }
+
+    private static final class ManualExecutor implements Executor {
+        private final Deque<Runnable> pending = new ArrayDeque<>();
+        private int executed;
+
+        @Override
+        public void execute(Runnable command) {
+            pending.push(command);
+        }
+
+        private void runNewestFirst() {
+            Runnable task;
+            while ((task = pending.poll()) != null) {
+                executed++;
+                task.run();
+            }
+        }
+    }
+}
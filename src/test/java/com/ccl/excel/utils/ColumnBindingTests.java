@@ -0,0 +1,64 @@
+package com.ccl.excel.utils;
+
+import com.ccl.excel.execption.ExcelImportException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnBindingTests {
+
+    private static final String[] NAMES = {"姓名", "年龄", "邮箱"};
+    private static final boolean[] REQUIRED = {true, true, false};
+
+    @Test
+    void missingOptionalColumnsAreBoundToMinusOne() {
+        ExcelHeader header = new ExcelHeader("用户", new String[]{"年龄", "姓名"});
+        ColumnBinding binding = ColumnBinding.bind(header, NAMES, REQUIRED);
+
+        assertEquals(1, binding.indexOf(0));
+        assertEquals(0, binding.indexOf(1));
+        assertEquals(-1, binding.indexOf(2));
+
+        ExcelRow row = row(header, "18", "张三", "不属于邮箱列");
+        assertEquals("张三", binding.get(row, 0));
+        assertEquals("18", binding.get(row, 1));
+        assertNull(binding.get(row, 2));
+    }
+
+    @Test
+    void missingRequiredColumnsFailFast() {
+        ExcelHeader header = new ExcelHeader("用户", new String[]{"姓名", "邮箱"});
+        ExcelImportException e = assertThrows(ExcelImportException.class,
+                () -> ColumnBinding.bind(header, NAMES, REQUIRED));
+        assertTrue(e.getMessage().contains("年龄"));
+        assertFalse(e.getMessage().contains("邮箱"));
+    }
+
+    @Test
+    void withoutRequiredFlagsEveryColumnIsRequired() {
+        ExcelHeader header = new ExcelHeader("用户", new String[]{"姓名", "年龄"});
+        assertThrows(ExcelImportException.class, () -> ColumnBinding.bind(header, NAMES));
+    }
+
+    @Test
+    void sheetWithoutHeaderFailsOnlyWithRequiredColumns() {
+        assertThrows(ExcelImportException.class, () -> ColumnBinding.bind(null, NAMES, REQUIRED));
+
+        ColumnBinding binding = ColumnBinding.bind(null, NAMES, new boolean[3]);
+        assertEquals(-1, binding.indexOf(0));
+        assertNull(binding.get(row(null, "张三"), 0));
+    }
+
+    private static ExcelRow row(ExcelHeader header, String... cells) {
+        ExcelRow row = new ExcelRow(cells.length);
+        row.reset(header, 1);
+        for (int i = 0; i < cells.length; i++) {
+            row.set(i, cells[i]);
+        }
+        return row;
+    }
+}
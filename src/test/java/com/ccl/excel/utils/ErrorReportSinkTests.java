@@ -0,0 +1,90 @@
+package com.ccl.excel.utils;
+
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ErrorReportSinkTests {
+
+    private static final List<String> HEADERS = Arrays.asList("行号", "错误信息");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void recordsOverTheLimitAreCountedAndNoted() throws Exception {
+        XSSFSheet sheet;
+        try (ErrorReportSink sink = new ErrorReportSink(HEADERS, 3, 1)) {
+            appendRows(sink, 10);
+            assertEquals(10, sink.getFailedCount());
+            assertEquals(3, sink.getRecordedCount());
+            sheet = write(sink);
+        }
+        assertEquals(4, sheet.getLastRowNum());
+        assertEquals("3", sheet.getRow(3).getCell(0).getStringCellValue());
+        assertEquals("共 10 条失败记录，报告中包含 3 条", sheet.getRow(4).getCell(0).getStringCellValue());
+    }
+
+    @Test
+    void sampledRecordsAreEveryNth() throws Exception {
+        XSSFSheet sheet;
+        try (ErrorReportSink sink = new ErrorReportSink(HEADERS, 0, 3)) {
+            appendRows(sink, 10);
+            assertEquals(4, sink.getRecordedCount());
+            sheet = write(sink);
+        }
+        for (int i = 0; i < 4; i++) {
+            assertEquals(String.valueOf(i * 3 + 1), sheet.getRow(i + 1).getCell(0).getStringCellValue());
+        }
+        assertEquals("共 10 条失败记录，报告中包含 4 条", sheet.getRow(5).getCell(0).getStringCellValue());
+    }
+
+    @Test
+    void fullSheetIsWrittenWithoutTheNote() throws Exception {
+        XSSFSheet sheet;
+        try (ErrorReportSink sink = new ErrorReportSink(HEADERS, 0, 1, 5)) {
+            appendRows(sink, 6);
+            assertEquals(6, sink.getFailedCount());
+            assertEquals(5, sink.getRecordedCount());
+            sheet = write(sink);
+        }
+        assertEquals(5, sheet.getLastRowNum());
+        assertEquals("5", sheet.getRow(5).getCell(0).getStringCellValue());
+    }
+
+    @Test
+    void noRecordsProducesNoFile() throws Exception {
+        try (ErrorReportSink sink = new ErrorReportSink(HEADERS, 0, 1)) {
+            File file = tempDir.resolve("empty.xlsx").toFile();
+            assertFalse(sink.writeTo(file.getPath()));
+            assertFalse(file.exists());
+        }
+    }
+
+    private static void appendRows(ErrorReportSink sink, int count) {
+        for (int i = 1; i <= count; i++) {
+            Map<String, String> record = Collections.singletonMap("行号", String.valueOf(i));
+            sink.append(record);
+        }
+    }
+
+    private XSSFSheet write(ErrorReportSink sink) throws Exception {
+        File file = tempDir.resolve("report.xlsx").toFile();
+        assertTrue(sink.writeTo(file.getPath()));
+        try (XSSFWorkbook workbook = new XSSFWorkbook(file)) {
+            return workbook.getSheetAt(0);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.ccl.excel.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyFingerprintSetTests {
+
+    @Test
+    void duplicatesAreRejectedAcrossResizes() {
+        KeyFingerprintSet set = new KeyFingerprintSet();
+        long initialBytes = set.memoryBytes();
+        int keys = 200_000; // 每个分段约3000个指纹，初始1024个槽位，至少扩容两次
+        for (int i = 0; i < keys; i++) {
+            assertTrue(set.add("P" + i));
+            if (i % 1000 == 0) {
+                // 扩容之前添加的键在扩容之后仍被识别为重复
+                assertFalse(set.add("P" + (i / 2)));
+            }
+        }
+        assertEquals(keys, set.size());
+        assertTrue(set.memoryBytes() >= initialBytes * 4);
+        for (int i = 0; i < keys; i++) {
+            assertFalse(set.add("P" + i));
+        }
+        assertEquals(keys, set.size());
+        // 装载因子不超过0.75
+        assertTrue(set.size() * 8L * 4 <= set.memoryBytes() * 3);
+    }
+
+    @Test
+    void zeroFingerprintDoesNotCollideWithEmptySlots() {
+        KeyFingerprintSet set = new KeyFingerprintSet();
+        assertTrue(set.addFingerprint(0));
+        assertFalse(set.addFingerprint(0));
+        // 0按1处理，两者视为同一个指纹
+        assertFalse(set.addFingerprint(1));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void probingWrapsAroundTheEndOfTheTable() {
+        KeyFingerprintSet set = new KeyFingerprintSet();
+        // 高6位为0，都落在第一个分段；低10位为1023，都从初始表的最后一个槽位开始探测
+        long[] tail = {1023, 1023 + 1024, 1023 + 2048, 1023 + 4096};
+        for (long fingerprint : tail) {
+            assertTrue(set.addFingerprint(fingerprint));
+        }
+        // 从第一个槽位开始探测，需要越过绕回到开头的指纹
+        assertTrue(set.addFingerprint(1024));
+        for (long fingerprint : tail) {
+            assertFalse(set.addFingerprint(fingerprint));
+        }
+        assertFalse(set.addFingerprint(1024));
+        assertEquals(tail.length + 1, set.size());
+    }
+
+    @Test
+    void concurrentAddsReturnTrueExactlyOncePerKey() throws Exception {
+        KeyFingerprintSet set = new KeyFingerprintSet();
+        int threads = 8;
+        int keys = 100_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * 997;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int added = 0;
+                    // 每个线程以不同的起点添加同一组键
+                    for (int i = 0; i < keys; i++) {
+                        if (set.add("K" + ((i + offset) % keys))) {
+                            added++;
+                        }
+                    }
+                    return added;
+                }));
+            }
+            start.countDown();
+            int added = 0;
+            for (Future<Integer> result : results) {
+                added += result.get(60, TimeUnit.SECONDS);
+            }
+            assertEquals(keys, added);
+            assertEquals(keys, set.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.ccl.excel.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedSharedStringsTests {
+
+    private static final String NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+    @Test
+    void stringsAreReadBackIgnoringPhoneticRuns() throws Exception {
+        String xml = "<sst xmlns=\"" + NS + "\" count=\"4\" uniqueCount=\"3\">"
+                + "<si><t>张三</t></si>"
+                + "<si><r><t>富</t></r><r><t>文本</t></r><rPh><t>ふ</t></rPh></si>"
+                + "<si><t></t></si>"
+                + "</sst>";
+        try (MappedSharedStrings strings = new MappedSharedStrings(stream(xml), 2)) {
+            assertEquals(3, strings.getUniqueCount());
+            assertEquals(4, strings.getCount());
+            assertEquals("张三", strings.getString(0));
+            assertEquals("富文本", strings.getItemAt(1).getString());
+            assertEquals("", strings.getString(2));
+            assertEquals("张三", strings.getString(0));
+            assertThrows(IllegalArgumentException.class, () -> strings.getString(3));
+        }
+    }
+
+    @Test
+    void concurrentReadsSeeTheSameStrings() throws Exception {
+        StringBuilder xml = new StringBuilder("<sst xmlns=\"" + NS + "\">");
+        for (int i = 0; i < 1000; i++) {
+            xml.append("<si><t>s").append(i).append("</t></si>");
+        }
+        xml.append("</sst>");
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try (MappedSharedStrings strings = new MappedSharedStrings(stream(xml.toString()), 100)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 5000; i++) {
+                        int idx = (i * 7) % 1000;
+                        assertEquals("s" + idx, strings.getString(idx));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void externalEntitiesAreRejected() {
+        String xml = "<?xml version=\"1.0\"?><!DOCTYPE sst [<!ENTITY xxe SYSTEM \"file:///etc/passwd\">]>"
+                + "<sst xmlns=\"" + NS + "\"><si><t>&xxe;</t></si></sst>";
+        assertThrows(Exception.class, () -> new MappedSharedStrings(stream(xml), 10).close());
+    }
+
+    private static InputStream stream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
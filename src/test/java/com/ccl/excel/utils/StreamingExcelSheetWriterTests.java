@@ -0,0 +1,58 @@
+package com.ccl.excel.utils;
+
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingExcelSheetWriterTests {
+
+    @Test
+    void writtenWorkbookCanBeReadByPoi() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExcelSheetWriter writer = new StreamingExcelSheetWriter(out, "用户")) {
+            writer.writeHeaders(Arrays.asList("ID", "姓名", "备注"));
+            writer.writeRow(Arrays.asList("1", "张三", "A & <B>"));
+            writer.writeRow(Arrays.asList("2", null, " 前后空格 "));
+            writer.finish();
+        }
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            XSSFSheet sheet = workbook.getSheet("用户");
+            assertEquals(2, sheet.getLastRowNum());
+            assertTrue(sheet.getRow(0).getCell(0).getCellStyle().getFont().getBold());
+            assertEquals("张三", sheet.getRow(1).getCell(1).getStringCellValue());
+            assertEquals("A & <B>", sheet.getRow(1).getCell(2).getStringCellValue());
+            assertNull(sheet.getRow(2).getCell(1));
+            assertEquals(" 前后空格 ", sheet.getRow(2).getCell(2).getStringCellValue());
+        }
+    }
+
+    @Test
+    void rowsOverTheCapRollOverToNewSheetsWithHeader() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExcelSheetWriter writer = new StreamingExcelSheetWriter(out, "用户", 2)) {
+            writer.writeHeaders(Arrays.asList("ID", "姓名"));
+            for (int i = 1; i <= 5; i++) {
+                writer.writeRow(Arrays.asList(String.valueOf(i), "用户" + i));
+            }
+            writer.finish();
+        }
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(3, workbook.getNumberOfSheets());
+            XSSFSheet third = workbook.getSheet("用户_3");
+            assertEquals("ID", third.getRow(0).getCell(0).getStringCellValue());
+            assertEquals(1, third.getLastRowNum());
+            assertEquals("5", third.getRow(1).getCell(0).getStringCellValue());
+            assertEquals("4", workbook.getSheet("用户_2").getRow(2).getCell(0).getStringCellValue());
+        }
+    }
+}